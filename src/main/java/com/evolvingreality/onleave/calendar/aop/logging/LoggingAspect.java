@@ -2,36 +2,103 @@ package com.evolvingreality.onleave.calendar.aop.logging;
 
 import com.evolvingreality.onleave.calendar.config.Constants;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
 
 import javax.inject.Inject;
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Aspect for logging execution of service and repository Spring components.
+ * <p>
+ * What it does is set by its {@link Mode}, which can be changed at runtime: nothing, logging every call at debug
+ * level, logging a sample of the calls at info level with their arguments and results truncated, or timing the
+ * calls into {@code aspect.<class>.<method>} timers of the metric registry. Exceptions are logged in every mode but
+ * {@link Mode#OFF}, where they are left to the callers.
+ * <p>
+ * Even in {@link Mode#OFF} every call to a repository, service or REST controller goes through a proxy and the
+ * advice, so the aspect is only created when {@code jhipster.logging.aspect.enabled} is set, as in dev.
  */
 @Aspect
 public class LoggingAspect {
 
+    public enum Mode {
+        /** Calls go straight through, nothing is logged. */
+        OFF,
+        /** Every call is logged at debug level, with its arguments and result. */
+        LOG,
+        /** One call in sampleRate is logged at info level, with its arguments and result truncated. */
+        SAMPLED,
+        /** Every call is timed, nothing is logged. */
+        TIMING
+    }
+
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
+    private final ConcurrentMap<Method, Timer> timers = new ConcurrentHashMap<>();
+
     @Inject
     private Environment env;
 
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    private volatile Mode mode;
+
+    private volatile int sampleRate;
+
+    private volatile int maxArgumentLength;
+
+    public LoggingAspect(Mode mode, int sampleRate, int maxArgumentLength) {
+        configure(mode, sampleRate, maxArgumentLength);
+    }
+
+    public void configure(Mode mode, int sampleRate, int maxArgumentLength) {
+        if (sampleRate < 1 || maxArgumentLength < 1) {
+            throw new IllegalArgumentException("The sample rate and the maximum argument length must be positive");
+        }
+        this.sampleRate = sampleRate;
+        this.maxArgumentLength = maxArgumentLength;
+        this.mode = mode;
+        log.info("Logging aspect in {} mode, sampling 1 call in {}", mode, sampleRate);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getMaxArgumentLength() {
+        return maxArgumentLength;
+    }
+
     @Pointcut("within(com.evolvingreality.onleave.calendar.repository..*) || within(com.evolvingreality.onleave.calendar.service..*) || within(com.evolvingreality.onleave.calendar.web.rest..*)")
     public void loggingPointcut() {
     }
 
     @AfterThrowing(pointcut = "loggingPointcut()", throwing = "e")
     public void logAfterThrowing(JoinPoint joinPoint, Throwable e) {
+        if (mode == Mode.OFF) {
+            return;
+        }
         if (env.acceptsProfiles(Constants.SPRING_PROFILE_DEVELOPMENT)) {
             log.error("Exception in {}.{}() with cause = {} and exception {}", joinPoint.getSignature().getDeclaringTypeName(),
                 joinPoint.getSignature().getName(), e.getCause(), e);
@@ -43,22 +110,71 @@ public class LoggingAspect {
 
     @Around("loggingPointcut()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        if (log.isDebugEnabled()) {
-            log.debug("Enter: {}.{}() with argument[s] = {}", joinPoint.getSignature().getDeclaringTypeName(),
-                joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        switch (mode) {
+            case LOG:
+                return logCall(joinPoint, false);
+            case SAMPLED:
+                if (ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+                    return logCall(joinPoint, true);
+                }
+                return joinPoint.proceed();
+            case TIMING:
+                return time(joinPoint);
+            default:
+                return joinPoint.proceed();
+        }
+    }
+
+    /**
+     * Logs the call at debug level, or at info level with its arguments and result truncated if it is a sample, so
+     * that the samples show up with the INFO level of prod.
+     */
+    private Object logCall(ProceedingJoinPoint joinPoint, boolean sampled) throws Throwable {
+        boolean enabled = sampled ? log.isInfoEnabled() : log.isDebugEnabled();
+        if (enabled) {
+            log(sampled, "Enter: {}.{}() with argument[s] = {}", joinPoint.getSignature().getDeclaringTypeName(),
+                joinPoint.getSignature().getName(), format(joinPoint.getArgs(), sampled));
         }
         try {
             Object result = joinPoint.proceed();
-            if (log.isDebugEnabled()) {
-                log.debug("Exit: {}.{}() with result = {}", joinPoint.getSignature().getDeclaringTypeName(),
-                    joinPoint.getSignature().getName(), result);
+            if (enabled) {
+                log(sampled, "Exit: {}.{}() with result = {}", joinPoint.getSignature().getDeclaringTypeName(),
+                    joinPoint.getSignature().getName(), format(result, sampled));
             }
             return result;
         } catch (IllegalArgumentException e) {
-            log.error("Illegal argument: {} in {}.{}()", Arrays.toString(joinPoint.getArgs()),
+            log.error("Illegal argument: {} in {}.{}()", format(joinPoint.getArgs(), sampled),
                     joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
 
             throw e;
         }
     }
+
+    private void log(boolean sampled, String format, Object... arguments) {
+        if (sampled) {
+            log.info(format, arguments);
+        } else {
+            log.debug(format, arguments);
+        }
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = timers.computeIfAbsent(method, m ->
+            metricRegistry.timer(MetricRegistry.name("aspect", joinPoint.getSignature().getDeclaringTypeName(), m.getName())));
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private String format(Object value, boolean truncate) {
+        String text = value instanceof Object[] ? Arrays.toString((Object[]) value) : String.valueOf(value);
+        if (truncate && text.length() > maxArgumentLength) {
+            return text.substring(0, maxArgumentLength) + "...(" + text.length() + " chars)";
+        }
+        return text;
+    }
 }
@@ -0,0 +1,115 @@
+package com.evolvingreality.onleave.calendar.async;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A thread pool publishing its state to the metric registry, under {@code executor.<name>}: the active threads,
+ * the pool size and the queue depth as gauges, the time tasks waited in the queue and ran as timers, and the
+ * rejected tasks as a meter.
+ */
+public class InstrumentedTaskExecutor extends ThreadPoolTaskExecutor {
+
+    private final String name;
+
+    private final MetricRegistry metricRegistry;
+
+    private final Timer waiting;
+
+    private final Timer running;
+
+    private final Meter rejections;
+
+    public InstrumentedTaskExecutor(String name, MetricRegistry metricRegistry) {
+        this.name = name;
+        this.metricRegistry = metricRegistry;
+        this.waiting = metricRegistry.timer(MetricRegistry.name("executor", name, "waiting"));
+        this.running = metricRegistry.timer(MetricRegistry.name("executor", name, "running"));
+        this.rejections = metricRegistry.meter(MetricRegistry.name("executor", name, "rejections"));
+        setThreadNamePrefix("calendar-" + name + "-");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    protected ExecutorService initializeExecutor(ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
+        ExecutorService executor = super.initializeExecutor(threadFactory, (task, pool) -> {
+            rejections.mark();
+            rejectedExecutionHandler.rejectedExecution(task, pool);
+        });
+        register("active", this::getActiveCount);
+        register("size", this::getPoolSize);
+        register("queue", () -> getThreadPoolExecutor().getQueue().size());
+        return executor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        super.execute(instrument(task));
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return super.submit(instrument(task));
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return super.submit(instrument(task));
+    }
+
+    @Override
+    public ListenableFuture<?> submitListenable(Runnable task) {
+        return super.submitListenable(instrument(task));
+    }
+
+    @Override
+    public <T> ListenableFuture<T> submitListenable(Callable<T> task) {
+        return super.submitListenable(instrument(task));
+    }
+
+    private Runnable instrument(Runnable task) {
+        long queued = System.nanoTime();
+        return () -> {
+            long start = System.nanoTime();
+            waiting.update(start - queued, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                running.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private <T> Callable<T> instrument(Callable<T> task) {
+        long queued = System.nanoTime();
+        return () -> {
+            long start = System.nanoTime();
+            waiting.update(start - queued, TimeUnit.NANOSECONDS);
+            try {
+                return task.call();
+            } finally {
+                running.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private void register(String metric, Gauge<Integer> gauge) {
+        String metricName = MetricRegistry.name("executor", name, metric);
+        metricRegistry.remove(metricName);
+        metricRegistry.register(metricName, gauge);
+    }
+}
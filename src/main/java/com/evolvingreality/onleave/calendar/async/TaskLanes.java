@@ -0,0 +1,59 @@
+package com.evolvingreality.onleave.calendar.async;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Named execution lanes of the background work, each on its own bounded thread pool, so that a lane filling its
+ * queue does not hold back the tasks of the others. A lane that is not configured runs on the default executor.
+ */
+public class TaskLanes implements DisposableBean {
+
+    /** The calendar warm-up at startup. */
+    public static final String WARM_UP = "warm-up";
+
+    /** The refreshes of the calendar year cache and the rebuilds of the holiday index. */
+    public static final String REFRESH = "refresh";
+
+    /** The delivery of the calendar changes to the Server-Sent Events subscribers. */
+    public static final String CHANGE_STREAM = "change-stream";
+
+    private final Logger log = LoggerFactory.getLogger(TaskLanes.class);
+
+    private final Map<String, AsyncTaskExecutor> lanes = new LinkedHashMap<>();
+
+    private final AsyncTaskExecutor defaultExecutor;
+
+    public TaskLanes(AsyncTaskExecutor defaultExecutor) {
+        this.defaultExecutor = defaultExecutor;
+    }
+
+    /**
+     * Adds an initialized executor as a lane.
+     */
+    public void add(InstrumentedTaskExecutor executor) {
+        log.debug("Adding task lane {}, {} to {} threads", executor.getName(), executor.getCorePoolSize(),
+            executor.getMaxPoolSize());
+        lanes.put(executor.getName(), new ExceptionHandlingAsyncTaskExecutor(executor));
+    }
+
+    /**
+     * @param name the name of the lane
+     * @return the executor of the lane, or the default executor if the lane is not configured
+     */
+    public AsyncTaskExecutor get(String name) {
+        return lanes.getOrDefault(name, defaultExecutor);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (AsyncTaskExecutor lane : lanes.values()) {
+            ((DisposableBean) lane).destroy();
+        }
+    }
+}
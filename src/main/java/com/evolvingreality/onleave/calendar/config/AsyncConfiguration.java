@@ -1,6 +1,10 @@
 package com.evolvingreality.onleave.calendar.config;
 
 import com.evolvingreality.onleave.calendar.async.ExceptionHandlingAsyncTaskExecutor;
+import com.evolvingreality.onleave.calendar.async.InstrumentedTaskExecutor;
+import com.evolvingreality.onleave.calendar.async.TaskLanes;
+
+import com.codahale.metrics.MetricRegistry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,9 +12,10 @@ import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.scheduling.annotation.*;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.Map;
 import java.util.concurrent.Executor;
 
 import javax.inject.Inject;
@@ -25,11 +30,14 @@ public class AsyncConfiguration implements AsyncConfigurer {
     @Inject
     private JHipsterProperties jHipsterProperties;
 
+    @Inject
+    private MetricRegistry metricRegistry;
+
     @Override
     @Bean(name = "taskExecutor")
     public Executor getAsyncExecutor() {
         log.debug("Creating Async Task Executor");
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        InstrumentedTaskExecutor executor = new InstrumentedTaskExecutor("default", metricRegistry);
         executor.setCorePoolSize(jHipsterProperties.getAsync().getCorePoolSize());
         executor.setMaxPoolSize(jHipsterProperties.getAsync().getMaxPoolSize());
         executor.setQueueCapacity(jHipsterProperties.getAsync().getQueueCapacity());
@@ -37,6 +45,26 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
 
+    /**
+     * The execution lanes of the background jobs, each with its own bounds and thread priority, see
+     * {@link TaskLanes}.
+     */
+    @Bean
+    public TaskLanes taskLanes() {
+        TaskLanes taskLanes = new TaskLanes((AsyncTaskExecutor) getAsyncExecutor());
+        for (Map.Entry<String, JHipsterProperties.Async.Lane> entry : jHipsterProperties.getAsync().getLanes().entrySet()) {
+            JHipsterProperties.Async.Lane lane = entry.getValue();
+            InstrumentedTaskExecutor executor = new InstrumentedTaskExecutor(entry.getKey(), metricRegistry);
+            executor.setCorePoolSize(lane.getCorePoolSize());
+            executor.setMaxPoolSize(lane.getMaxPoolSize());
+            executor.setQueueCapacity(lane.getQueueCapacity());
+            executor.setThreadPriority(lane.getPriority());
+            executor.initialize();
+            taskLanes.add(executor);
+        }
+        return taskLanes;
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
@@ -27,6 +27,16 @@ import javax.inject.Inject;
 @AutoConfigureAfter(value = { MetricsConfiguration.class, DatabaseConfiguration.class })
 public class CacheConfiguration {
 
+    /**
+     * Cache of the {@link com.evolvingreality.onleave.calendar.domain.CalendarYear} trees, keyed by country and year.
+     */
+    public static final String CALENDAR_YEAR_CACHE = "calendarYears";
+
+    /**
+     * Cache of the padded {@link com.evolvingreality.onleave.calendar.domain.CalendarYear} trees, keyed by country and year.
+     */
+    public static final String PADDED_CALENDAR_YEAR_CACHE = "paddedCalendarYears";
+
     private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
 
     private static HazelcastInstance hazelcastInstance;
@@ -92,6 +102,8 @@ public class CacheConfiguration {
         
         config.getMapConfigs().put("default", initializeDefaultMapConfig());
         config.getMapConfigs().put("com.evolvingreality.onleave.calendar.domain.*", initializeDomainMapConfig(jHipsterProperties));
+        config.getMapConfigs().put(CALENDAR_YEAR_CACHE, initializeCalendarYearMapConfig(jHipsterProperties));
+        config.getMapConfigs().put(PADDED_CALENDAR_YEAR_CACHE, initializeCalendarYearMapConfig(jHipsterProperties));
 
         hazelcastInstance = HazelcastInstanceFactory.newHazelcastInstance(config);
 
@@ -143,6 +155,13 @@ public class CacheConfiguration {
         return mapConfig;
     }
 
+    private MapConfig initializeCalendarYearMapConfig(JHipsterProperties jHipsterProperties) {
+        MapConfig mapConfig = initializeDefaultMapConfig();
+
+        mapConfig.setTimeToLiveSeconds(jHipsterProperties.getCache().getTimeToLiveSeconds());
+        return mapConfig;
+    }
+
     /**
     * @return the unique instance.
     */
@@ -1,16 +1,22 @@
 package com.evolvingreality.onleave.calendar.config;
 
 import com.evolvingreality.onleave.calendar.config.liquibase.AsyncSpringLiquibase;
+import com.evolvingreality.onleave.calendar.config.metrics.ConnectionCountingDataSource;
+import com.evolvingreality.onleave.calendar.config.metrics.InstrumentedDataSource;
+import com.evolvingreality.onleave.calendar.config.metrics.StatementMetrics;
 
 import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.datatype.hibernate4.Hibernate4Module;
 import com.zaxxer.hikari.HikariDataSource;
+import liquibase.exception.LiquibaseException;
 import liquibase.integration.spring.SpringLiquibase;
 import org.h2.tools.Server;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.CacheManager;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceBuilder;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
@@ -21,14 +27,20 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.inject.Inject;
 import javax.sql.DataSource;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Configuration
 @EnableJpaRepositories("com.evolvingreality.onleave.calendar.repository")
@@ -71,6 +83,109 @@ public class DatabaseConfiguration {
         return hikariDataSource;
     }
 
+    /**
+     * Per statement shape timers and row counts of the primary and replica pools, see {@link StatementMetrics}.
+     */
+    @Bean
+    public StatementMetrics statementMetrics(MetricRegistry metricRegistry, JHipsterProperties jHipsterProperties) {
+        JHipsterProperties.Datasource.Statements statements = jHipsterProperties.getDatasource().getStatements();
+        return new StatementMetrics(metricRegistry, statements.getSlowThresholdMillis(), statements.getMaxShapes());
+    }
+
+    /**
+     * Wraps the data source once its pool properties are bound, to time its statements, to count the connections
+     * acquired per request and, when read replicas are configured, to route read-only transactions to them.
+     *
+     * @return the post processor of the data source
+     */
+    @Bean
+    public static BeanPostProcessor dataSourcePostProcessor(final BeanFactory beanFactory) {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ConnectionCountingDataSource
+                    || bean instanceof ReplicaRoutingDataSource) {
+                    return bean;
+                }
+                StatementMetrics statementMetrics = beanFactory.getBean(StatementMetrics.class);
+                DataSource primary = new ConnectionCountingDataSource(
+                    new InstrumentedDataSource((DataSource) bean, statementMetrics));
+                JHipsterProperties.Datasource.Replicas replicas =
+                    beanFactory.getBean(JHipsterProperties.class).getDatasource().getReplicas();
+                List<String> urls = replicas.getUrls().stream()
+                    .filter(url -> url != null && !url.trim().isEmpty())
+                    .collect(Collectors.toList());
+                if (!replicas.isEnabled() || urls.isEmpty() || !(bean instanceof HikariDataSource)) {
+                    return primary;
+                }
+                if (replicas.isMigrate()) {
+                    migrateReplicas((HikariDataSource) bean, replicas, urls,
+                        beanFactory.getBean(LiquibaseProperties.class));
+                }
+                MetricRegistry metricRegistry = beanFactory.getBean(MetricRegistry.class);
+                return new ReplicaRoutingDataSource(primary,
+                    createReplicas((HikariDataSource) bean, replicas, urls, metricRegistry, statementMetrics),
+                    replicas.getHealthCheckIntervalSeconds(), metricRegistry);
+            }
+        };
+    }
+
+    /**
+     * Creates a pool per replica, with the settings of the primary pool and its own Hikari metrics.
+     */
+    private static Map<String, DataSource> createReplicas(HikariDataSource primary,
+                                                          JHipsterProperties.Datasource.Replicas replicas,
+                                                          List<String> urls, MetricRegistry metricRegistry,
+                                                          StatementMetrics statementMetrics) {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(urls.get(i));
+            replica.setDriverClassName(primary.getDriverClassName());
+            replica.setUsername(replicas.getUsername() != null ? replicas.getUsername() : primary.getUsername());
+            replica.setPassword(replicas.getUsername() != null ? replicas.getPassword() : primary.getPassword());
+            replica.setMaximumPoolSize(primary.getMaximumPoolSize());
+            replica.setDataSourceProperties(primary.getDataSourceProperties());
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(metricRegistry);
+            dataSources.put(name, new ConnectionCountingDataSource(new InstrumentedDataSource(replica, statementMetrics)));
+        }
+        return dataSources;
+    }
+
+    /**
+     * Applies the changelog of the primary to the replicas, for replicas which are not kept in sync by the database,
+     * like the embedded one of dev. It runs before the pools are created, on a connection that is not read-only.
+     */
+    private static void migrateReplicas(HikariDataSource primary, JHipsterProperties.Datasource.Replicas replicas,
+                                        List<String> urls, LiquibaseProperties liquibaseProperties) {
+        for (String url : urls) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+                replicas.getUsername() != null ? replicas.getUsername() : primary.getUsername(),
+                replicas.getUsername() != null ? replicas.getPassword() : primary.getPassword());
+            dataSource.setDriverClassName(primary.getDriverClassName());
+            SpringLiquibase liquibase = new SpringLiquibase();
+            liquibase.setResourceLoader(new DefaultResourceLoader());
+            liquibase.setDataSource(dataSource);
+            liquibase.setChangeLog("classpath:config/liquibase/master.xml");
+            liquibase.setContexts(liquibaseProperties.getContexts());
+            liquibase.setDefaultSchema(liquibaseProperties.getDefaultSchema());
+            try {
+                liquibase.afterPropertiesSet();
+            } catch (LiquibaseException e) {
+                throw new ApplicationContextException("Could not migrate the replica " + url, e);
+            }
+        }
+    }
+
     /**
      * Open the TCP port for the H2 database, so it is available remotely.
      *
@@ -1,9 +1,15 @@
 package com.evolvingreality.onleave.calendar.config;
 
 
+import com.evolvingreality.onleave.calendar.aop.logging.LoggingAspect;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.web.cors.CorsConfiguration;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Properties specific to JHipster.
@@ -21,6 +27,8 @@ public class JHipsterProperties {
 
     private final Cache cache = new Cache();
 
+    private final Datasource datasource = new Datasource();
+
     private final Mail mail = new Mail();
 
     private final Security security = new Security();
@@ -45,6 +53,10 @@ public class JHipsterProperties {
         return cache;
     }
 
+    public Datasource getDatasource() {
+        return datasource;
+    }
+
     public Mail getMail() {
         return mail;
     }
@@ -77,6 +89,8 @@ public class JHipsterProperties {
 
         private int queueCapacity = 10000;
 
+        private final Map<String, Lane> lanes = new LinkedHashMap<>();
+
         public int getCorePoolSize() {
             return corePoolSize;
         }
@@ -100,16 +114,151 @@ public class JHipsterProperties {
         public void setQueueCapacity(int queueCapacity) {
             this.queueCapacity = queueCapacity;
         }
+
+        public Map<String, Lane> getLanes() {
+            return lanes;
+        }
+
+        public static class Lane {
+
+            private int corePoolSize = 1;
+
+            private int maxPoolSize = 1;
+
+            private int queueCapacity = 100;
+
+            private int priority = Thread.NORM_PRIORITY;
+
+            public int getCorePoolSize() {
+                return corePoolSize;
+            }
+
+            public void setCorePoolSize(int corePoolSize) {
+                this.corePoolSize = corePoolSize;
+            }
+
+            public int getMaxPoolSize() {
+                return maxPoolSize;
+            }
+
+            public void setMaxPoolSize(int maxPoolSize) {
+                this.maxPoolSize = maxPoolSize;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public int getPriority() {
+                return priority;
+            }
+
+            public void setPriority(int priority) {
+                this.priority = priority;
+            }
+        }
     }
 
     public static class Http {
 
         private final Cache cache = new Cache();
 
+        private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
         public Cache getCache() {
             return cache;
         }
 
+        public ConcurrencyLimit getConcurrencyLimit() {
+            return concurrencyLimit;
+        }
+
+        public static class ConcurrencyLimit {
+
+            private boolean enabled = false;
+
+            private int rejectionStatus = 503;
+
+            private int retryAfterSeconds = 1;
+
+            private final Map<String, EndpointClass> classes = new LinkedHashMap<>();
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getRejectionStatus() {
+                return rejectionStatus;
+            }
+
+            public void setRejectionStatus(int rejectionStatus) {
+                this.rejectionStatus = rejectionStatus;
+            }
+
+            public int getRetryAfterSeconds() {
+                return retryAfterSeconds;
+            }
+
+            public void setRetryAfterSeconds(int retryAfterSeconds) {
+                this.retryAfterSeconds = retryAfterSeconds;
+            }
+
+            public Map<String, EndpointClass> getClasses() {
+                return classes;
+            }
+
+            public static class EndpointClass {
+
+                private List<String> paths = new ArrayList<>();
+
+                private int initialLimit = 20;
+
+                private int minLimit = 2;
+
+                private int maxLimit = 200;
+
+                public List<String> getPaths() {
+                    return paths;
+                }
+
+                public void setPaths(List<String> paths) {
+                    this.paths = paths;
+                }
+
+                public int getInitialLimit() {
+                    return initialLimit;
+                }
+
+                public void setInitialLimit(int initialLimit) {
+                    this.initialLimit = initialLimit;
+                }
+
+                public int getMinLimit() {
+                    return minLimit;
+                }
+
+                public void setMinLimit(int minLimit) {
+                    this.minLimit = minLimit;
+                }
+
+                public int getMaxLimit() {
+                    return maxLimit;
+                }
+
+                public void setMaxLimit(int maxLimit) {
+                    this.maxLimit = maxLimit;
+                }
+            }
+        }
+
         public static class Cache {
 
             private int timeToLiveInDays = 1461;
@@ -127,7 +276,12 @@ public class JHipsterProperties {
     public static class Cache {
 
         private int timeToLiveSeconds = 3600;
+        private int softTimeToLiveSeconds = 1800;
+        private int loadLockTimeoutSeconds = 10;
         private final Hazelcast hazelcast = new Hazelcast();
+        private final WarmUp warmUp = new WarmUp();
+        private final Snapshot snapshot = new Snapshot();
+        private final DayIndex dayIndex = new DayIndex();
 
 
         public int getTimeToLiveSeconds() {
@@ -137,10 +291,38 @@ public class JHipsterProperties {
         public void setTimeToLiveSeconds(int timeToLiveSeconds) {
             this.timeToLiveSeconds = timeToLiveSeconds;
         }
+
+        public int getSoftTimeToLiveSeconds() {
+            return softTimeToLiveSeconds;
+        }
+
+        public void setSoftTimeToLiveSeconds(int softTimeToLiveSeconds) {
+            this.softTimeToLiveSeconds = softTimeToLiveSeconds;
+        }
+
+        public int getLoadLockTimeoutSeconds() {
+            return loadLockTimeoutSeconds;
+        }
+
+        public void setLoadLockTimeoutSeconds(int loadLockTimeoutSeconds) {
+            this.loadLockTimeoutSeconds = loadLockTimeoutSeconds;
+        }
         public Hazelcast getHazelcast() {
             return hazelcast;
         }
 
+        public WarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        public Snapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public DayIndex getDayIndex() {
+            return dayIndex;
+        }
+
         public static class Hazelcast {
 
             private int backupCount = 1;
@@ -153,6 +335,176 @@ public class JHipsterProperties {
                 this.backupCount = backupCount;
             }
         }
+
+        public static class WarmUp {
+
+            private boolean enabled = true;
+
+            private int jitIterations = 200;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getJitIterations() {
+                return jitIterations;
+            }
+
+            public void setJitIterations(int jitIterations) {
+                this.jitIterations = jitIterations;
+            }
+        }
+
+        public static class Snapshot {
+
+            private boolean enabled = true;
+
+            private String path = "calendar.snapshot";
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getPath() {
+                return path;
+            }
+
+            public void setPath(String path) {
+                this.path = path;
+            }
+        }
+
+        public static class DayIndex {
+
+            private int recordsPerSlab = 4096;
+
+            private int maxSlabs = 16;
+
+            public int getRecordsPerSlab() {
+                return recordsPerSlab;
+            }
+
+            public void setRecordsPerSlab(int recordsPerSlab) {
+                this.recordsPerSlab = recordsPerSlab;
+            }
+
+            public int getMaxSlabs() {
+                return maxSlabs;
+            }
+
+            public void setMaxSlabs(int maxSlabs) {
+                this.maxSlabs = maxSlabs;
+            }
+        }
+    }
+
+    public static class Datasource {
+
+        private final Replicas replicas = new Replicas();
+
+        private final Statements statements = new Statements();
+
+        public Replicas getReplicas() {
+            return replicas;
+        }
+
+        public Statements getStatements() {
+            return statements;
+        }
+
+        public static class Statements {
+
+            private long slowThresholdMillis = 500;
+
+            private int maxShapes = 500;
+
+            public long getSlowThresholdMillis() {
+                return slowThresholdMillis;
+            }
+
+            public void setSlowThresholdMillis(long slowThresholdMillis) {
+                this.slowThresholdMillis = slowThresholdMillis;
+            }
+
+            public int getMaxShapes() {
+                return maxShapes;
+            }
+
+            public void setMaxShapes(int maxShapes) {
+                this.maxShapes = maxShapes;
+            }
+        }
+
+        public static class Replicas {
+
+            private boolean enabled = false;
+
+            private List<String> urls = new ArrayList<>();
+
+            private String username;
+
+            private String password;
+
+            private int healthCheckIntervalSeconds = 10;
+
+            private boolean migrate = false;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public List<String> getUrls() {
+                return urls;
+            }
+
+            public void setUrls(List<String> urls) {
+                this.urls = urls;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+
+            public int getHealthCheckIntervalSeconds() {
+                return healthCheckIntervalSeconds;
+            }
+
+            public void setHealthCheckIntervalSeconds(int healthCheckIntervalSeconds) {
+                this.healthCheckIntervalSeconds = healthCheckIntervalSeconds;
+            }
+
+            public boolean isMigrate() {
+                return migrate;
+            }
+
+            public void setMigrate(boolean migrate) {
+                this.migrate = migrate;
+            }
+        }
     }
 
     public static class Mail {
@@ -172,10 +524,39 @@ public class JHipsterProperties {
 
         private final Authentication authentication = new Authentication();
 
+        private final FastLane fastLane = new FastLane();
+
         public Authentication getAuthentication() {
             return authentication;
         }
 
+        public FastLane getFastLane() {
+            return fastLane;
+        }
+
+        public static class FastLane {
+
+            private boolean enabled = true;
+
+            private List<String> paths = new ArrayList<>();
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public List<String> getPaths() {
+                return paths;
+            }
+
+            public void setPaths(List<String> paths) {
+                this.paths = paths;
+            }
+        }
+
         public static class Authentication {
 
             private final Jwt jwt = new Jwt();
@@ -191,6 +572,8 @@ public class JHipsterProperties {
                 private long tokenValidityInSeconds = 1800;
                 private long tokenValidityInSecondsForRememberMe = 2592000;
 
+                private int cacheSize = 10000;
+
                 public String getSecret() {
                     return secret;
                 }
@@ -214,6 +597,14 @@ public class JHipsterProperties {
                 public void setTokenValidityInSecondsForRememberMe(long tokenValidityInSecondsForRememberMe) {
                     this.tokenValidityInSecondsForRememberMe = tokenValidityInSecondsForRememberMe;
                 }
+
+                public int getCacheSize() {
+                    return cacheSize;
+                }
+
+                public void setCacheSize(int cacheSize) {
+                    this.cacheSize = cacheSize;
+                }
             }
         }
     }
@@ -331,6 +722,8 @@ public class JHipsterProperties {
 
         private final Logs logs = new Logs();
 
+        private final HdrHistogram hdrHistogram = new HdrHistogram();
+
         public Jmx getJmx() {
             return jmx;
         }
@@ -347,6 +740,10 @@ public class JHipsterProperties {
             return logs;
         }
 
+        public HdrHistogram getHdrHistogram() {
+            return hdrHistogram;
+        }
+
 
         public static class Jmx {
 
@@ -459,6 +856,49 @@ public class JHipsterProperties {
                 this.enabled = enabled;
             }
         }
+
+        public static class HdrHistogram {
+
+            private boolean enabled = false;
+
+            private List<String> prefixes = new ArrayList<>();
+
+            private long intervalSeconds = 60;
+
+            private int significantDigits = 2;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public List<String> getPrefixes() {
+                return prefixes;
+            }
+
+            public void setPrefixes(List<String> prefixes) {
+                this.prefixes = prefixes;
+            }
+
+            public long getIntervalSeconds() {
+                return intervalSeconds;
+            }
+
+            public void setIntervalSeconds(long intervalSeconds) {
+                this.intervalSeconds = intervalSeconds;
+            }
+
+            public int getSignificantDigits() {
+                return significantDigits;
+            }
+
+            public void setSignificantDigits(int significantDigits) {
+                this.significantDigits = significantDigits;
+            }
+        }
     }
 
     private final Logging logging = new Logging();
@@ -471,6 +911,37 @@ public class JHipsterProperties {
 
         public Logstash getLogstash() { return logstash; }
 
+        private final Aspect aspect = new Aspect();
+
+        public Aspect getAspect() { return aspect; }
+
+        public static class Aspect {
+
+            private boolean enabled = false;
+
+            private LoggingAspect.Mode mode = LoggingAspect.Mode.OFF;
+
+            private int sampleRate = 100;
+
+            private int maxArgumentLength = 200;
+
+            public boolean isEnabled() { return enabled; }
+
+            public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+            public LoggingAspect.Mode getMode() { return mode; }
+
+            public void setMode(LoggingAspect.Mode mode) { this.mode = mode; }
+
+            public int getSampleRate() { return sampleRate; }
+
+            public void setSampleRate(int sampleRate) { this.sampleRate = sampleRate; }
+
+            public int getMaxArgumentLength() { return maxArgumentLength; }
+
+            public void setMaxArgumentLength(int maxArgumentLength) { this.maxArgumentLength = maxArgumentLength; }
+        }
+
         public static class Logstash {
 
             private boolean enabled = false;
@@ -481,6 +952,12 @@ public class JHipsterProperties {
 
             private int queueSize = 512;
 
+            private int batchSize = 128;
+
+            private String priorityLevel = "WARN";
+
+            private int priorityReserve = 20;
+
             public boolean isEnabled() { return enabled; }
 
             public void setEnabled(boolean enabled) { this.enabled = enabled; }
@@ -496,6 +973,18 @@ public class JHipsterProperties {
             public int getQueueSize() { return queueSize; }
 
             public void setQueueSize(int queueSize) { this.queueSize = queueSize; }
+
+            public int getBatchSize() { return batchSize; }
+
+            public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+            public String getPriorityLevel() { return priorityLevel; }
+
+            public void setPriorityLevel(String priorityLevel) { this.priorityLevel = priorityLevel; }
+
+            public int getPriorityReserve() { return priorityReserve; }
+
+            public void setPriorityReserve(int priorityReserve) { this.priorityReserve = priorityReserve; }
         }
 
         private final SpectatorMetrics spectatorMetrics = new SpectatorMetrics();
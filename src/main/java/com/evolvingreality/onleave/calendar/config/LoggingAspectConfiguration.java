@@ -1,6 +1,7 @@
 package com.evolvingreality.onleave.calendar.config;
 
 import com.evolvingreality.onleave.calendar.aop.logging.LoggingAspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 
 @Configuration
@@ -8,8 +9,9 @@ import org.springframework.context.annotation.*;
 public class LoggingAspectConfiguration {
 
     @Bean
-    @Profile(Constants.SPRING_PROFILE_DEVELOPMENT)
-    public LoggingAspect loggingAspect() {
-        return new LoggingAspect();
+    @ConditionalOnProperty(prefix = "jhipster.logging.aspect", name = "enabled")
+    public LoggingAspect loggingAspect(JHipsterProperties jHipsterProperties) {
+        JHipsterProperties.Logging.Aspect aspect = jHipsterProperties.getLogging().getAspect();
+        return new LoggingAspect(aspect.getMode(), aspect.getSampleRate(), aspect.getMaxArgumentLength());
     }
 }
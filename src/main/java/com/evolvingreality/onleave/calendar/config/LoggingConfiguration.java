@@ -1,8 +1,12 @@
 package com.evolvingreality.onleave.calendar.config;
 
-import ch.qos.logback.classic.AsyncAppender;
+import com.evolvingreality.onleave.calendar.config.logging.RingBufferTcpAppender;
+
+import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.LoggerContext;
-import net.logstash.logback.appender.LogstashSocketAppender;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import net.logstash.logback.encoder.LogstashEncoder;
 import net.logstash.logback.stacktrace.ShortenedThrowableConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +35,9 @@ public class LoggingConfiguration {
     @Inject
     private JHipsterProperties jHipsterProperties;
 
+    @Inject
+    private MetricRegistry metricRegistry;
+
     @PostConstruct
     private void init() {
         if (jHipsterProperties.getLogging().getLogstash().isEnabled()) {
@@ -38,36 +45,44 @@ public class LoggingConfiguration {
         }
     }
 
+    /**
+     * Ships the logs to Logstash over TCP, as JSON lines, through a {@link RingBufferTcpAppender} which drops the
+     * events rather than block the logging threads when Logstash can not keep up. The queued and dropped events are
+     * reported as the {@code logstash.queued} and {@code logstash.dropped} gauges.
+     */
     public void addLogstashAppender() {
         log.info("Initializing Logstash logging");
+        JHipsterProperties.Logging.Logstash logstash = jHipsterProperties.getLogging().getLogstash();
 
-        LogstashSocketAppender logstashAppender = new LogstashSocketAppender();
-        logstashAppender.setName("LOGSTASH");
-        logstashAppender.setContext(context);
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setContext(context);
         String customFields = "{\"app_name\":\"" + appName + "\",\"app_port\":\"" + serverPort + "\"," +
             "\"instance_id\":\"" + instanceId + "\"}";
-        
-        // Set the Logstash appender config from JHipster properties
-        logstashAppender.setSyslogHost(jHipsterProperties.getLogging().getLogstash().getHost());
-        logstashAppender.setPort(jHipsterProperties.getLogging().getLogstash().getPort());
-        logstashAppender.setCustomFields(customFields);
+        encoder.setCustomFields(customFields);
 
-        // Limit the maximum length of the forwarded stacktrace so that it won't exceed the 8KB UDP limit of logstash
+        // Limit the maximum length of the forwarded stacktrace
         ShortenedThrowableConverter throwableConverter = new ShortenedThrowableConverter();
         throwableConverter.setMaxLength(7500);
         throwableConverter.setRootCauseFirst(true);
-        logstashAppender.setThrowableConverter(throwableConverter);
+        encoder.setThrowableConverter(throwableConverter);
+        encoder.start();
 
+        RingBufferTcpAppender logstashAppender = new RingBufferTcpAppender();
+        logstashAppender.setName("LOGSTASH");
+        logstashAppender.setContext(context);
+        logstashAppender.setEncoder(encoder);
+        // Set the Logstash appender config from JHipster properties
+        logstashAppender.setHost(logstash.getHost());
+        logstashAppender.setPort(logstash.getPort());
+        logstashAppender.setQueueSize(logstash.getQueueSize());
+        logstashAppender.setBatchSize(logstash.getBatchSize());
+        logstashAppender.setPriorityLevel(Level.toLevel(logstash.getPriorityLevel(), Level.WARN));
+        logstashAppender.setPriorityReserve(logstash.getPriorityReserve());
         logstashAppender.start();
 
-        // Wrap the appender in an Async appender for performance
-        AsyncAppender asyncLogstashAppender = new AsyncAppender();
-        asyncLogstashAppender.setContext(context);
-        asyncLogstashAppender.setName("ASYNC_LOGSTASH");
-        asyncLogstashAppender.setQueueSize(jHipsterProperties.getLogging().getLogstash().getQueueSize());
-        asyncLogstashAppender.addAppender(logstashAppender);
-        asyncLogstashAppender.start();
+        metricRegistry.register("logstash.queued", (Gauge<Integer>) logstashAppender::getQueuedCount);
+        metricRegistry.register("logstash.dropped", (Gauge<Long>) logstashAppender::getDroppedCount);
 
-        context.getLogger("ROOT").addAppender(asyncLogstashAppender);
+        context.getLogger("ROOT").addAppender(logstashAppender);
     }
 }
@@ -1,5 +1,6 @@
 package com.evolvingreality.onleave.calendar.config;
 
+import com.evolvingreality.onleave.calendar.config.metrics.HdrHistogramMetricRegistry;
 import com.evolvingreality.onleave.calendar.config.metrics.SpectatorLogMetricWriter;
 import com.netflix.spectator.api.Registry;
 import org.springframework.boot.actuate.autoconfigure.ExportMetricReader;
@@ -37,11 +38,11 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
     private static final String PROP_METRIC_REG_JVM_GARBAGE = "jvm.garbage";
     private static final String PROP_METRIC_REG_JVM_THREADS = "jvm.threads";
     private static final String PROP_METRIC_REG_JVM_FILES = "jvm.files";
-    private static final String PROP_METRIC_REG_JVM_BUFFERS = "jvm.buffers";
+    public static final String PROP_METRIC_REG_JVM_BUFFERS = "jvm.buffers";
 
     private final Logger log = LoggerFactory.getLogger(MetricsConfiguration.class);
 
-    private MetricRegistry metricRegistry = new MetricRegistry();
+    private HdrHistogramMetricRegistry metricRegistry = new HdrHistogramMetricRegistry();
 
     private HealthCheckRegistry healthCheckRegistry = new HealthCheckRegistry();
 
@@ -62,6 +63,12 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
 
     @PostConstruct
     public void init() {
+        JHipsterProperties.Metrics.HdrHistogram hdrHistogram = jHipsterProperties.getMetrics().getHdrHistogram();
+        if (hdrHistogram.isEnabled()) {
+            log.debug("Using HdrHistogram reservoirs for the timers starting with {}", hdrHistogram.getPrefixes());
+            metricRegistry.useHdrHistogram(hdrHistogram.getPrefixes(), hdrHistogram.getIntervalSeconds(),
+                hdrHistogram.getSignificantDigits());
+        }
         log.debug("Registering JVM gauges");
         metricRegistry.register(PROP_METRIC_REG_JVM_MEMORY, new MemoryUsageGaugeSet());
         metricRegistry.register(PROP_METRIC_REG_JVM_GARBAGE, new GarbageCollectorMetricSet());
@@ -26,8 +26,20 @@ package com.evolvingreality.onleave.calendar.config;
       @Inject
       private TokenProvider tokenProvider;
 
+      @Inject
+      private JHipsterProperties jHipsterProperties;
+
+      /**
+       * Besides the static resources, the GET requests to the fast lane paths skip the security filter chain: they
+       * are public calendar reads, served without resolving a token nor setting up a security context.
+       */
       @Override
       public void configure(WebSecurity web) throws Exception {
+          JHipsterProperties.Security.FastLane fastLane = jHipsterProperties.getSecurity().getFastLane();
+          if (fastLane.isEnabled() && !fastLane.getPaths().isEmpty()) {
+              web.ignoring()
+                  .antMatchers(HttpMethod.GET, fastLane.getPaths().toArray(new String[fastLane.getPaths().size()]));
+          }
           web.ignoring()
               .antMatchers(HttpMethod.OPTIONS, "/**")
               .antMatchers("/app/**/*.{js,html}")
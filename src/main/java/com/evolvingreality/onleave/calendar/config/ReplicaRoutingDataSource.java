@@ -0,0 +1,180 @@
+package com.evolvingreality.onleave.calendar.config;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the work of read-only transactions to the read replicas, round robin, and everything else to the primary.
+ * <p>
+ * Read-only transactions named {@value #PRIMARY} are kept on the primary: they load what is cached after a commit,
+ * which a lagging replica could still serve from before the change.
+ * <p>
+ * Connections are fetched lazily, on the first statement, as the read-only flag of a transaction is only known
+ * once the transaction manager has borrowed its connection. Replicas are checked periodically and on every
+ * failure to connect; while none is up, reads go to the primary.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    /**
+     * Name of the read-only transactions that must read from the primary, see
+     * {@link org.springframework.transaction.support.DefaultTransactionDefinition#setName(String)}.
+     */
+    public static final String PRIMARY = "primary";
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final Map<String, DataSource> replicas;
+
+    private final List<String> replicaNames;
+
+    private final Set<String> up = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final ScheduledExecutorService healthChecks = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "replica-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Meter fallbacks;
+
+    /**
+     * @param primary the primary data source
+     * @param replicas the replica data sources by pool name
+     * @param healthCheckIntervalSeconds the delay between two checks of the replicas
+     * @param metricRegistry the registry of the routing metrics, or null
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, int healthCheckIntervalSeconds,
+                                    MetricRegistry metricRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.replicaNames = new ArrayList<>(replicas.keySet());
+        this.up.addAll(replicaNames);
+        setTargetDataSource(new Router());
+        afterPropertiesSet();
+        if (metricRegistry != null) {
+            metricRegistry.register(MetricRegistry.name(ReplicaRoutingDataSource.class, "replicas", "up"),
+                (Gauge<Integer>) up::size);
+            this.fallbacks = metricRegistry.meter(MetricRegistry.name(ReplicaRoutingDataSource.class, "fallbacks"));
+        } else {
+            this.fallbacks = new Meter();
+        }
+        log.info("Routing read-only transactions to replicas {}", replicaNames);
+        healthChecks.scheduleWithFixedDelay(this::checkReplicas, 0, healthCheckIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return the names of the replicas that are up
+     */
+    public Set<String> getReplicasUp() {
+        return up;
+    }
+
+    @Override
+    public void close() throws IOException {
+        healthChecks.shutdownNow();
+        for (DataSource replica : replicas.values()) {
+            close(replica);
+        }
+        close(primary);
+    }
+
+    private void close(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+
+    private void checkReplicas() {
+        for (String name : replicaNames) {
+            try (Connection connection = replicas.get(name).getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    if (up.add(name)) {
+                        log.info("Replica {} is up", name);
+                    }
+                } else {
+                    markDown(name, "invalid connection");
+                }
+            } catch (SQLException | RuntimeException e) {
+                markDown(name, e.getMessage());
+            }
+        }
+    }
+
+    private void markDown(String name, String reason) {
+        if (up.remove(name)) {
+            log.warn("Replica {} is down, reading from the primary: {}", name, reason);
+        }
+    }
+
+    private static boolean isReplicaRead() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            && !PRIMARY.equals(TransactionSynchronizationManager.getCurrentTransactionName());
+    }
+
+    private String selectReplica() {
+        if (!isReplicaRead() || up.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < replicaNames.size(); i++) {
+            String name = replicaNames.get(Math.floorMod(next.getAndIncrement(), replicaNames.size()));
+            if (up.contains(name)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The target of the lazy connections, choosing the data source when the connection is actually needed.
+     */
+    private class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            String replica = selectReplica();
+            if (replica != null) {
+                try {
+                    return replicas.get(replica).getConnection();
+                } catch (SQLException e) {
+                    markDown(replica, e.getMessage());
+                    fallbacks.mark();
+                }
+            } else if (isReplicaRead()) {
+                fallbacks.mark();
+            }
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return primary.getConnection(username, password);
+        }
+    }
+}
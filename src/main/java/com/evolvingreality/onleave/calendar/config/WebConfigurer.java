@@ -1,5 +1,9 @@
 package com.evolvingreality.onleave.calendar.config;
 
+import com.evolvingreality.onleave.calendar.web.filter.ConcurrencyLimitFilter;
+import com.evolvingreality.onleave.calendar.web.filter.ConnectionCountingFilter;
+import com.evolvingreality.onleave.calendar.web.filter.GradientConcurrencyLimiter;
+
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.servlet.InstrumentedFilter;
 import com.codahale.metrics.servlets.MetricsServlet;
@@ -51,6 +55,9 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
         }
         EnumSet<DispatcherType> disps = EnumSet.of(DispatcherType.REQUEST, DispatcherType.FORWARD, DispatcherType.ASYNC);
         initMetrics(servletContext, disps);
+        if (jHipsterProperties.getHttp().getConcurrencyLimit().isEnabled() && metricRegistry != null) {
+            initConcurrencyLimitFilter(servletContext);
+        }
         if (env.acceptsProfiles(Constants.SPRING_PROFILE_DEVELOPMENT)) {
             initH2Console(servletContext);
         }
@@ -87,6 +94,13 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
         metricsFilter.addMappingForUrlPatterns(disps, true, "/*");
         metricsFilter.setAsyncSupported(true);
 
+        log.debug("Registering Connection Counting Filter");
+        FilterRegistration.Dynamic connectionCountingFilter = servletContext.addFilter("connectionCountingFilter",
+            new ConnectionCountingFilter(metricRegistry));
+
+        connectionCountingFilter.addMappingForUrlPatterns(disps, true, "/api/*");
+        connectionCountingFilter.setAsyncSupported(true);
+
         log.debug("Registering Metrics Servlet");
         ServletRegistration.Dynamic metricsAdminServlet =
             servletContext.addServlet("metricsServlet", new MetricsServlet());
@@ -96,6 +110,23 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
         metricsAdminServlet.setLoadOnStartup(2);
     }
 
+    /**
+     * Initializes the adaptive concurrency limits of the expensive endpoints.
+     */
+    private void initConcurrencyLimitFilter(ServletContext servletContext) {
+        log.debug("Registering Concurrency Limit Filter");
+        JHipsterProperties.Http.ConcurrencyLimit concurrencyLimit = jHipsterProperties.getHttp().getConcurrencyLimit();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(metricRegistry,
+            concurrencyLimit.getRejectionStatus(), concurrencyLimit.getRetryAfterSeconds());
+        concurrencyLimit.getClasses().forEach((name, endpointClass) -> filter.addEndpointClass(name,
+            endpointClass.getPaths(), new GradientConcurrencyLimiter(endpointClass.getInitialLimit(),
+                endpointClass.getMinLimit(), endpointClass.getMaxLimit())));
+        FilterRegistration.Dynamic concurrencyLimitFilter = servletContext.addFilter("concurrencyLimitFilter", filter);
+
+        concurrencyLimitFilter.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), true, "/api/*");
+        concurrencyLimitFilter.setAsyncSupported(true);
+    }
+
     @Bean
     @ConditionalOnProperty(name = "jhipster.cors.allowed-origins")
     public CorsFilter corsFilter() {
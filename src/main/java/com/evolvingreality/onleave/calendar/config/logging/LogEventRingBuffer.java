@@ -0,0 +1,80 @@
+package com.evolvingreality.onleave.calendar.config.logging;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free ring buffer with many producers and a single consumer.
+ * <p>
+ * A producer claims a slot by moving the tail forward with a compare-and-set, then publishes its element in the
+ * slot; it never waits, {@link #offer} fails when the buffer is full. The consumer reads the slots from the head,
+ * stopping at a slot that is claimed but not published yet.
+ */
+class LogEventRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private volatile long head;
+
+    /**
+     * @param capacity the minimum capacity, rounded up to a power of two
+     */
+    LogEventRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * @param element the element
+     * @param limit the size from which the element is refused, at most the capacity
+     * @return true if the element was added, false if the buffer holds {@code limit} elements or more
+     */
+    boolean offer(E element, int limit) {
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head >= limit) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        slots.lazySet((int) (claimed & mask), element);
+        return true;
+    }
+
+    /**
+     * Moves up to {@code max} published elements to the batch. Only called by the consumer.
+     *
+     * @return the number of elements moved
+     */
+    int drainTo(List<E> batch, int max) {
+        long current = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (current & mask);
+            E element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            batch.add(element);
+            current++;
+            drained++;
+        }
+        head = current;
+        return drained;
+    }
+}
@@ -0,0 +1,202 @@
+package com.evolvingreality.onleave.calendar.config.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ships the log events over TCP without ever blocking the logging threads.
+ * <p>
+ * Events are put in a {@link LogEventRingBuffer} and written by a single daemon thread, in batches flushed once
+ * each. When the buffer is saturated the events are dropped rather than waited for: the events below the priority
+ * level once the buffer is filled up to the priority reserve, all of them once it is full. Events are also dropped
+ * while the server can not be reached. The dropped events are counted, see {@link #getDroppedCount()}.
+ */
+public class RingBufferTcpAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private Encoder<ILoggingEvent> encoder;
+
+    private String host;
+
+    private int port;
+
+    private int queueSize = 512;
+
+    private int batchSize = 128;
+
+    private Level priorityLevel = Level.WARN;
+
+    private int priorityReserve = 20;
+
+    private LogEventRingBuffer<ILoggingEvent> buffer;
+
+    private int lowPriorityLimit;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        if (encoder == null || host == null) {
+            addError("No encoder or host set for the appender named [" + name + "]");
+            return;
+        }
+        buffer = new LogEventRingBuffer<>(queueSize);
+        lowPriorityLimit = buffer.capacity() - buffer.capacity() * priorityReserve / 100;
+        running = true;
+        worker = new Thread(this::ship, "logstash-" + name);
+        worker.setDaemon(true);
+        worker.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+            try {
+                worker.join(CONNECT_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        super.stop();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int limit = event.getLevel().isGreaterOrEqual(priorityLevel) ? buffer.capacity() : lowPriorityLimit;
+        event.prepareForDeferredProcessing();
+        if (!buffer.offer(event, limit)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Writes the events until the appender is stopped, reconnecting when the connection is lost.
+     */
+    private void ship() {
+        List<ILoggingEvent> batch = new ArrayList<>(batchSize);
+        Socket socket = null;
+        OutputStream output = null;
+        long reconnectAt = 0;
+        while (running || buffer.size() > 0) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            if (socket == null && System.currentTimeMillis() >= reconnectAt) {
+                try {
+                    socket = new Socket();
+                    socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+                    output = new BufferedOutputStream(socket.getOutputStream());
+                    encoder.init(output);
+                } catch (IOException e) {
+                    addWarn("Can not connect to " + host + ":" + port + ", dropping the log events for "
+                        + RECONNECT_DELAY_MILLIS + " ms", e);
+                    close(socket);
+                    socket = null;
+                    reconnectAt = System.currentTimeMillis() + RECONNECT_DELAY_MILLIS;
+                }
+            }
+            if (socket == null) {
+                dropped.addAndGet(batch.size());
+            } else {
+                try {
+                    for (ILoggingEvent event : batch) {
+                        encoder.doEncode(event);
+                    }
+                    output.flush();
+                } catch (IOException e) {
+                    addWarn("Lost the connection to " + host + ":" + port, e);
+                    dropped.addAndGet(batch.size());
+                    close(socket);
+                    socket = null;
+                    reconnectAt = System.currentTimeMillis() + RECONNECT_DELAY_MILLIS;
+                }
+            }
+            batch.clear();
+        }
+        close(socket);
+    }
+
+    private void close(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                addWarn("Can not close the connection to " + host + ":" + port, e);
+            }
+        }
+    }
+
+    /**
+     * @return the number of events waiting to be shipped
+     */
+    public int getQueuedCount() {
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    /**
+     * @return the number of events dropped since the start, because the buffer was saturated or the server down
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setPriorityLevel(Level priorityLevel) {
+        this.priorityLevel = priorityLevel;
+    }
+
+    /**
+     * @param priorityReserve the percentage of the buffer kept for the events of the priority level and above
+     */
+    public void setPriorityReserve(int priorityReserve) {
+        this.priorityReserve = priorityReserve;
+    }
+}
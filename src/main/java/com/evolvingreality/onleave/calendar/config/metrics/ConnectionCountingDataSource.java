@@ -0,0 +1,65 @@
+package com.evolvingreality.onleave.calendar.config.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Counts the connections acquired by the current thread between {@link #startCounting()} and
+ * {@link #stopCounting()}, for instance during a request. Acquisitions outside of a counting scope, by
+ * background tasks, are not counted.
+ */
+public class ConnectionCountingDataSource extends DelegatingDataSource implements Closeable {
+
+    private static final ThreadLocal<int[]> ACQUISITIONS = new ThreadLocal<>();
+
+    public ConnectionCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    public static void startCounting() {
+        ACQUISITIONS.set(new int[1]);
+    }
+
+    /**
+     * @return the number of connections acquired since {@link #startCounting()}
+     */
+    public static int stopCounting() {
+        int[] acquisitions = ACQUISITIONS.get();
+        ACQUISITIONS.remove();
+        return acquisitions == null ? 0 : acquisitions[0];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        count();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        count();
+        return super.getConnection(username, password);
+    }
+
+    /**
+     * Closes the pool, as the destroy method of the data source bean is called on this wrapper.
+     */
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable) {
+            ((Closeable) getTargetDataSource()).close();
+        }
+    }
+
+    private void count() {
+        int[] acquisitions = ACQUISITIONS.get();
+        if (acquisitions != null) {
+            acquisitions[0]++;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.evolvingreality.onleave.calendar.config.metrics;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A metric registry creating the timers whose names start with one of the configured prefixes, such as the
+ * {@code @Timed} REST endpoints, on an {@link HdrHistogramReservoir} rather than on an exponentially decaying one.
+ * <p>
+ * Every timer it creates is a {@link SummingTimer}, so that the total time is exported along with the count. Until
+ * {@link #useHdrHistogram} is called, the timers are on exponentially decaying reservoirs like in a plain
+ * {@link MetricRegistry}.
+ */
+public class HdrHistogramMetricRegistry extends MetricRegistry {
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private volatile List<String> prefixes;
+
+    private volatile long intervalSeconds;
+
+    private volatile int significantDigits;
+
+    /**
+     * @param prefixes the prefixes of the names of the timers, all timers if empty
+     * @param intervalSeconds the interval after which the reservoirs are reset
+     * @param significantDigits the precision of the values, from 0 to 5
+     */
+    public void useHdrHistogram(List<String> prefixes, long intervalSeconds, int significantDigits) {
+        this.intervalSeconds = intervalSeconds;
+        this.significantDigits = significantDigits;
+        this.prefixes = new ArrayList<>(prefixes);
+    }
+
+    @Override
+    public Timer timer(String name) {
+        Timer timer = timers.get(name);
+        if (timer != null) {
+            return timer;
+        }
+        return timers.computeIfAbsent(name, this::registerTimer);
+    }
+
+    @Override
+    public boolean remove(String name) {
+        timers.remove(name);
+        return super.remove(name);
+    }
+
+    private Timer registerTimer(String name) {
+        Reservoir reservoir = isHdrHistogramTimer(name) ? new HdrHistogramReservoir(intervalSeconds, significantDigits)
+            : new ExponentiallyDecayingReservoir();
+        try {
+            return register(name, new SummingTimer(reservoir));
+        } catch (IllegalArgumentException e) {
+            // Registered directly, or not a timer
+            return super.timer(name);
+        }
+    }
+
+    private boolean isHdrHistogramTimer(String name) {
+        List<String> prefixes = this.prefixes;
+        if (prefixes == null) {
+            return false;
+        }
+        return prefixes.isEmpty() || prefixes.stream().anyMatch(name::startsWith);
+    }
+}
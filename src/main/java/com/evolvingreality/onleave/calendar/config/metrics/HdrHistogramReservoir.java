@@ -0,0 +1,135 @@
+package com.evolvingreality.onleave.calendar.config.metrics;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * A reservoir keeping every value of the last interval in an HdrHistogram, instead of a decaying sample.
+ * <p>
+ * Values are recorded without locking into a {@link Recorder}. The snapshots are of the last complete interval,
+ * rolled over on the first snapshot taken once the interval has elapsed, so all the reporters see the same
+ * values and the percentiles, up to the maximum, are exact to the significant digits of the histogram. The snapshot
+ * is copied once per interval, at the roll-over, and shared by the reporters until the next one.
+ */
+public class HdrHistogramReservoir implements Reservoir {
+
+    private final Recorder recorder;
+
+    private final long intervalNanos;
+
+    private Histogram interval;
+
+    private HdrHistogramSnapshot snapshot;
+
+    private long intervalStart = System.nanoTime();
+
+    /**
+     * @param intervalSeconds the duration of an interval, usually the reporting frequency
+     * @param significantDigits the precision of the values, from 0 to 5
+     */
+    public HdrHistogramReservoir(long intervalSeconds, int significantDigits) {
+        this.recorder = new Recorder(significantDigits);
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(intervalSeconds);
+        this.interval = recorder.getIntervalHistogram();
+        this.snapshot = new HdrHistogramSnapshot(interval.copy());
+    }
+
+    /**
+     * @return the number of values of the last interval
+     */
+    @Override
+    public synchronized int size() {
+        return rollOver().size();
+    }
+
+    @Override
+    public void update(long value) {
+        recorder.recordValue(Math.max(value, 0));
+    }
+
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        return rollOver();
+    }
+
+    private HdrHistogramSnapshot rollOver() {
+        long now = System.nanoTime();
+        if (now - intervalStart >= intervalNanos) {
+            interval = recorder.getIntervalHistogram(interval);
+            snapshot = new HdrHistogramSnapshot(interval.copy());
+            intervalStart = now;
+        }
+        return snapshot;
+    }
+
+    /**
+     * A snapshot of a histogram. As it does not keep the values themselves, {@link #getValues()} has one value
+     * per distinct recorded value.
+     */
+    static class HdrHistogramSnapshot extends Snapshot {
+
+        private final Histogram histogram;
+
+        HdrHistogramSnapshot(Histogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            return histogram.getValueAtPercentile(quantile * 100);
+        }
+
+        @Override
+        public long[] getValues() {
+            LongStream.Builder values = LongStream.builder();
+            for (HistogramIterationValue value : histogram.recordedValues()) {
+                values.add(histogram.highestEquivalentValue(value.getValueIteratedTo()));
+            }
+            return values.build().toArray();
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(histogram.getTotalCount(), Integer.MAX_VALUE);
+        }
+
+        @Override
+        public long getMax() {
+            return histogram.getTotalCount() == 0 ? 0 : histogram.getMaxValue();
+        }
+
+        @Override
+        public double getMean() {
+            return histogram.getTotalCount() == 0 ? 0 : histogram.getMean();
+        }
+
+        @Override
+        public long getMin() {
+            return histogram.getTotalCount() == 0 ? 0 : histogram.getMinValue();
+        }
+
+        @Override
+        public double getStdDev() {
+            return histogram.getTotalCount() == 0 ? 0 : histogram.getStdDeviation();
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (long value : getValues()) {
+                    out.printf("%d%n", value);
+                }
+            }
+        }
+    }
+}
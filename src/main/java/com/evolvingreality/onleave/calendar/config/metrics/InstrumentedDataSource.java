@@ -0,0 +1,191 @@
+package com.evolvingreality.onleave.calendar.config.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Times the statements run on the connections of a data source, with their row counts, into
+ * {@link StatementMetrics}.
+ * <p>
+ * Connections, statements and result sets are wrapped in JDK proxies. An update is recorded when it returns,
+ * a query when its result set or its statement is closed, with the rows read.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource implements Closeable {
+
+    private final StatementMetrics statementMetrics;
+
+    public InstrumentedDataSource(DataSource targetDataSource, StatementMetrics statementMetrics) {
+        super(targetDataSource);
+        this.statementMetrics = statementMetrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable) {
+            ((Closeable) getTargetDataSource()).close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (result instanceof Statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return proxy(method.getReturnType(), new StatementHandler((Statement) result, sql));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+
+        private final String preparedSql;
+
+        private Execution pending;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                recordPending();
+                return InstrumentedDataSource.invoke(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return InstrumentedDataSource.invoke(target, method, args);
+            }
+            recordPending();
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            long start = System.nanoTime();
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            long nanos = System.nanoTime() - start;
+            if (result instanceof ResultSet) {
+                pending = new Execution(sql, nanos);
+                return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, pending));
+            }
+            statementMetrics.record(sql, nanos, rows(result));
+            return result;
+        }
+
+        private void recordPending() {
+            if (pending != null) {
+                pending.record();
+                pending = null;
+            }
+        }
+
+        private long rows(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                return ((Number) result).longValue();
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+
+        private final Execution execution;
+
+        ResultSetHandler(ResultSet target, Execution execution) {
+            this.target = target;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                execution.rows++;
+            } else if ("close".equals(method.getName())) {
+                execution.record();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A query, recorded once its rows are read.
+     */
+    private class Execution {
+
+        private final String sql;
+
+        private final long nanos;
+
+        private long rows;
+
+        private boolean recorded;
+
+        Execution(String sql, long nanos) {
+            this.sql = sql;
+            this.nanos = nanos;
+        }
+
+        void record() {
+            if (!recorded) {
+                recorded = true;
+                statementMetrics.record(sql, nanos, rows);
+            }
+        }
+    }
+}
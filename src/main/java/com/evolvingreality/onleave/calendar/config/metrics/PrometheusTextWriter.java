@@ -0,0 +1,272 @@
+package com.evolvingreality.onleave.calendar.config.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Sampling;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Measurement;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Writes the Dropwizard metrics, JVM gauges included, and the Spectator measurements, Hystrix included, in the
+ * Prometheus text format, version 0.0.4.
+ * <p>
+ * The translated names and label sets are cached, and the output is built in per-thread buffers reused from scrape
+ * to scrape and flushed to the writer in chunks, so a scrape is a single pass over the registries. Numbers are
+ * appended to the buffer directly, without going through strings. Timers are exported in seconds, with their total
+ * time as {@code _sum} when they are {@link SummingTimer}s.
+ * <p>
+ * Distinct metrics can translate to the same name, {@code a.b} and {@code a_b} for instance. Only the first one
+ * written is exported, the others are skipped with a warning, as a metric family can only be declared once.
+ */
+public class PrometheusTextWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private static final String[] QUANTILE_LABELS = { "{quantile=\"0.5\"} ", "{quantile=\"0.75\"} ",
+        "{quantile=\"0.95\"} ", "{quantile=\"0.98\"} ", "{quantile=\"0.99\"} ", "{quantile=\"0.999\"} " };
+
+    private static final double[] QUANTILES = { 0.5, 0.75, 0.95, 0.98, 0.99, 0.999 };
+
+    private static final ThreadLocal<Scrape> SCRAPE = ThreadLocal.withInitial(Scrape::new);
+
+    private final Logger log = LoggerFactory.getLogger(PrometheusTextWriter.class);
+
+    private final ConcurrentMap<String, Names> metricNames = new ConcurrentHashMap<>();
+
+    private final Set<String> collisions = ConcurrentHashMap.newKeySet();
+
+    private final ConcurrentMap<Id, String[]> series = new ConcurrentHashMap<>();
+
+    private final MetricRegistry metricRegistry;
+
+    private final Registry spectatorRegistry;
+
+    /**
+     * @param metricRegistry the Dropwizard registry
+     * @param spectatorRegistry the Spectator registry, or null
+     */
+    public PrometheusTextWriter(MetricRegistry metricRegistry, Registry spectatorRegistry) {
+        this.metricRegistry = metricRegistry;
+        this.spectatorRegistry = spectatorRegistry;
+    }
+
+    public void write(Writer writer) throws IOException {
+        Scrape scrape = SCRAPE.get();
+        scrape.reset();
+        StringBuilder out = scrape.out;
+        for (Map.Entry<String, Metric> entry : metricRegistry.getMetrics().entrySet()) {
+            writeMetric(scrape, names(entry.getKey()), entry.getValue());
+            if (out.length() >= CHUNK_SIZE) {
+                flush(out, writer);
+            }
+        }
+        if (spectatorRegistry != null) {
+            writeSpectator(scrape, writer);
+        }
+        flush(out, writer);
+        writer.flush();
+    }
+
+    private void writeMetric(Scrape scrape, Names names, Metric metric) {
+        StringBuilder out = scrape.out;
+        if (metric instanceof Gauge) {
+            Object value = ((Gauge<?>) metric).getValue();
+            if (value instanceof Number && writeType(scrape, names.base, "gauge")) {
+                out.append(names.base).append(' ').append(((Number) value).doubleValue()).append('\n');
+            } else if (value instanceof Boolean && writeType(scrape, names.base, "gauge")) {
+                out.append(names.base).append(' ').append((Boolean) value ? 1 : 0).append('\n');
+            }
+        } else if (metric instanceof Counter) {
+            if (writeType(scrape, names.base, "gauge")) {
+                out.append(names.base).append(' ').append(((Counter) metric).getCount()).append('\n');
+            }
+        } else if (metric instanceof Timer) {
+            writeSummary(scrape, names.seconds, names.secondsMax, (Timer) metric, ((Timer) metric).getCount(),
+                NANOS_PER_SECOND);
+        } else if (metric instanceof Histogram) {
+            writeSummary(scrape, names.base, names.max, (Histogram) metric, ((Histogram) metric).getCount(), 1);
+        } else if (metric instanceof Meter) {
+            if (writeType(scrape, names.total, "counter")) {
+                out.append(names.total).append(' ').append(((Meter) metric).getCount()).append('\n');
+            }
+        }
+    }
+
+    private void writeSummary(Scrape scrape, String name, String maxName, Sampling sampling, long count, double scale) {
+        if (scrape.families.contains(maxName) || !writeType(scrape, name, "summary")) {
+            return;
+        }
+        StringBuilder out = scrape.out;
+        Snapshot snapshot = sampling.getSnapshot();
+        for (int i = 0; i < QUANTILES.length; i++) {
+            out.append(name).append(QUANTILE_LABELS[i]).append(snapshot.getValue(QUANTILES[i]) / scale).append('\n');
+        }
+        if (sampling instanceof SummingTimer) {
+            out.append(name).append("_sum ").append(((SummingTimer) sampling).getSum() / scale).append('\n');
+        }
+        out.append(name).append("_count ").append(count).append('\n');
+        writeType(scrape, maxName, "gauge");
+        out.append(maxName).append(' ').append(snapshot.getMax() / scale).append('\n');
+    }
+
+    /**
+     * Writes the Spectator measurements grouped by name, as the samples of a metric have to be contiguous.
+     */
+    private void writeSpectator(Scrape scrape, Writer writer) throws IOException {
+        for (com.netflix.spectator.api.Meter meter : spectatorRegistry) {
+            for (Measurement measurement : meter.measure()) {
+                scrape.spectator.computeIfAbsent(series(measurement.id())[0], n -> new ArrayList<>()).add(measurement);
+            }
+        }
+        StringBuilder out = scrape.out;
+        for (Map.Entry<String, List<Measurement>> entry : scrape.spectator.entrySet()) {
+            if (entry.getValue().isEmpty() || !writeType(scrape, entry.getKey(), "untyped")) {
+                continue;
+            }
+            for (Measurement measurement : entry.getValue()) {
+                out.append(series(measurement.id())[1]).append(' ').append(measurement.value()).append('\n');
+            }
+            if (out.length() >= CHUNK_SIZE) {
+                flush(out, writer);
+            }
+        }
+    }
+
+    /**
+     * @return false if the type was not written, a metric of the same name having already been written
+     */
+    private boolean writeType(Scrape scrape, String family, String type) {
+        if (!scrape.families.add(family)) {
+            if (collisions.add(family)) {
+                log.warn("Several metrics are exported as {}, only the first one is", family);
+            }
+            return false;
+        }
+        scrape.out.append("# TYPE ").append(family).append(' ').append(type).append('\n');
+        return true;
+    }
+
+    private static void flush(StringBuilder out, Writer writer) throws IOException {
+        for (int start = 0; start < out.length(); start += CHUNK_SIZE) {
+            int end = Math.min(start + CHUNK_SIZE, out.length());
+            writer.append(out, start, end);
+        }
+        out.setLength(0);
+    }
+
+    private Names names(String metricName) {
+        Names cached = metricNames.get(metricName);
+        if (cached == null) {
+            cached = metricNames.computeIfAbsent(metricName, n -> new Names(sanitize(n)));
+        }
+        return cached;
+    }
+
+    /**
+     * @return the name of the metric and the name with its labels
+     */
+    private String[] series(Id id) {
+        String[] cached = series.get(id);
+        if (cached == null) {
+            cached = series.computeIfAbsent(id, i -> {
+                String name = names(i.name()).base;
+                StringBuilder labels = new StringBuilder(name);
+                char separator = '{';
+                for (Tag tag : i.tags()) {
+                    labels.append(separator).append(sanitize(tag.key())).append("=\"")
+                        .append(escape(tag.value())).append('"');
+                    separator = ',';
+                }
+                if (separator == ',') {
+                    labels.append('}');
+                }
+                return new String[] { name, labels.toString() };
+            });
+        }
+        return cached;
+    }
+
+    static String sanitize(String name) {
+        StringBuilder sanitized = new StringBuilder(name.length() + 1);
+        if (name.isEmpty() || Character.isDigit(name.charAt(0))) {
+            sanitized.append('_');
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == ':';
+            sanitized.append(valid ? c : '_');
+        }
+        return sanitized.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * The names of the samples of a metric, built once.
+     */
+    private static final class Names {
+
+        private final String base;
+
+        private final String seconds;
+
+        private final String secondsMax;
+
+        private final String max;
+
+        private final String total;
+
+        Names(String base) {
+            this.base = base;
+            this.seconds = base + "_seconds";
+            this.secondsMax = base + "_seconds_max";
+            this.max = base + "_max";
+            this.total = base + "_total";
+        }
+    }
+
+    /**
+     * The buffers of a scrape, kept by each scraping thread and cleared for the next scrape.
+     */
+    private static final class Scrape {
+
+        private final StringBuilder out = new StringBuilder(CHUNK_SIZE * 2);
+
+        private final Set<String> families = new HashSet<>();
+
+        private final Map<String, List<Measurement>> spectator = new TreeMap<>();
+
+        void reset() {
+            out.setLength(0);
+            families.clear();
+            spectator.values().forEach(List::clear);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.evolvingreality.onleave.calendar.config.metrics;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Timers and row counts of the SQL statements, by statement shape.
+ * <p>
+ * The shape of a statement is its SQL with the literals and the lists of parameters collapsed, so that the
+ * executions of a query with different values or IN lists of different sizes add up. Each shape gets a
+ * {@code jdbc.statements.<id>.time} timer and a {@code jdbc.statements.<id>.rows} histogram, up to a maximum
+ * number of shapes past which the statements are recorded as {@value #OTHER}. The ids are numbered in the order
+ * the shapes are first seen, so that two shapes never share a timer. Statements slower than the
+ * threshold are logged with the service method that ran them.
+ */
+public class StatementMetrics {
+
+    public static final String OTHER = "other";
+
+    private static final String SERVICE_PACKAGE = "com.evolvingreality.onleave.calendar.service.";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Logger log = LoggerFactory.getLogger(StatementMetrics.class);
+
+    private final ConcurrentMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    private final MetricRegistry metricRegistry;
+
+    private final long slowThresholdNanos;
+
+    private final int maxShapes;
+
+    /**
+     * @param metricRegistry the registry of the timers and row histograms
+     * @param slowThresholdMillis the duration from which statements are logged, 0 to log none
+     * @param maxShapes the maximum number of statement shapes
+     */
+    public StatementMetrics(MetricRegistry metricRegistry, long slowThresholdMillis, int maxShapes) {
+        this.metricRegistry = metricRegistry;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.maxShapes = maxShapes;
+    }
+
+    public void record(String sql, long nanos, long rows) {
+        String shape = sql == null ? OTHER : shape(sql);
+        StatementStats stats = statements.get(shape);
+        if (stats == null) {
+            stats = statements.computeIfAbsent(statements.size() < maxShapes ? shape : OTHER, this::newStats);
+        }
+        stats.record(nanos, rows);
+        if (slowThresholdNanos > 0 && nanos >= slowThresholdNanos) {
+            log.warn("Slow statement in {}, {} ms, {} rows: {}", callingServiceMethod(),
+                TimeUnit.NANOSECONDS.toMillis(nanos), rows, sql);
+        }
+    }
+
+    /**
+     * @param limit the maximum number of statements
+     * @return the statements that took the most time in total, slowest first
+     */
+    public List<StatementStats> getTop(int limit) {
+        return statements.values().stream()
+            .sorted(Comparator.comparingLong(StatementStats::getTotalNanos).reversed())
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private static String callingServiceMethod() {
+        for (StackTraceElement element : Thread.currentThread().getStackTrace()) {
+            if (element.getClassName().startsWith(SERVICE_PACKAGE) && !element.getClassName().contains("$$")) {
+                return element.getClassName().substring(SERVICE_PACKAGE.length()) + "." + element.getMethodName();
+            }
+        }
+        return "unknown method";
+    }
+
+    private StatementStats newStats(String shape) {
+        String id = OTHER.equals(shape) ? OTHER : "s" + nextId.incrementAndGet();
+        return new StatementStats(shape, id,
+            metricRegistry.timer(MetricRegistry.name("jdbc.statements", id, "time")),
+            metricRegistry.histogram(MetricRegistry.name("jdbc.statements", id, "rows")));
+    }
+
+    /**
+     * The executions of a statement shape.
+     */
+    public static class StatementStats {
+
+        private final String shape;
+
+        private final String id;
+
+        private final Timer timer;
+
+        private final Histogram rows;
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final LongAdder totalRows = new LongAdder();
+
+        StatementStats(String shape, String id, Timer timer, Histogram rows) {
+            this.shape = shape;
+            this.id = id;
+            this.timer = timer;
+            this.rows = rows;
+        }
+
+        void record(long nanos, long rowCount) {
+            timer.update(nanos, TimeUnit.NANOSECONDS);
+            rows.update(rowCount);
+            totalNanos.add(nanos);
+            totalRows.add(rowCount);
+        }
+
+        public String getShape() {
+            return shape;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public long getCount() {
+            return timer.getCount();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getTotalRows() {
+            return totalRows.sum();
+        }
+
+        /**
+         * @return the recent durations, in nanoseconds
+         */
+        public Snapshot getSnapshot() {
+            return timer.getSnapshot();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.evolvingreality.onleave.calendar.config.metrics;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Timer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A timer also keeping the total of the durations it recorded, the {@code _sum} of a Prometheus summary, which the
+ * reservoir of a Dropwizard timer only samples.
+ */
+public class SummingTimer extends Timer {
+
+    private final LongAdder sum = new LongAdder();
+
+    public SummingTimer(Reservoir reservoir) {
+        super(reservoir);
+    }
+
+    @Override
+    public void update(long duration, TimeUnit unit) {
+        if (duration >= 0) {
+            sum.add(unit.toNanos(duration));
+        }
+        super.update(duration, unit);
+    }
+
+    @Override
+    public <T> T time(Callable<T> event) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return event.call();
+        } finally {
+            update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return the total of the durations recorded, in nanoseconds
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+}
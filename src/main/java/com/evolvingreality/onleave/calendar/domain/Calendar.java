@@ -4,6 +4,8 @@ import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import java.util.HashSet;
@@ -28,10 +30,31 @@ public class Calendar extends AbstractAuditingEntity {
     @Column(name = "country")
     private String country;
     
+    /**
+     * The region of a regional or organisation calendar, null for a national calendar.
+     */
+    @Column(name = "region")
+    private String region;
+    
+    /**
+     * The organisation of an organisation calendar, null for a national or regional calendar.
+     */
+    @Column(name = "organisation")
+    private String organisation;
+    
     @NotNull
     @Column(name = "year")
     private Integer year;
     
+    /**
+     * The weekend days of a national calendar as a 7-bit mask, Monday being bit 0 and Sunday bit 6.
+     * Null for a Saturday and Sunday weekend.
+     */
+    @Min(value = 0)
+    @Max(value = 127)
+    @Column(name = "weekend_mask")
+    private Integer weekendMask;
+    
     @OrderBy("holidayDate ASC")
     @OneToMany(mappedBy = "calendar")
     @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
@@ -54,6 +77,22 @@ public class Calendar extends AbstractAuditingEntity {
         this.country = country;
     }
 
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getOrganisation() {
+        return organisation;
+    }
+
+    public void setOrganisation(String organisation) {
+        this.organisation = organisation;
+    }
+
     public Integer getYear() {
         return year;
     }
@@ -62,6 +101,14 @@ public class Calendar extends AbstractAuditingEntity {
         this.year = year;
     }
 
+    public Integer getWeekendMask() {
+        return weekendMask;
+    }
+
+    public void setWeekendMask(Integer weekendMask) {
+        this.weekendMask = weekendMask;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -87,7 +134,10 @@ public class Calendar extends AbstractAuditingEntity {
         return "Calendar{" +
             "id=" + id +
             ", country='" + country + "'" +            
+            ", region='" + region + "'" +
+            ", organisation='" + organisation + "'" +
             ", year='" + year + "'" +
+            ", weekendMask='" + weekendMask + "'" +
             '}';
     }
 }
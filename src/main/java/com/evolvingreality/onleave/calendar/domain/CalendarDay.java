@@ -1,9 +1,12 @@
 package com.evolvingreality.onleave.calendar.domain;
 
+import java.io.Serializable;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 
-public class CalendarDay {
+public class CalendarDay implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private LocalDate date;
 	
@@ -1,11 +1,14 @@
 package com.evolvingreality.onleave.calendar.domain;
 
+import java.io.Serializable;
 import java.time.Month;
 import java.util.ArrayList;
 import java.util.List;
 
 
-public class CalendarMonth {
+public class CalendarMonth implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private Month month;
 	
@@ -1,11 +1,14 @@
 package com.evolvingreality.onleave.calendar.domain;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-public class CalendarWeek {
+public class CalendarWeek implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private Integer ordinal;
 	
@@ -1,17 +1,24 @@
 package com.evolvingreality.onleave.calendar.domain;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 
-public class CalendarYear {
+public class CalendarYear implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private Long id;
 
     private String country;
     
+    private String region;
+    
+    private String organisation;
+    
     private Integer year;
     
     private List<CalendarMonth> months = new ArrayList<>();
@@ -34,6 +41,22 @@ public class CalendarYear {
 		this.country = country;
 	}
 
+	public String getRegion() {
+		return region;
+	}
+
+	public void setRegion(String region) {
+		this.region = region;
+	}
+
+	public String getOrganisation() {
+		return organisation;
+	}
+
+	public void setOrganisation(String organisation) {
+		this.organisation = organisation;
+	}
+
 	public Integer getYear() {
 		return year;
 	}
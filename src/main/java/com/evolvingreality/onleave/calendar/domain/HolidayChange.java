@@ -0,0 +1,140 @@
+package com.evolvingreality.onleave.calendar.domain;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A change of a Holiday, written in the transaction of the change.
+ * <p>
+ * The version of the change is the version of the holiday data that clients sync from. Versions are handed out
+ * under a lock held until the change commits, so a version is only visible once every lower one is.
+ */
+@Entity
+@Table(name = "holiday_change")
+public class HolidayChange implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    @NotNull
+    @Column(name = "holiday_id", nullable = false)
+    private Long holidayId;
+
+    @Column(name = "calendar_id")
+    private Long calendarId;
+
+    @NotNull
+    @Column(name = "version", nullable = false, unique = true)
+    private Long version;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    private ChangeType changeType;
+
+    @NotNull
+    @Column(name = "changed_date", nullable = false)
+    private ZonedDateTime changedDate = ZonedDateTime.now();
+
+    public HolidayChange() {
+    }
+
+    public HolidayChange(Long holidayId, Long calendarId, ChangeType changeType) {
+        this.holidayId = holidayId;
+        this.calendarId = calendarId;
+        this.changeType = changeType;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getHolidayId() {
+        return holidayId;
+    }
+
+    public void setHolidayId(Long holidayId) {
+        this.holidayId = holidayId;
+    }
+
+    public Long getCalendarId() {
+        return calendarId;
+    }
+
+    public void setCalendarId(Long calendarId) {
+        this.calendarId = calendarId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(ChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    public ZonedDateTime getChangedDate() {
+        return changedDate;
+    }
+
+    public void setChangedDate(ZonedDateTime changedDate) {
+        this.changedDate = changedDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HolidayChange holidayChange = (HolidayChange) o;
+        if(holidayChange.id == null || id == null) {
+            return false;
+        }
+        return Objects.equals(id, holidayChange.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "HolidayChange{" +
+            "id=" + id +
+            ", holidayId='" + holidayId + "'" +
+            ", calendarId='" + calendarId + "'" +
+            ", version='" + version + "'" +
+            ", changeType='" + changeType + "'" +
+            ", changedDate='" + changedDate + "'" +
+            '}';
+    }
+}
@@ -3,10 +3,11 @@ package com.evolvingreality.onleave.calendar.repository;
 import com.evolvingreality.onleave.calendar.domain.Calendar;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Spring Data JPA repository for the Calendar entity.
@@ -14,6 +15,19 @@ import java.util.Optional;
 @SuppressWarnings("unused")
 public interface CalendarRepository extends JpaRepository<Calendar,Long> {
 
-	Optional<Calendar> findByCountryAndYear(String country, Integer year);
+	/**
+	 * @return the national, regional and organisation calendars of the country for the year
+	 */
+	List<Calendar> findByCountryAndYear(String country, Integer year);
+	
+	/**
+	 * @return the national calendar of the country for its latest year, or null if it has none
+	 */
+	Calendar findFirstByCountryAndRegionIsNullAndOrganisationIsNullOrderByYearDesc(String country);
+	
+	@Query("select calendar from Calendar calendar order by calendar.id")
+	Slice<Calendar> findAllOrderById(Pageable pageable);
+	
+	Slice<Calendar> findByIdGreaterThanOrderById(Long id, Pageable pageable);
 	
 }
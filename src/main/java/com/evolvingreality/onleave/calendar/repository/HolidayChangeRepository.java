@@ -0,0 +1,27 @@
+package com.evolvingreality.onleave.calendar.repository;
+
+import com.evolvingreality.onleave.calendar.domain.HolidayChange;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.*;
+
+/**
+ * Spring Data JPA repository for the HolidayChange entity.
+ */
+@SuppressWarnings("unused")
+public interface HolidayChangeRepository extends JpaRepository<HolidayChange,Long> {
+
+	Slice<HolidayChange> findByVersionGreaterThanOrderByVersion(Long version, Pageable pageable);
+	
+	/**
+	 * Increments the version of the holiday data, locking its row until the end of the transaction.
+	 */
+	@Modifying
+	@Query(value = "update holiday_change_version set version = version + 1 where id = 1", nativeQuery = true)
+	int incrementVersion();
+	
+	@Query(value = "select version from holiday_change_version where id = 1", nativeQuery = true)
+	Number findVersion();
+	
+}
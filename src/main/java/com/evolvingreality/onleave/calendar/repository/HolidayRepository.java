@@ -1,11 +1,16 @@
 package com.evolvingreality.onleave.calendar.repository;
 
 import com.evolvingreality.onleave.calendar.domain.Holiday;
+import com.evolvingreality.onleave.calendar.web.rest.dto.HolidayDTO;
 
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +22,36 @@ public interface HolidayRepository extends JpaRepository<Holiday,Long> {
 
 	Optional<Holiday> findByHolidayDate(LocalDate date);
 	
+	List<Holiday> findByCalendarIdInOrderByHolidayDate(Collection<Long> calendarIds);
+	
+	@Query("select holiday from Holiday holiday join fetch holiday.calendar")
+	List<Holiday> findAllWithCalendar();
+	
+	@Query("select holiday from Holiday holiday order by holiday.holidayDate, holiday.id")
+	Slice<Holiday> findAllOrderByDate(Pageable pageable);
+	
+	/**
+	 * @return the holidays after the given one in date then id order, read from the date index without offset
+	 */
+	@Query("select holiday from Holiday holiday where holiday.holidayDate > :date"
+		+ " or (holiday.holidayDate = :date and holiday.id > :id) order by holiday.holidayDate, holiday.id")
+	Slice<Holiday> findAllOrderByDateAfter(@Param("date") LocalDate date, @Param("id") Long id, Pageable pageable);
+	
+	/**
+	 * @return the holidays of the national, regional and organisation calendars of the country between the two
+	 * dates, both included, read as DTOs so that no calendar is loaded
+	 */
+	@Query("select new com.evolvingreality.onleave.calendar.web.rest.dto.HolidayDTO(holiday.id, holiday.name,"
+		+ " holiday.description, holiday.holidayDate, calendar.id, calendar.country, calendar.region,"
+		+ " calendar.organisation) from Holiday holiday join holiday.calendar calendar"
+		+ " where calendar.country = :country and calendar.year between :fromYear and :toYear"
+		+ " and holiday.holidayDate between :from and :to order by holiday.holidayDate, holiday.id")
+	List<HolidayDTO> findAllByCountry(@Param("country") String country, @Param("fromYear") Integer fromYear,
+		@Param("toYear") Integer toYear, @Param("from") LocalDate from, @Param("to") LocalDate to);
+	
+	@Query("select new com.evolvingreality.onleave.calendar.web.rest.dto.HolidayDTO(holiday.id, holiday.name,"
+		+ " holiday.description, holiday.holidayDate, calendar.id, calendar.country, calendar.region,"
+		+ " calendar.organisation) from Holiday holiday join holiday.calendar calendar where holiday.id in :ids")
+	List<HolidayDTO> findAllByIdIn(@Param("ids") Collection<Long> ids);
+	
 }
@@ -2,7 +2,12 @@ package com.evolvingreality.onleave.calendar.security.jwt;
 
 import com.evolvingreality.onleave.calendar.config.JHipsterProperties;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -18,6 +23,15 @@ import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.*;
 
+/**
+ * Creates the JWT tokens and reads them back.
+ * <p>
+ * A token is parsed and verified once: its subject, authorities and expiry are then cached by a SHA-256 hash of
+ * the token until it expires, so the requests of a user holding the same token skip the HMAC verification. Every
+ * request gets its own {@link Authentication}, built from the cached claims. The cache holds at most
+ * {@code jhipster.security.authentication.jwt.cacheSize} tokens, a full cache drops its expired tokens and then
+ * the ones that expire first.
+ */
 @Component
 public class TokenProvider {
 
@@ -31,6 +45,12 @@ public class TokenProvider {
 
     private long tokenValidityInSecondsForRememberMe;
 
+    private int cacheSize;
+
+    private final ConcurrentMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
     @Inject
     private JHipsterProperties jHipsterProperties;
 
@@ -43,6 +63,7 @@ public class TokenProvider {
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInSecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+        this.cacheSize = jHipsterProperties.getSecurity().getAuthentication().getJwt().getCacheSize();
     }
 
     public String createToken(Authentication authentication, Boolean rememberMe) {
@@ -66,30 +87,102 @@ public class TokenProvider {
             .compact();
     }
 
-    public Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parser()
-            .setSigningKey(secretKey)
-            .parseClaimsJws(token)
-            .getBody();
+    /**
+     * Parses and verifies a token, or reads its claims back from the cache of verified tokens.
+     *
+     * @param token the token
+     * @return a new authentication of the token, or null if its signature is invalid
+     * @throws ExpiredJwtException if the token has expired
+     */
+    public Authentication resolveAuthentication(String token) {
+        String hash = hash(token);
+        VerifiedToken verified = verifiedTokens.get(hash);
+        if (verified != null) {
+            if (verified.expiration > System.currentTimeMillis()) {
+                return toAuthentication(verified);
+            }
+            verifiedTokens.remove(hash, verified);
+        }
+        Claims claims;
+        try {
+            claims = Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody();
+        } catch (SignatureException e) {
+            log.info("Invalid JWT signature: " + e.getMessage());
+            return null;
+        }
+        verified = new VerifiedToken(claims.getSubject(), toAuthorities(claims),
+            claims.getExpiration() == null ? Long.MAX_VALUE : claims.getExpiration().getTime());
+        if (claims.getExpiration() != null && cacheSize > 0) {
+            if (verifiedTokens.size() >= cacheSize) {
+                evict();
+            }
+            verifiedTokens.put(hash, verified);
+        }
+        return toAuthentication(verified);
+    }
 
-        Collection<? extends GrantedAuthority> authorities =
-            Arrays.asList(claims.get(AUTHORITIES_KEY).toString().split(",")).stream()
-                .map(authority -> new SimpleGrantedAuthority(authority))
-                .collect(Collectors.toList());
+    /**
+     * @return the number of verified tokens in the cache
+     */
+    int getCachedTokenCount() {
+        return verifiedTokens.size();
+    }
+
+    private List<GrantedAuthority> toAuthorities(Claims claims) {
+        return Collections.unmodifiableList(Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+            .map(authority -> this.authorities.computeIfAbsent(authority, SimpleGrantedAuthority::new))
+            .collect(Collectors.toList()));
+    }
 
-        User principal = new User(claims.getSubject(), "",
-            authorities);
+    private static Authentication toAuthentication(VerifiedToken verified) {
+        User principal = new User(verified.subject, "", verified.authorities);
 
-        return new UsernamePasswordAuthenticationToken(principal, "", authorities);
+        return new UsernamePasswordAuthenticationToken(principal, "", verified.authorities);
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * Drops the expired tokens and, if the cache is still full, the quarter of the tokens that expire first, so
+     * that a full cache is not sorted again for every new token.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(verified -> verified.expiration <= now);
+        int excess = verifiedTokens.size() - cacheSize + 1;
+        if (excess > 0) {
+            int count = Math.max(excess, cacheSize / 4);
+            log.debug("JWT cache full with {} tokens, dropping the {} that expire first", verifiedTokens.size(), count);
+            verifiedTokens.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, VerifiedToken> entry) -> entry.getValue().expiration))
+                .limit(count)
+                .collect(Collectors.toList())
+                .forEach(entry -> verifiedTokens.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private static String hash(String token) {
         try {
-            Jwts.parser().setSigningKey(secretKey).parseClaimsJws(authToken);
-            return true;
-        } catch (SignatureException e) {
-            log.info("Invalid JWT signature: " + e.getMessage());
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * The claims of a verified token, immutable so that they can be shared by the requests holding the token.
+     */
+    private static class VerifiedToken {
+
+        private final String subject;
+
+        private final List<GrantedAuthority> authorities;
+
+        private final long expiration;
+
+        VerifiedToken(String subject, List<GrantedAuthority> authorities, long expiration) {
+            this.subject = subject;
+            this.authorities = authorities;
+            this.expiration = expiration;
         }
     }
 }
@@ -0,0 +1,68 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.evolvingreality.onleave.calendar.service.CalendarDataChangedEvent.ChangeType;
+
+import java.io.Serializable;
+
+/**
+ * A committed calendar or holiday change, as published to every node of the cluster and streamed to clients.
+ */
+public class CalendarChangeMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String entityName;
+
+    private final Long entityId;
+
+    private final ChangeType changeType;
+
+    private final String calendarKey;
+
+    public CalendarChangeMessage(String entityName, Long entityId, ChangeType changeType, String calendarKey) {
+        this.entityName = entityName;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.calendarKey = calendarKey;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    /**
+     * @return the key of the calendar changed or of the calendar of the holiday, null if it is not known
+     */
+    public String getCalendarKey() {
+        return calendarKey;
+    }
+
+    /**
+     * @return the country of the calendar, null if it is not known
+     */
+    public String getCountry() {
+        if (calendarKey == null) {
+            return null;
+        }
+        int separator = calendarKey.indexOf('/');
+        return separator < 0 ? calendarKey : calendarKey.substring(0, separator);
+    }
+
+    @Override
+    public String toString() {
+        return "CalendarChangeMessage{" +
+            "entityName='" + entityName + "'" +
+            ", entityId='" + entityId + "'" +
+            ", changeType='" + changeType + "'" +
+            ", calendarKey='" + calendarKey + "'" +
+            '}';
+    }
+}
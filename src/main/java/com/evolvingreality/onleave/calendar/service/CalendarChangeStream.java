@@ -0,0 +1,187 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.evolvingreality.onleave.calendar.async.TaskLanes;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+
+/**
+ * Streams the committed calendar and holiday changes to Server-Sent Events subscribers.
+ * <p>
+ * Changes are published on a Hazelcast topic rather than sent directly, so that the subscribers of every node
+ * of the cluster receive the changes written on any node. Each subscriber can filter the changes by country.
+ * <p>
+ * The topic listener only queues the changes: each subscriber has a bounded queue of pending changes, sent on the
+ * {@link TaskLanes#CHANGE_STREAM} lane, so a slow client never holds back the delivery to the others. A subscriber
+ * whose queue is full is dropped, it reconnects and resyncs like after a timeout.
+ */
+@Component
+public class CalendarChangeStream {
+
+    public static final String CALENDAR_CHANGES_TOPIC = "calendar-changes";
+
+    public static final String EVENT_NAME = "calendar-change";
+
+    /**
+     * Subscriptions time out after this delay, clients reconnect with a new one.
+     */
+    private static final long TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    private static final int MAX_SUBSCRIPTIONS = 1000;
+
+    private static final int MAX_PENDING_CHANGES = 100;
+
+    private final Logger log = LoggerFactory.getLogger(CalendarChangeStream.class);
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final ITopic<CalendarChangeMessage> topic;
+
+    private final TaskExecutor taskExecutor;
+
+    private final Meter drops;
+
+    private final Meter rejections;
+
+    @Inject
+    public CalendarChangeStream(final HazelcastInstance hazelcastInstance, final TaskLanes taskLanes,
+                                final MetricRegistry metricRegistry) {
+        this.taskExecutor = taskLanes.get(TaskLanes.CHANGE_STREAM);
+        this.drops = metricRegistry.meter(MetricRegistry.name(CalendarChangeStream.class, "drops"));
+        this.rejections = metricRegistry.meter(MetricRegistry.name(CalendarChangeStream.class, "rejections"));
+        metricRegistry.register(MetricRegistry.name(CalendarChangeStream.class, "subscriptions"),
+            (Gauge<Integer>) subscriptions::size);
+        this.topic = hazelcastInstance.getTopic(CALENDAR_CHANGES_TOPIC);
+        this.topic.addMessageListener(message -> dispatch(message.getMessageObject()));
+    }
+
+    /**
+     * @param countries the country codes of the changes to stream, or null or empty for every change
+     * @return the emitter of the changes, until it times out or the client disconnects, or empty if there are
+     * already {@value #MAX_SUBSCRIPTIONS} subscriptions on this node
+     */
+    public synchronized Optional<SseEmitter> subscribe(Set<String> countries) {
+        if (subscriptions.size() >= MAX_SUBSCRIPTIONS) {
+            rejections.mark();
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(TIMEOUT_MILLIS);
+        Subscription subscription = new Subscription(emitter, countries);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        log.debug("Subscribed to calendar changes : {}, {} subscriptions", countries, subscriptions.size());
+        return Optional.of(emitter);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+        topic.publish(new CalendarChangeMessage(event.getEntityName(), event.getEntityId(), event.getChangeType(),
+            event.getCalendarKey()));
+    }
+
+    private void dispatch(CalendarChangeMessage message) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.accepts(message)) {
+                subscription.offer(message);
+            }
+        }
+    }
+
+    private void drop(Subscription subscription, String reason) {
+        if (subscriptions.remove(subscription)) {
+            log.debug("Dropping calendar changes subscription : {}", reason);
+            drops.mark();
+            subscription.pending.clear();
+            subscription.emitter.complete();
+        }
+    }
+
+    private final class Subscription implements Runnable {
+
+        private final SseEmitter emitter;
+
+        private final Set<String> countries;
+
+        private final BlockingQueue<CalendarChangeMessage> pending = new ArrayBlockingQueue<>(MAX_PENDING_CHANGES);
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Subscription(SseEmitter emitter, Set<String> countries) {
+            this.emitter = emitter;
+            this.countries = countries;
+        }
+
+        /**
+         * Changes of an unknown country, like the deletion of an already deleted holiday, go to every subscriber.
+         */
+        boolean accepts(CalendarChangeMessage message) {
+            return countries == null || countries.isEmpty() || message.getCountry() == null
+                || countries.contains(message.getCountry());
+        }
+
+        void offer(CalendarChangeMessage message) {
+            if (pending.offer(message)) {
+                schedule();
+            } else {
+                drop(this, MAX_PENDING_CHANGES + " changes pending");
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    taskExecutor.execute(this);
+                } catch (TaskRejectedException e) {
+                    scheduled.set(false);
+                    drop(this, "delivery rejected");
+                }
+            }
+        }
+
+        /**
+         * Sends the pending changes, one run at a time per subscriber so that they are sent in order.
+         */
+        @Override
+        public void run() {
+            try {
+                CalendarChangeMessage message;
+                while ((message = pending.poll()) != null) {
+                    emitter.send(SseEmitter.event().name(EVENT_NAME).data(message, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                scheduled.set(false);
+                drop(this, e.getMessage());
+                return;
+            }
+            scheduled.set(false);
+            // A change queued after the last poll but before the flag was reset would otherwise wait for the next one
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
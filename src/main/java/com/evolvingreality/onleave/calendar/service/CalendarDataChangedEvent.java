@@ -0,0 +1,70 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a calendar or a holiday is created, updated or deleted.
+ * <p>
+ * Listeners that keep derived copies of the calendars should use a
+ * {@link org.springframework.transaction.event.TransactionalEventListener} so that they only see committed data.
+ */
+public class CalendarDataChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum ChangeType {
+        SAVED,
+        DELETED
+    }
+
+    private final String entityName;
+
+    private final Long entityId;
+
+    private final ChangeType changeType;
+
+    private final String calendarKey;
+
+    public CalendarDataChangedEvent(Object source, String entityName, Long entityId, ChangeType changeType) {
+        this(source, entityName, entityId, changeType, null);
+    }
+
+    /**
+     * @param calendarKey the key of the calendar changed or of the calendar of the holiday changed, see
+     * {@link com.evolvingreality.onleave.calendar.service.index.CalendarYearData#key}
+     */
+    public CalendarDataChangedEvent(Object source, String entityName, Long entityId, ChangeType changeType,
+                                    String calendarKey) {
+        super(source);
+        this.entityName = entityName;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.calendarKey = calendarKey;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public String getCalendarKey() {
+        return calendarKey;
+    }
+
+    @Override
+    public String toString() {
+        return "CalendarDataChangedEvent{" +
+            "entityName='" + entityName + "'" +
+            ", entityId='" + entityId + "'" +
+            ", changeType='" + changeType + "'" +
+            ", calendarKey='" + calendarKey + "'" +
+            '}';
+    }
+}
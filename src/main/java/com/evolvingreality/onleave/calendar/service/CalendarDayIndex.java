@@ -0,0 +1,116 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.evolvingreality.onleave.calendar.config.JHipsterProperties;
+import com.evolvingreality.onleave.calendar.config.MetricsConfiguration;
+import com.evolvingreality.onleave.calendar.service.index.CalendarYearData;
+import com.evolvingreality.onleave.calendar.service.index.DayRecord;
+import com.evolvingreality.onleave.calendar.service.index.OffHeapDayIndex;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+
+/**
+ * Off-heap index of the working days and holidays of the calendar years used by the business day queries.
+ * <p>
+ * Years are added as they are loaded, up to the configured number of slabs past which the years not read
+ * recently are evicted, and the whole index is dropped after a committed calendar or holiday change, on this
+ * instance or, through the {@link CalendarChangeStream#CALENDAR_CHANGES_TOPIC} topic, on another one.
+ * <p>
+ * Every drop starts a new generation of the index. A year is added with the generation in which its load started,
+ * and removed again if the index was dropped meanwhile, so that a year loaded before a change is not kept after it.
+ * <p>
+ * The off-heap usage is reported next to the JVM buffer pools, as {@code jvm.buffers.calendar-day-index.count},
+ * {@code .used} and {@code .capacity}, with the number of years evicted in {@code .evictions}.
+ */
+@Component
+public class CalendarDayIndex {
+
+    private static final String METRIC_NAME = MetricRegistry.name(MetricsConfiguration.PROP_METRIC_REG_JVM_BUFFERS,
+        "calendar-day-index");
+
+    private final Logger log = LoggerFactory.getLogger(CalendarDayIndex.class);
+
+    private final OffHeapDayIndex index;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    @Inject
+    public CalendarDayIndex(final JHipsterProperties jHipsterProperties, final MetricRegistry metricRegistry,
+                            final HazelcastInstance hazelcastInstance) {
+        JHipsterProperties.Cache.DayIndex dayIndex = jHipsterProperties.getCache().getDayIndex();
+        this.index = new OffHeapDayIndex(dayIndex.getRecordsPerSlab(), dayIndex.getMaxSlabs());
+        ITopic<CalendarChangeMessage> topic = hazelcastInstance.getTopic(CalendarChangeStream.CALENDAR_CHANGES_TOPIC);
+        topic.addMessageListener(message -> {
+            // The changes of this instance are applied once committed, before they are published
+            if (!message.getPublishingMember().localMember()) {
+                clear(message.getMessageObject());
+            }
+        });
+        metricRegistry.register(MetricRegistry.name(METRIC_NAME, "count"), (Gauge<Integer>) index::size);
+        metricRegistry.register(MetricRegistry.name(METRIC_NAME, "used"), (Gauge<Long>) index::getUsedBytes);
+        metricRegistry.register(MetricRegistry.name(METRIC_NAME, "capacity"), (Gauge<Long>) index::getCapacityBytes);
+        metricRegistry.register(MetricRegistry.name(METRIC_NAME, "evictions"), (Gauge<Long>) index::getEvictionCount);
+    }
+
+    /**
+     * @return the current generation of the index, to read before loading a year
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Adds the calendar year to the index, unless it was dropped since the year started loading.
+     *
+     * @param data the calendar year
+     * @param loadGeneration the generation of the index when the year started loading
+     */
+    public void put(CalendarYearData data, long loadGeneration) {
+        index.put(data);
+        // A drop after this check removes the year anyway
+        if (generation.get() != loadGeneration) {
+            index.remove(data.getKey(), data.getYear());
+        }
+    }
+
+    /**
+     * @param key the calendar key, see {@link CalendarYearData#key}
+     * @param date the date
+     * @return whether the date is a working day, or empty if its year is not in the index
+     */
+    public Optional<Boolean> isWorkingDay(String key, LocalDate date) {
+        return read(key, date.getYear(), r -> r.isWorkingDay(date.getDayOfYear()));
+    }
+
+    /**
+     * @see OffHeapDayIndex#read(String, int, Function)
+     */
+    public <T> Optional<T> read(String key, int year, Function<DayRecord, T> reader) {
+        return index.read(key, year, reader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+        clear(event);
+    }
+
+    private void clear(Object change) {
+        log.debug("Clearing the calendar day index after {}", change);
+        generation.incrementAndGet();
+        index.clear();
+    }
+}
@@ -0,0 +1,144 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.evolvingreality.onleave.calendar.async.TaskLanes;
+import com.evolvingreality.onleave.calendar.config.ReplicaRoutingDataSource;
+import com.evolvingreality.onleave.calendar.domain.Calendar;
+import com.evolvingreality.onleave.calendar.domain.Holiday;
+import com.evolvingreality.onleave.calendar.repository.HolidayRepository;
+import com.evolvingreality.onleave.calendar.service.CalendarDataChangedEvent.ChangeType;
+import com.evolvingreality.onleave.calendar.service.index.CalendarYearData;
+import com.evolvingreality.onleave.calendar.service.index.HolidayIndex;
+import com.evolvingreality.onleave.calendar.service.index.IndexedHoliday;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StopWatch;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+
+/**
+ * Keeps the {@link HolidayIndex} of every holiday in sync with the database.
+ * <p>
+ * The index is built once the application is ready, or on first use if a query comes first. Holiday writes of
+ * this instance are applied to it one by one once committed; calendar writes, which can move all their holidays
+ * to another key, and writes of the other instances, received on the {@link CalendarChangeStream#CALENDAR_CHANGES_TOPIC}
+ * topic, rebuild it. A rebuilt index replaces the previous one whole, readers never see it half built.
+ */
+@Component
+public class CalendarHolidayIndex {
+
+    private final Logger log = LoggerFactory.getLogger(CalendarHolidayIndex.class);
+
+    private volatile HolidayIndex index = new HolidayIndex();
+
+    private final HolidayRepository holidayRepository;
+
+    private final TaskExecutor taskExecutor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private volatile boolean loaded;
+
+    @Inject
+    public CalendarHolidayIndex(final HolidayRepository holidayRepository,
+                                final TaskLanes taskLanes,
+                                final PlatformTransactionManager transactionManager,
+                                final HazelcastInstance hazelcastInstance) {
+        this.holidayRepository = holidayRepository;
+        this.taskExecutor = taskLanes.get(TaskLanes.REFRESH);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setName(ReplicaRoutingDataSource.PRIMARY);
+        ITopic<CalendarChangeMessage> topic = hazelcastInstance.getTopic(CalendarChangeStream.CALENDAR_CHANGES_TOPIC);
+        topic.addMessageListener(message -> {
+            if (!message.getPublishingMember().localMember()) {
+                scheduleRebuild();
+            }
+        });
+    }
+
+    /**
+     * Reads the index, building it first if needed.
+     */
+    public <T> T read(Function<HolidayIndex, T> reader) {
+        if (!loaded) {
+            load();
+        }
+        return reader.apply(index);
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        scheduleRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+        if (!loaded || !"holiday".equals(event.getEntityName())) {
+            scheduleRebuild();
+            return;
+        }
+        // Serialized with the rebuilds, so a rebuild running meanwhile can not overwrite the change
+        synchronized (this) {
+            Holiday holiday = event.getChangeType() == ChangeType.DELETED ? null
+                : holidayRepository.findOne(event.getEntityId());
+            if (holiday == null || holiday.getCalendar() == null) {
+                index.remove(event.getEntityId());
+            } else {
+                index.put(toIndexed(holiday));
+            }
+        }
+    }
+
+    public void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    private synchronized void load() {
+        if (!loaded) {
+            rebuild();
+        }
+    }
+
+    protected synchronized void rebuild() {
+        StopWatch watch = new StopWatch();
+        watch.start();
+        List<IndexedHoliday> holidays = transactionTemplate.execute(status -> holidayRepository.findAllWithCalendar()
+            .stream()
+            .map(this::toIndexed)
+            .collect(Collectors.toList()));
+        index = new HolidayIndex(holidays);
+        loaded = true;
+        watch.stop();
+        log.debug("Indexed {} holidays on {} days in {} ms", holidays.size(), index.size(), watch.getTotalTimeMillis());
+    }
+
+    private IndexedHoliday toIndexed(Holiday holiday) {
+        Calendar calendar = holiday.getCalendar();
+        return new IndexedHoliday(holiday.getId(),
+            CalendarYearData.key(calendar.getCountry(), calendar.getRegion(), calendar.getOrganisation()),
+            holiday.getHolidayDate(), holiday.getName(), holiday.getDescription());
+    }
+}
@@ -2,6 +2,7 @@ package com.evolvingreality.onleave.calendar.service;
 
 import com.evolvingreality.onleave.calendar.domain.Calendar;
 import com.evolvingreality.onleave.calendar.domain.CalendarYear;
+import com.evolvingreality.onleave.calendar.service.index.SetOperation;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -9,6 +10,7 @@ import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 
 /**
@@ -31,6 +33,22 @@ public interface CalendarService {
      *  @return the list of entities
      */
     Page<Calendar> findAll(Pageable pageable);
+
+    /**
+     *  Get the calendars in id order after a calendar, without counting them.
+     *  
+     *  @param id the id of the last calendar read, or null for the first calendars
+     *  @param size the maximum number of calendars
+     *  @return the calendars, and whether there are more
+     */
+    Slice<Calendar> findAllAfter(Long id, int size);
+
+    /**
+     *  Count the calendars.
+     *  
+     *  @return the number of calendars
+     */
+    long count();
     
     /**
      * Get the unique country calendar. 
@@ -55,6 +73,18 @@ public interface CalendarService {
      * @return a {@link CalendarYear} containing every month/week/day of the year
      */
     Optional<CalendarYear> getCalendarYear(String country, Integer year);
+    
+    /**
+     * Gets the {@link CalendarYear} of a region or organisation, with the holidays of the national
+     * calendar and of every more specific calendar of the year.
+     * 
+     * @param country the country calendar
+     * @param region the region calendar, or null
+     * @param organisation the organisation calendar, or null
+     * @param year the year of the calendar
+     * @return a {@link CalendarYear} containing every month/week/day of the year
+     */
+    Optional<CalendarYear> getCalendarYear(String country, String region, String organisation, Integer year);
 
     /**
      * Gets the {@link CalendarYear} for the calendar. Contains all the days
@@ -66,6 +96,18 @@ public interface CalendarService {
      */
     Optional<CalendarYear> getPaddedCalendarYear(String country, Integer year);
     
+    /**
+     * Gets the padded {@link CalendarYear} of a region or organisation, see
+     * {@link #getCalendarYear(String, String, String, Integer)}.
+     * 
+     * @param country the country calendar
+     * @param region the region calendar, or null
+     * @param organisation the organisation calendar, or null
+     * @param year the year of the calendar
+     * @return a {@link CalendarYear} containing every month/week/day of the year  
+     */
+    Optional<CalendarYear> getPaddedCalendarYear(String country, String region, String organisation, Integer year);
+    
     /**
      *  Delete the "id" calendar.
      *  
@@ -80,4 +122,42 @@ public interface CalendarService {
      */
     LocalDate getNextWorkDay(LocalDate date);
     
+    /**
+     * Get the next work day of the country, region or organisation calendar based on the date passed in.
+     * 
+     * @param country the country calendar
+     * @param region the region calendar, or null
+     * @param organisation the organisation calendar, or null
+     * @param pattern the working days of the week as a 7-bit mask, Monday being bit 0, with at least one day;
+     * or null for the working days of the country calendar
+     * @param date the date we want the next work day from
+     * @return {@link LocalDate} the next work day, empty if there is none in the year after the date.
+     */
+    Optional<LocalDate> getNextWorkDay(String country, String region, String organisation, Integer pattern, LocalDate date);
+    
+    /**
+     * Count the working days of the country, region or organisation calendar between two dates.
+     * 
+     * @param country the country calendar
+     * @param region the region calendar, or null
+     * @param organisation the organisation calendar, or null
+     * @param pattern the working days of the week as a 7-bit mask, Monday being bit 0; or null for the
+     * working days of the country calendar
+     * @param from the first date, included
+     * @param to the last date, included
+     * @return the number of working days
+     */
+    long countWorkingDays(String country, String region, String organisation, Integer pattern, LocalDate from, LocalDate to);
+    
+    /**
+     * Combine the working days of several country calendars between two dates.
+     * 
+     * @param countries the country calendars, the first one is the one others are removed from for a difference
+     * @param operation how the working days of the countries are combined
+     * @param from the first date, included
+     * @param to the last date, included
+     * @return the resulting working days, in date order
+     */
+    List<LocalDate> getWorkingDays(List<String> countries, SetOperation operation, LocalDate from, LocalDate to);
+    
 }
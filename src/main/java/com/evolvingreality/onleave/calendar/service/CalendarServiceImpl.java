@@ -1,23 +1,33 @@
 package com.evolvingreality.onleave.calendar.service;
 
+import com.evolvingreality.onleave.calendar.config.CacheConfiguration;
+import com.evolvingreality.onleave.calendar.config.ReplicaRoutingDataSource;
 import com.evolvingreality.onleave.calendar.domain.Calendar;
 import com.evolvingreality.onleave.calendar.domain.CalendarDay;
 import com.evolvingreality.onleave.calendar.domain.CalendarMonth;
 import com.evolvingreality.onleave.calendar.domain.CalendarWeek;
 import com.evolvingreality.onleave.calendar.domain.CalendarYear;
 import com.evolvingreality.onleave.calendar.domain.DayType;
-import com.evolvingreality.onleave.calendar.domain.Holiday;
 import com.evolvingreality.onleave.calendar.repository.CalendarRepository;
 import com.evolvingreality.onleave.calendar.repository.HolidayRepository;
+import com.evolvingreality.onleave.calendar.service.CalendarDataChangedEvent.ChangeType;
+import com.evolvingreality.onleave.calendar.service.index.CalendarYearData;
+import com.evolvingreality.onleave.calendar.service.index.DayBitmaps;
+import com.evolvingreality.onleave.calendar.service.index.HolidayEntry;
+import com.evolvingreality.onleave.calendar.service.index.SetOperation;
+import com.evolvingreality.onleave.calendar.service.index.WeekMask;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.Month;
+import java.time.Year;
 import java.time.temporal.WeekFields;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -26,30 +36,69 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.stereotype.Service;
 
 
 
 /**
  * Service Implementation for managing Calendar.
+ * <p>
+ * The calendar year and working day reads do not start a transaction: answered from the caches or the day index
+ * they never borrow a connection, and only their misses load the calendars in a read-only transaction.
  */
 @Service
 @Transactional(readOnly = true)
 public class CalendarServiceImpl implements CalendarService {
 
+    /**
+     * The days after a date in which its next work day is looked for, a year.
+     */
+    private static final int MAX_NEXT_WORK_DAYS = 366;
+    
     private final Logger log = LoggerFactory.getLogger(CalendarServiceImpl.class);    
 
     private final CalendarRepository calendarRepository;
     
     private final HolidayRepository holidayRepository;
     
+    private final CalendarYearCache calendarYearCache;
+    
+    private final CalendarSnapshotService calendarSnapshotService;
+    
+    private final CalendarDayIndex calendarDayIndex;
+    
+    private final HolidayChangeJournal holidayChangeJournal;
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final TransactionTemplate transactionTemplate;
+    
     @Autowired
-    public CalendarServiceImpl(final CalendarRepository calendarRepository, final HolidayRepository holidayRepository) {
+    public CalendarServiceImpl(final CalendarRepository calendarRepository, final HolidayRepository holidayRepository,
+    		final CalendarYearCache calendarYearCache, final CalendarSnapshotService calendarSnapshotService,
+    		final CalendarDayIndex calendarDayIndex, final HolidayChangeJournal holidayChangeJournal,
+    		final ApplicationEventPublisher eventPublisher, final PlatformTransactionManager transactionManager) {
     	this.calendarRepository = calendarRepository;
     	this.holidayRepository = holidayRepository;
+    	this.calendarYearCache = calendarYearCache;
+    	this.calendarSnapshotService = calendarSnapshotService;
+    	this.calendarDayIndex = calendarDayIndex;
+    	this.holidayChangeJournal = holidayChangeJournal;
+    	this.eventPublisher = eventPublisher;
+    	this.transactionTemplate = new TransactionTemplate(transactionManager);
+    	this.transactionTemplate.setReadOnly(true);
+    	this.transactionTemplate.setName(ReplicaRoutingDataSource.PRIMARY);
     }
     
     /**
@@ -61,7 +110,18 @@ public class CalendarServiceImpl implements CalendarService {
     @Transactional(readOnly = false) 
     public Calendar save(Calendar calendar) {
         log.debug("Request to save Calendar : {}", calendar);
-        return calendarRepository.save(calendar);
+        Calendar previous = calendar.getId() == null ? null : calendarRepository.findOne(calendar.getId());
+        // Read before the save, which merges the new state into the loaded calendar
+        String previousKey = previous == null ? null
+        	: CalendarYearData.key(previous.getCountry(), previous.getRegion(), previous.getOrganisation());
+        Calendar result = calendarRepository.save(calendar);
+        String key = CalendarYearData.key(result.getCountry(), result.getRegion(), result.getOrganisation());
+        if (previousKey != null && !previousKey.equals(key)) {
+        	// The holidays of the change feed carry the country, region and organisation of their calendar
+        	holidayChangeJournal.recordCalendarChange(result.getId());
+        }
+        eventPublisher.publishEvent(new CalendarDataChangedEvent(this, "calendar", result.getId(), ChangeType.SAVED, key));
+        return result;
     }
 
     /**
@@ -75,6 +135,19 @@ public class CalendarServiceImpl implements CalendarService {
         return calendarRepository.findAll(pageable); 
     }
 
+    @Override
+    public Slice<Calendar> findAllAfter(Long id, int size) {
+        log.debug("Request to get Calendars after : {}", id);
+        Pageable pageable = new PageRequest(0, size);
+        return id == null ? calendarRepository.findAllOrderById(pageable)
+            : calendarRepository.findByIdGreaterThanOrderById(id, pageable);
+    }
+
+    @Override
+    public long count() {
+        return calendarRepository.count();
+    }
+
     /**
      *  Get one calendar by id.
      *
@@ -87,36 +160,50 @@ public class CalendarServiceImpl implements CalendarService {
     }
     
     @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
    	public Optional<CalendarYear> getPaddedCalendarYear(String country, Integer year) {
-       	log.debug("Request to get Year : {}, {}", country, year);
        	
-       	Optional<CalendarYear> calendarYear = getCalendarYear(country, year);
+       	return getPaddedCalendarYear(country, null, null, year);
+   	}
+    
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+   	public Optional<CalendarYear> getPaddedCalendarYear(String country, String region, String organisation, Integer year) {
+       	log.debug("Request to get Year : {}, {}, {}, {}", country, region, organisation, year);
        	
-       	calendarYear.ifPresent(c -> c.getMonths().forEach(m -> padCalendarMonth(c, m)));
+       	return calendarYearCache.get(CacheConfiguration.PADDED_CALENDAR_YEAR_CACHE, 
+       			CalendarYearData.key(country, region, organisation), year, 
+       			() -> loadCalendarYearData(country, region, organisation, year).map(data -> {
+       		
+       		// Always pad a freshly built year, the unpadded cache must never see padded days
+       		CalendarYear calendarYear = buildCalendarYear(country, region, organisation, data);
        	
-   		return calendarYear;
+       		calendarYear.getMonths().forEach(m -> padCalendarMonth(data, calendarYear, m));
+       	
+       		return calendarYear;
+       	}));
    	}
     
-    private void padCalendarMonth(CalendarYear calendarYear, CalendarMonth calendarMonth) {
+    private void padCalendarMonth(CalendarYearData data, CalendarYear calendarYear, CalendarMonth calendarMonth) {
     	   	
-    	padStartMonth(calendarYear, calendarMonth);
-    	padEndMonth(calendarYear, calendarMonth);
+    	padStartMonth(data, calendarYear, calendarMonth);
+    	padEndMonth(data, calendarYear, calendarMonth);
     	
     }
     
-    private void padStartMonth(CalendarYear calendarYear, CalendarMonth calendarMonth) {
+    private void padStartMonth(CalendarYearData data, CalendarYear calendarYear, CalendarMonth calendarMonth) {
     	
     	LocalDate monthStartDate = LocalDate.of(calendarYear.getYear(), calendarMonth.getMonth(), 1);
     	
     	while(monthStartDate.getDayOfWeek() != DayOfWeek.MONDAY) {
     		monthStartDate = monthStartDate.minusDays(1);
-    		CalendarDay day = getDay(monthStartDate);
+    		CalendarDay day = getDay(data, monthStartDate);
     		day.setDayType(DayType.PADDED);
     		calendarMonth.getWeeks().get(0).getDays().add(0, day);    		
     	}
     }
     
-    private void padEndMonth(CalendarYear calendarYear, CalendarMonth calendarMonth) {
+    private void padEndMonth(CalendarYearData data, CalendarYear calendarYear, CalendarMonth calendarMonth) {
     	
     	CalendarWeek lastWeek = calendarMonth.getWeeks().get(calendarMonth.getWeeks().size() - 1);
     	CalendarDay calendarDay = lastWeek.getDays().get(lastWeek.getDays().size() - 1);
@@ -124,33 +211,141 @@ public class CalendarServiceImpl implements CalendarService {
     	
     	while(monthEndDate.getDayOfWeek() != DayOfWeek.SUNDAY) {
     		monthEndDate = monthEndDate.plusDays(1);
-    		CalendarDay day = getDay(monthEndDate);
+    		CalendarDay day = getDay(data, monthEndDate);
     		day.setDayType(DayType.PADDED);
     		lastWeek.getDays().add(day);    		
     	}
     }
     
+    /**
+     * Not transactional, so that the snapshot can be used when no transaction can be started.
+     */
     @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
 	public Optional<CalendarYear> getCalendarYear(String country, Integer year) {
-    	log.debug("Request to get Year : {}, {}", country, year);
-    	
-    	Optional<Calendar> calendar = calendarRepository.findByCountryAndYear(country, year);
-    	
-    	Optional<CalendarYear> calendarYear = Optional.empty();
-    	
-    	if(calendar.isPresent()) {
-    		
-    		Calendar c = calendar.get();
-    		CalendarYear cy = new CalendarYear();
-        	
-        	cy.setCountry(country);
-        	cy.setYear(c.getYear());        	
-        	cy.setMonths(getMonths(c.getYear()));
-        	
-    		return Optional.of(cy);
+    	
+    	return getCalendarYear(country, null, null, year);
+    }
+    
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+	public Optional<CalendarYear> getCalendarYear(String country, String region, String organisation, Integer year) {
+    	log.debug("Request to get Year : {}, {}, {}, {}", country, region, organisation, year);
+    	
+    	return calendarYearCache.get(CacheConfiguration.CALENDAR_YEAR_CACHE, 
+    			CalendarYearData.key(country, region, organisation), year, 
+    			() -> loadCalendarYearData(country, region, organisation, year)
+    				.map(data -> buildCalendarYear(country, region, organisation, data)));
+    }
+    
+    /**
+     * Loads the effective calendar of the year, composed from its national, regional and organisation layers,
+     * and adds it to the day index.
+     * 
+     * @return the calendar, or empty without a national layer or when the region or organisation has no layer
+     */
+    private Optional<CalendarYearData> loadCalendarYearData(String country, String region, String organisation, Integer year) {
+    	
+    	List<String> layerKeys = getLayerKeys(country, region, organisation);
+    	long generation = calendarDayIndex.getGeneration();
+    	List<CalendarYearData> layers = loadLayers(country, year, layerKeys);
+    	
+    	// There is no calendar for the year without a national layer
+    	if (layers.isEmpty() || !layers.get(0).getKey().equals(layerKeys.get(0))) {
+    		return Optional.empty();
+    	}
+    	
+    	// Nor for an unknown region or organisation, the national calendar must not be cached under its key
+    	Set<String> loadedKeys = layers.stream().map(CalendarYearData::getKey).collect(Collectors.toSet());
+    	String combinedKey = region != null && organisation != null ? CalendarYearData.key(country, region, organisation) : null;
+    	if ((region != null && !loadedKeys.contains(CalendarYearData.key(country, region, null)) 
+    			&& !loadedKeys.contains(combinedKey))
+    		|| (organisation != null && !loadedKeys.contains(CalendarYearData.key(country, null, organisation)) 
+    			&& !loadedKeys.contains(combinedKey))) {
+    		log.debug("No calendar for Year : {}, {}", layerKeys, year);
+    		return Optional.empty();
+    	}
+    	
+    	CalendarYearData data = CalendarYearData.compose(CalendarYearData.key(country, region, organisation), layers);
+    	calendarDayIndex.put(data, generation);
+    	return Optional.of(data);
+    }
+    
+    /**
+     * @return the keys of the layers of the calendar, from the national layer to the most specific one
+     */
+    private List<String> getLayerKeys(String country, String region, String organisation) {
+    	
+    	List<String> layerKeys = new ArrayList<>();
+    	layerKeys.add(CalendarYearData.key(country, null, null));
+    	if (region != null) {
+    		layerKeys.add(CalendarYearData.key(country, region, null));
+    	}
+    	if (organisation != null) {
+    		layerKeys.add(CalendarYearData.key(country, null, organisation));
+    		if (region != null) {
+    			layerKeys.add(CalendarYearData.key(country, region, organisation));
+    		}
+    	}
+    	return layerKeys;
+    }
+    
+    /**
+     * Loads the layers of the year from the database, with one query for the calendars and one for their holidays
+     * in a single transaction, or from the snapshot when the database is not available.
+     */
+    private List<CalendarYearData> loadLayers(String country, Integer year, List<String> layerKeys) {
+    	
+    	try {
+    		return transactionTemplate.execute(status -> loadLayersFromDatabase(country, year, layerKeys));
+    	} catch (DataAccessException | TransactionException e) {
+    		log.warn("Database not available, reading Year : {}, {} from the snapshot: {}", layerKeys, year, e.getMessage());
+    		return layerKeys.stream()
+    			.map(key -> calendarSnapshotService.find(key, year))
+    			.filter(Optional::isPresent)
+    			.map(Optional::get)
+    			.collect(Collectors.toList());
+    	}
+    }
+    
+    private List<CalendarYearData> loadLayersFromDatabase(String country, Integer year, List<String> layerKeys) {
+    	
+    	Map<String, Calendar> calendars = calendarRepository.findByCountryAndYear(country, year)
+    		.stream()
+    		.collect(Collectors.toMap(c -> CalendarYearData.key(c.getCountry(), c.getRegion(), c.getOrganisation()), 
+    			Function.identity(), (first, second) -> first));
+    	List<Calendar> layerCalendars = layerKeys.stream()
+    		.filter(calendars::containsKey)
+    		.map(calendars::get)
+    		.collect(Collectors.toList());
+    	if (layerCalendars.isEmpty()) {
+    		return Collections.emptyList();
     	}
     	
-		return calendarYear;
+    	Map<Long, List<HolidayEntry>> holidays = holidayRepository.findByCalendarIdInOrderByHolidayDate(
+    			layerCalendars.stream().map(Calendar::getId).collect(Collectors.toList()))
+    		.stream()
+    		.collect(Collectors.groupingBy(h -> h.getCalendar().getId(), 
+    			Collectors.mapping(HolidayEntry::of, Collectors.toList())));
+    	
+    	return layerCalendars.stream()
+    		.map(c -> new CalendarYearData(CalendarYearData.key(c.getCountry(), c.getRegion(), c.getOrganisation()), 
+    			c.getYear(), WeekMask.workingWeek(c.getWeekendMask()), 
+    			holidays.getOrDefault(c.getId(), Collections.emptyList())))
+    		.collect(Collectors.toList());
+    }
+    
+    private CalendarYear buildCalendarYear(String country, String region, String organisation, CalendarYearData data) {
+    	
+    	CalendarYear calendarYear = new CalendarYear();
+    	
+    	calendarYear.setCountry(country);
+    	calendarYear.setRegion(region);
+    	calendarYear.setOrganisation(organisation);
+    	calendarYear.setYear(data.getYear());
+    	calendarYear.setMonths(getMonths(data));
+    	
+    	return calendarYear;
 	}
 
 	/**
@@ -161,7 +356,11 @@ public class CalendarServiceImpl implements CalendarService {
     @Transactional(readOnly = false) 
     public void delete(Long id) {
         log.debug("Request to delete Calendar : {}", id);
+        Calendar calendar = calendarRepository.findOne(id);
         calendarRepository.delete(id);
+        eventPublisher.publishEvent(new CalendarDataChangedEvent(this, "calendar", id, ChangeType.DELETED,
+            calendar == null ? null : CalendarYearData.key(calendar.getCountry(), calendar.getRegion(),
+            	calendar.getOrganisation())));
     }
     
     @Override
@@ -174,12 +373,120 @@ public class CalendarServiceImpl implements CalendarService {
     	
 		return date;
 	}
+    
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+	public Optional<LocalDate> getNextWorkDay(String country, String region, String organisation, Integer pattern, 
+			LocalDate date) {
+    	log.debug("Request to get next work date : {}, {}, {}, {}, {}", country, region, organisation, pattern, date);
+    	
+    	// A calendar with the whole week as its weekend, or a holiday every day, has no next work day
+    	for (int day = 0; day < MAX_NEXT_WORK_DAYS; day++) {    		
+    		date = date.plusDays(1);
+    		if (isWorkingDay(country, region, organisation, pattern, date)) {
+    			return Optional.of(date);
+    		}
+    	}
+    	
+		return Optional.empty();
+	}
+    
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+	public long countWorkingDays(String country, String region, String organisation, Integer pattern, 
+			LocalDate from, LocalDate to) {
+    	log.debug("Request to count working days : {}, {}, {}, {}, {}, {}", country, region, organisation, pattern, from, to);
+    	
+    	long count = 0;
+    	for (int year = from.getYear(); year <= to.getYear(); year++) {
+    		long[] workingDays = getWorkingDays(country, region, organisation, pattern, year);
+    		int first = year == from.getYear() ? from.getDayOfYear() : 1;
+    		int last = year == to.getYear() ? to.getDayOfYear() : Year.of(year).length();
+    		if (first <= last) {
+    			count += DayBitmaps.count(workingDays, first, last);
+    		}
+    	}
+    	return count;
+	}
+    
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+	public List<LocalDate> getWorkingDays(List<String> countries, SetOperation operation, LocalDate from, LocalDate to) {
+    	log.debug("Request to get the {} of working days : {}, {}, {}", operation, countries, from, to);
+    	
+    	List<LocalDate> days = new ArrayList<>();
+    	for (int year = from.getYear(); year <= to.getYear(); year++) {
+    		long[] result = null;
+    		for (String country : countries) {
+    			long[] workingDays = getWorkingDays(country, null, null, null, year);
+    			result = result == null ? workingDays.clone() : operation.apply(result, workingDays);
+    		}
+    		int first = year == from.getYear() ? from.getDayOfYear() : 1;
+    		int last = year == to.getYear() ? to.getDayOfYear() : Year.of(year).length();
+    		if (result != null && first <= last) {
+    			Year current = Year.of(year);
+    			DayBitmaps.forEach(result, first, last, dayOfYear -> days.add(current.atDay(dayOfYear)));
+    		}
+    	}
+    	return days;
+	}
+    
+    private boolean isWorkingDay(String country, String region, String organisation, Integer pattern, LocalDate date) {
+    	
+    	String key = CalendarYearData.key(country, region, organisation);
+    	int dayOfYear = date.getDayOfYear();
+    	return calendarDayIndex.read(key, date.getYear(), 
+    			r -> pattern == null ? r.isWorkingDay(dayOfYear) : r.isWorkingDay(dayOfYear, pattern))
+    		.orElseGet(() -> {
+    			CalendarYearData data = indexYear(country, region, organisation, date.getYear());
+    			return pattern == null ? data.isWorkingDay(date) : data.isWorkingDay(date, pattern);
+    		});
+    }
+    
+    private long[] getWorkingDays(String country, String region, String organisation, Integer pattern, int year) {
+    	
+    	String key = CalendarYearData.key(country, region, organisation);
+    	return calendarDayIndex.read(key, year, r -> pattern == null ? r.getWorkingDays() : r.getWorkingDays(pattern))
+    		.orElseGet(() -> {
+    			CalendarYearData data = indexYear(country, region, organisation, year);
+    			return pattern == null ? data.getWorkingDays() : data.getWorkingDays(pattern);
+    		});
+    }
+    
+    private CalendarYearData indexYear(String country, String region, String organisation, int year) {
+    	
+    	// Years with a calendar are indexed as they are loaded, the ones without only have the weekends of the
+    	// country off and are not indexed, so that looking up arbitrary keys and years can not fill the index
+    	// An unknown region or organisation has the days of the country
+    	return loadCalendarYearData(country, region, organisation, year)
+    		.orElseGet(() -> region != null || organisation != null 
+    			? indexYear(country, null, null, year)
+    			: new CalendarYearData(CalendarYearData.key(country, region, organisation), year, 
+    				getWorkingWeek(country), Collections.emptyList()));
+    }
+    
+    /**
+     * @return the working week of the latest national calendar of the country, Monday to Friday for a country
+     * without calendar or when the database is not available
+     */
+    private int getWorkingWeek(String country) {
+    	
+    	try {
+    		Calendar calendar = transactionTemplate.execute(status -> 
+    			calendarRepository.findFirstByCountryAndRegionIsNullAndOrganisationIsNullOrderByYearDesc(country));
+    		return calendar == null ? WeekMask.MONDAY_TO_FRIDAY : WeekMask.workingWeek(calendar.getWeekendMask());
+    	} catch (DataAccessException | TransactionException e) {
+    		log.warn("Database not available, Monday to Friday is the working week of : {}", country);
+    		return WeekMask.MONDAY_TO_FRIDAY;
+    	}
+    }
 
 	@Override
 	public List<Calendar> findUniqueCountryCalendar() {
 		
 		return calendarRepository.findAll()
 				.stream()
+				.filter(c -> c.getRegion() == null && c.getOrganisation() == null)
 				.filter(distinctByKey(c -> c.getCountry()))
 				.collect(Collectors.toList());
 	}
@@ -189,22 +496,22 @@ public class CalendarServiceImpl implements CalendarService {
 	    return t -> seen.putIfAbsent(keyExtractor.apply(t), Boolean.TRUE) == null;
 	}
 
-	private List<CalendarMonth> getMonths(Integer year) {
+	private List<CalendarMonth> getMonths(CalendarYearData data) {
     	
     	List<CalendarMonth> months = new ArrayList<>();
     	
-    	LocalDate startDate = LocalDate.of(year, Month.JANUARY, 1);
-    	LocalDate endDate = LocalDate.of(year, Month.DECEMBER, 31);
+    	LocalDate startDate = LocalDate.of(data.getYear(), Month.JANUARY, 1);
+    	LocalDate endDate = LocalDate.of(data.getYear(), Month.DECEMBER, 31);
     	
     	do {    		
-    		months.add(getMonth(startDate));
+    		months.add(getMonth(data, startDate));
     		startDate = startDate.plusMonths(1);    		
     	} while (startDate.isBefore(endDate));
     	    	    	
     	return months;
     }
     
-    private CalendarMonth getMonth(LocalDate monthStartDate) {
+    private CalendarMonth getMonth(CalendarYearData data, LocalDate monthStartDate) {
     	
     	CalendarMonth month = new CalendarMonth();
     	
@@ -212,7 +519,7 @@ public class CalendarServiceImpl implements CalendarService {
     	LocalDate nextWeek = monthStartDate;
     	
     	while(monthStartDate.getMonth() == nextWeek.getMonth()) {
-    		CalendarWeek week = getWeek(nextWeek);
+    		CalendarWeek week = getWeek(data, nextWeek);
     		month.getWeeks().add(week);
     		nextWeek = nextWeek.plusDays(week.getDays().size());
     	}
@@ -220,7 +527,7 @@ public class CalendarServiceImpl implements CalendarService {
     	return month;
     }
     
-    private CalendarWeek getWeek(LocalDate weekStartDate) {
+    private CalendarWeek getWeek(CalendarYearData data, LocalDate weekStartDate) {
     	
     	CalendarWeek week = new CalendarWeek();
     	
@@ -231,7 +538,7 @@ public class CalendarServiceImpl implements CalendarService {
     	week.setOrdinal(weekOfYear);
     	
     	while((week.getOrdinal() == weekOfYear) && (weekStartDate.getMonth() == nextDay.getMonth())) {     		
-    		week.getDays().add(getDay(nextDay));
+    		week.getDays().add(getDay(data, nextDay));
     		nextDay = nextDay.plusDays(1);
     		weekOfYear = nextDay.get(WeekFields.ISO.weekOfYear());
     	}
@@ -239,22 +546,22 @@ public class CalendarServiceImpl implements CalendarService {
     	return week;
     }
     
-    private CalendarDay getDay(LocalDate date) {
+    private CalendarDay getDay(CalendarYearData data, LocalDate date) {
     	
     	CalendarDay calendarDay = new CalendarDay();    		
     	
     	calendarDay.setDate(date);
     	calendarDay.setDayOfWeek(date.getDayOfWeek());    	
-    	setDayType(calendarDay, date);
+    	setDayType(data, calendarDay, date);
     	
     	return calendarDay;
     }
     
-    private void setDayType(CalendarDay calendarDay, LocalDate date) {
+    private void setDayType(CalendarYearData data, CalendarDay calendarDay, LocalDate date) {
     	
-    	Optional<Holiday> holiday = holidayRepository.findByHolidayDate(date);
+    	Optional<HolidayEntry> holiday = data.getHoliday(date);
     	
-    	if(isWeekEnd(date))
+    	if(data.isWeekEnd(date))
     		calendarDay.setDayType(DayType.WEEKEND);
     	else if(holiday.isPresent()) {
     		holiday.ifPresent(h -> {
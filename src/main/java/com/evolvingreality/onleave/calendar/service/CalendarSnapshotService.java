@@ -0,0 +1,199 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.evolvingreality.onleave.calendar.config.JHipsterProperties;
+import com.evolvingreality.onleave.calendar.config.ReplicaRoutingDataSource;
+import com.evolvingreality.onleave.calendar.domain.Calendar;
+import com.evolvingreality.onleave.calendar.repository.CalendarRepository;
+import com.evolvingreality.onleave.calendar.repository.HolidayRepository;
+import com.evolvingreality.onleave.calendar.service.index.CalendarSnapshot;
+import com.evolvingreality.onleave.calendar.service.index.CalendarYearData;
+import com.evolvingreality.onleave.calendar.service.index.HolidayEntry;
+import com.evolvingreality.onleave.calendar.service.index.WeekMask;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StopWatch;
+
+/**
+ * Keeps a memory-mapped {@link CalendarSnapshot} of every calendar year on disk.
+ * <p>
+ * The existing snapshot is mapped as soon as the bean is created, so calendar years can be read from it
+ * while the database is not usable yet (asynchronous Liquibase, pool not connected) or is down. The
+ * snapshot is rewritten once the application is ready and after every committed calendar or holiday change, made
+ * on this instance or, received on the {@link CalendarChangeStream#CALENDAR_CHANGES_TOPIC} topic, on another one.
+ */
+@Service
+public class CalendarSnapshotService {
+
+    private final Logger log = LoggerFactory.getLogger(CalendarSnapshotService.class);
+
+    private final CalendarRepository calendarRepository;
+
+    private final HolidayRepository holidayRepository;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final TaskExecutor taskExecutor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
+    private final Meter skipped;
+
+    private volatile CalendarSnapshot snapshot;
+
+    @Inject
+    public CalendarSnapshotService(final CalendarRepository calendarRepository, final HolidayRepository holidayRepository,
+                                   final JHipsterProperties jHipsterProperties,
+                                   @Qualifier("taskExecutor") final TaskExecutor taskExecutor,
+                                   final PlatformTransactionManager transactionManager,
+                                   final MetricRegistry metricRegistry,
+                                   final HazelcastInstance hazelcastInstance) {
+        this.calendarRepository = calendarRepository;
+        this.holidayRepository = holidayRepository;
+        this.jHipsterProperties = jHipsterProperties;
+        this.taskExecutor = taskExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setName(ReplicaRoutingDataSource.PRIMARY);
+        this.skipped = metricRegistry.meter(MetricRegistry.name(CalendarSnapshotService.class, "skipped"));
+        ITopic<CalendarChangeMessage> topic = hazelcastInstance.getTopic(CalendarChangeStream.CALENDAR_CHANGES_TOPIC);
+        topic.addMessageListener(message -> {
+            if (!message.getPublishingMember().localMember()) {
+                log.debug("Rewriting calendar snapshot after {}", message.getMessageObject());
+                scheduleWrite();
+            }
+        });
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            log.debug("Calendar snapshot is disabled");
+            return;
+        }
+        Path path = getPath();
+        if (Files.exists(path)) {
+            try {
+                StopWatch watch = new StopWatch();
+                watch.start();
+                snapshot = CalendarSnapshot.map(path);
+                watch.stop();
+                log.info("Mapped calendar snapshot {} of {} calendar years in {} ms", path, snapshot.size(),
+                    watch.getTotalTimeMillis());
+            } catch (IOException e) {
+                log.warn("Could not map calendar snapshot {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param key the key of the calendar layer, see {@link CalendarYearData#key}
+     * @param year the year of the calendar
+     * @return the calendar layer year read from the snapshot, if any
+     */
+    public Optional<CalendarYearData> find(String key, Integer year) {
+        CalendarSnapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return current.find(key, year);
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        scheduleWrite();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+        log.debug("Rewriting calendar snapshot after {}", event);
+        scheduleWrite();
+    }
+
+    /**
+     * Rewrites the snapshot on the task executor. Changes made while a write is scheduled are picked up by it.
+     */
+    public void scheduleWrite() {
+        if (isEnabled() && writeScheduled.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> {
+                writeScheduled.set(false);
+                write();
+            });
+        }
+    }
+
+    protected synchronized void write() {
+        Path path = getPath();
+        try {
+            List<CalendarYearData> calendars = transactionTemplate.execute(status -> loadCalendars());
+            CalendarSnapshot.write(path, calendars);
+            snapshot = CalendarSnapshot.map(path);
+            log.debug("Wrote calendar snapshot {} of {} calendar years", path, calendars.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write calendar snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private List<CalendarYearData> loadCalendars() {
+        Map<Long, List<HolidayEntry>> holidays = holidayRepository.findAllWithCalendar()
+            .stream()
+            .collect(Collectors.groupingBy(h -> h.getCalendar().getId(),
+                Collectors.mapping(HolidayEntry::of, Collectors.toList())));
+
+        return calendarRepository.findAll()
+            .stream()
+            .filter(this::fits)
+            .map(c -> new CalendarYearData(getKey(c), c.getYear(), WeekMask.workingWeek(c.getWeekendMask()),
+                holidays.getOrDefault(c.getId(), Collections.emptyList())))
+            .collect(Collectors.toList());
+    }
+
+    private boolean fits(Calendar calendar) {
+        if (CalendarSnapshot.fits(getKey(calendar))) {
+            return true;
+        }
+        log.warn("Calendar {} can not be stored in the snapshot, its key is too long", calendar);
+        skipped.mark();
+        return false;
+    }
+
+    private String getKey(Calendar calendar) {
+        return CalendarYearData.key(calendar.getCountry(), calendar.getRegion(), calendar.getOrganisation());
+    }
+
+    private boolean isEnabled() {
+        return jHipsterProperties.getCache().getSnapshot().isEnabled();
+    }
+
+    private Path getPath() {
+        return Paths.get(jHipsterProperties.getCache().getSnapshot().getPath());
+    }
+}
@@ -0,0 +1,34 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import javax.inject.Inject;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the instance OUT_OF_SERVICE until the {@link CalendarWarmUpService} has finished.
+ * <p>
+ * With {@code eureka.client.healthcheck.enabled} the status is propagated to Eureka, so clients only
+ * route to the instance once its caches are warm.
+ */
+@Component
+public class CalendarWarmUpHealthIndicator extends AbstractHealthIndicator {
+
+    private final CalendarWarmUpService calendarWarmUpService;
+
+    @Inject
+    public CalendarWarmUpHealthIndicator(final CalendarWarmUpService calendarWarmUpService) {
+        this.calendarWarmUpService = calendarWarmUpService;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) throws Exception {
+        if (calendarWarmUpService.isWarm()) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+        builder.withDetail("state", calendarWarmUpService.getState());
+    }
+}
@@ -0,0 +1,125 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.evolvingreality.onleave.calendar.async.TaskLanes;
+import com.evolvingreality.onleave.calendar.config.JHipsterProperties;
+import com.evolvingreality.onleave.calendar.domain.Calendar;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StopWatch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Warms the calendar caches and the JIT once the application is ready.
+ * <p>
+ * The calendars of every country for the current and the next year are built and cached, then the hot
+ * read paths (cached year lookups, JSON serialization and next work day) are exercised a number of times
+ * so they are compiled before real traffic arrives. Until the warm-up has finished the
+ * {@link CalendarWarmUpHealthIndicator} keeps the instance OUT_OF_SERVICE in Eureka.
+ */
+@Service
+public class CalendarWarmUpService implements ApplicationListener<ApplicationReadyEvent> {
+
+    public enum State {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        DISABLED
+    }
+
+    private final Logger log = LoggerFactory.getLogger(CalendarWarmUpService.class);
+
+    private final CalendarService calendarService;
+
+    private final ObjectMapper objectMapper;
+
+    private final TaskExecutor taskExecutor;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private volatile State state = State.PENDING;
+
+    @Inject
+    public CalendarWarmUpService(final CalendarService calendarService, final ObjectMapper objectMapper,
+                                 final TaskLanes taskLanes,
+                                 final JHipsterProperties jHipsterProperties) {
+        this.calendarService = calendarService;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskLanes.get(TaskLanes.WARM_UP);
+        this.jHipsterProperties = jHipsterProperties;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!jHipsterProperties.getCache().getWarmUp().isEnabled()) {
+            log.debug("Calendar warm-up is disabled");
+            state = State.DISABLED;
+            return;
+        }
+        state = State.RUNNING;
+        taskExecutor.execute(this::warmUp);
+    }
+
+    /**
+     * @return true once the instance can take traffic, whether the warm-up succeeded, failed or is disabled
+     */
+    public boolean isWarm() {
+        return state != State.PENDING && state != State.RUNNING;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    protected void warmUp() {
+        StopWatch watch = new StopWatch();
+        watch.start();
+        try {
+            List<Calendar> calendars = calendarService.findUniqueCountryCalendar();
+            int currentYear = LocalDate.now().getYear();
+
+            log.info("Warming up calendars of {} countries for {} and {}", calendars.size(), currentYear, currentYear + 1);
+            for (Calendar calendar : calendars) {
+                calendarService.getCalendarYear(calendar.getCountry(), currentYear);
+                calendarService.getCalendarYear(calendar.getCountry(), currentYear + 1);
+                calendarService.getPaddedCalendarYear(calendar.getCountry(), currentYear);
+                calendarService.getPaddedCalendarYear(calendar.getCountry(), currentYear + 1);
+            }
+
+            int iterations = jHipsterProperties.getCache().getWarmUp().getJitIterations();
+            for (int i = 0; i < iterations; i++) {
+                for (Calendar calendar : calendars) {
+                    serialize(calendarService.getCalendarYear(calendar.getCountry(), currentYear));
+                    serialize(calendarService.getPaddedCalendarYear(calendar.getCountry(), currentYear));
+                }
+                calendarService.getNextWorkDay(LocalDate.now().plusDays(i % 366));
+            }
+
+            watch.stop();
+            state = State.COMPLETED;
+            log.info("Calendar warm-up completed in {} ms", watch.getTotalTimeMillis());
+        } catch (Exception e) {
+            // Never keep the instance out of service because of the warm-up, it only costs latency
+            state = State.FAILED;
+            log.warn("Calendar warm-up failed, the instance will serve cold: {}", e.getMessage(), e);
+        }
+    }
+
+    private void serialize(Optional<?> value) throws Exception {
+        if (value.isPresent()) {
+            objectMapper.writeValueAsBytes(value.get());
+        }
+    }
+}
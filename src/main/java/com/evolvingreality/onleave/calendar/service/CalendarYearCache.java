@@ -0,0 +1,288 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.evolvingreality.onleave.calendar.async.TaskLanes;
+import com.evolvingreality.onleave.calendar.config.CacheConfiguration;
+import com.evolvingreality.onleave.calendar.config.JHipsterProperties;
+import com.evolvingreality.onleave.calendar.config.ReplicaRoutingDataSource;
+import com.evolvingreality.onleave.calendar.domain.CalendarYear;
+
+import java.io.Serializable;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IAtomicLong;
+import com.hazelcast.core.IMap;
+
+/**
+ * Cache of {@link CalendarYear} trees with single-flight loading.
+ * <p>
+ * On a miss only one computation runs per key: concurrent callers on the same node wait for the
+ * in-flight computation, and nodes of the cluster serialize on a Hazelcast lock of the key in the
+ * cache map, re-checking the cache once they hold it. Calls coalesced locally and across the cluster
+ * are reported as meters.
+ * <p>
+ * Entries have a soft and a hard time to live. The hard one is the TTL of the Hazelcast map, past it
+ * the year is gone and is loaded synchronously. Between the two the cached year is served immediately
+ * while it is refreshed in the background on the task executor.
+ * <p>
+ * Both calendar year caches are cleared once a calendar or holiday change is committed, not before, and every
+ * clear increments a cluster-wide generation. A loaded year is cached and then dropped again if the generation
+ * changed since its load started, so that a year loaded from the data before a change is not kept after it.
+ */
+@Component
+public class CalendarYearCache {
+
+    public static final String GENERATION = "calendar-year-cache-generation";
+
+    private final Logger log = LoggerFactory.getLogger(CalendarYearCache.class);
+
+    private final ConcurrentMap<String, CompletableFuture<Optional<CalendarYear>>> inFlight = new ConcurrentHashMap<>();
+
+    private final CacheManager cacheManager;
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final IAtomicLong generation;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final TaskExecutor taskExecutor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Meter loads;
+
+    private final Meter refreshes;
+
+    private final Meter coalesced;
+
+    private final Meter clusterCoalesced;
+
+    @Inject
+    public CalendarYearCache(final CacheManager cacheManager, final HazelcastInstance hazelcastInstance,
+                             final JHipsterProperties jHipsterProperties, final MetricRegistry metricRegistry,
+                             final TaskLanes taskLanes,
+                             final PlatformTransactionManager transactionManager) {
+        this.cacheManager = cacheManager;
+        this.hazelcastInstance = hazelcastInstance;
+        this.generation = hazelcastInstance.getAtomicLong(GENERATION);
+        this.jHipsterProperties = jHipsterProperties;
+        this.taskExecutor = taskLanes.get(TaskLanes.REFRESH);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setName(ReplicaRoutingDataSource.PRIMARY);
+        this.loads = metricRegistry.meter(MetricRegistry.name(CalendarYearCache.class, "loads"));
+        this.refreshes = metricRegistry.meter(MetricRegistry.name(CalendarYearCache.class, "refreshes"));
+        this.coalesced = metricRegistry.meter(MetricRegistry.name(CalendarYearCache.class, "coalesced"));
+        this.clusterCoalesced = metricRegistry.meter(MetricRegistry.name(CalendarYearCache.class, "coalesced", "cluster"));
+    }
+
+    /**
+     * Gets the year from the given cache, loading it at most once per key on a miss. Missing calendars are not cached.
+     *
+     * @param cacheName the name of the cache
+     * @param calendarKey the calendar key, see {@link com.evolvingreality.onleave.calendar.service.index.CalendarYearData#key}
+     * @param year the year of the calendar
+     * @param loader builds the year on a miss
+     * @return the cached or loaded year
+     */
+    public Optional<CalendarYear> get(String cacheName, String calendarKey, Integer year, Supplier<Optional<CalendarYear>> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        String key = calendarKey + ":" + year;
+
+        CachedCalendarYear cached = cache.get(key, CachedCalendarYear.class);
+        if (cached != null) {
+            if (isStale(cached)) {
+                refreshInBackground(cacheName, cache, key, loader);
+            }
+            return Optional.of(cached.getCalendarYear());
+        }
+
+        String flightKey = cacheName + "/" + key;
+        CompletableFuture<Optional<CalendarYear>> flight = new CompletableFuture<>();
+        CompletableFuture<Optional<CalendarYear>> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            coalesced.mark();
+            return await(existing);
+        }
+
+        try {
+            Optional<CalendarYear> calendarYear = loadExclusively(cacheName, cache, key, loader);
+            flight.complete(calendarYear);
+            return calendarYear;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private Optional<CalendarYear> loadExclusively(String cacheName, Cache cache, String key,
+                                                   Supplier<Optional<CalendarYear>> loader) {
+        IMap<Object, Object> map = hazelcastInstance.getMap(cacheName);
+        boolean locked = false;
+        try {
+            locked = map.tryLock(key, jHipsterProperties.getCache().getLoadLockTimeoutSeconds(), TimeUnit.SECONDS);
+            if (!locked) {
+                log.warn("Could not lock {} in {}, loading it without coalescing", key, cacheName);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            if (locked) {
+                // Another node may have loaded the year while we waited for the lock
+                CachedCalendarYear cached = cache.get(key, CachedCalendarYear.class);
+                if (cached != null) {
+                    clusterCoalesced.mark();
+                    return Optional.of(cached.getCalendarYear());
+                }
+            }
+            loads.mark();
+            long loadGeneration = generation.get();
+            Optional<CalendarYear> calendarYear = loader.get();
+            calendarYear.ifPresent(c -> put(cache, key, c, loadGeneration));
+            return calendarYear;
+        } finally {
+            if (locked) {
+                map.unlock(key);
+            }
+        }
+    }
+
+    private void refreshInBackground(String cacheName, Cache cache, String key, Supplier<Optional<CalendarYear>> loader) {
+        String flightKey = cacheName + "/" + key;
+        if (!refreshing.add(flightKey)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    refresh(cacheName, cache, key, loader);
+                } finally {
+                    refreshing.remove(flightKey);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            refreshing.remove(flightKey);
+            log.debug("Refresh of {} in {} rejected, serving the stale year", key, cacheName);
+        }
+    }
+
+    private void refresh(String cacheName, Cache cache, String key, Supplier<Optional<CalendarYear>> loader) {
+        IMap<Object, Object> map = hazelcastInstance.getMap(cacheName);
+        // Another node holding the lock is already loading or refreshing the year
+        if (!map.tryLock(key)) {
+            return;
+        }
+        try {
+            CachedCalendarYear cached = cache.get(key, CachedCalendarYear.class);
+            if (cached != null && !isStale(cached)) {
+                return;
+            }
+            refreshes.mark();
+            long loadGeneration = generation.get();
+            Optional<CalendarYear> calendarYear = transactionTemplate.execute(status -> loader.get());
+            if (calendarYear.isPresent()) {
+                put(cache, key, calendarYear.get(), loadGeneration);
+            } else {
+                cache.evict(key);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh {} in {}: {}", key, cacheName, e.getMessage());
+        } finally {
+            map.unlock(key);
+        }
+    }
+
+    /**
+     * Caches the year, unless the caches were cleared since it started loading.
+     */
+    private void put(Cache cache, String key, CalendarYear calendarYear, long loadGeneration) {
+        cache.put(key, new CachedCalendarYear(calendarYear));
+        // A clear after this check removes the year anyway
+        if (generation.get() != loadGeneration) {
+            log.debug("Dropping {}, loaded before a change", key);
+            cache.evict(key);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarDataChanged(CalendarDataChangedEvent event) {
+        log.debug("Clearing the calendar year caches after {}", event);
+        generation.incrementAndGet();
+        cacheManager.getCache(CacheConfiguration.CALENDAR_YEAR_CACHE).clear();
+        cacheManager.getCache(CacheConfiguration.PADDED_CALENDAR_YEAR_CACHE).clear();
+    }
+
+    private boolean isStale(CachedCalendarYear cached) {
+        long softTimeToLive = TimeUnit.SECONDS.toMillis(jHipsterProperties.getCache().getSoftTimeToLiveSeconds());
+        return softTimeToLive > 0 && System.currentTimeMillis() - cached.getLoadedAt() > softTimeToLive;
+    }
+
+    private Optional<CalendarYear> await(CompletableFuture<Optional<CalendarYear>> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A cached year with the time it was loaded, to tell fresh from stale entries.
+     */
+    static class CachedCalendarYear implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CalendarYear calendarYear;
+
+        private final long loadedAt;
+
+        CachedCalendarYear(CalendarYear calendarYear) {
+            this(calendarYear, System.currentTimeMillis());
+        }
+
+        CachedCalendarYear(CalendarYear calendarYear, long loadedAt) {
+            this.calendarYear = calendarYear;
+            this.loadedAt = loadedAt;
+        }
+
+        CalendarYear getCalendarYear() {
+            return calendarYear;
+        }
+
+        long getLoadedAt() {
+            return loadedAt;
+        }
+    }
+}
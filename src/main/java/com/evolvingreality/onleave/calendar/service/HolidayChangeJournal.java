@@ -0,0 +1,54 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.evolvingreality.onleave.calendar.domain.HolidayChange;
+import com.evolvingreality.onleave.calendar.repository.HolidayChangeRepository;
+import com.evolvingreality.onleave.calendar.repository.HolidayRepository;
+
+import java.util.Collections;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Journal of the holiday change feed, written in the transaction of the changes.
+ * <p>
+ * Each change takes the next version of the holiday data from the single row of {@code holiday_change_version},
+ * which stays locked until the transaction ends. Concurrent changes therefore commit in version order and a client
+ * that has read a version can not miss a lower one committed after it. Changes are journaled last in their
+ * transaction, to hold the lock as briefly as possible.
+ */
+@Component
+public class HolidayChangeJournal {
+
+    private final HolidayChangeRepository holidayChangeRepository;
+
+    private final HolidayRepository holidayRepository;
+
+    @Inject
+    public HolidayChangeJournal(final HolidayChangeRepository holidayChangeRepository,
+                                final HolidayRepository holidayRepository) {
+        this.holidayChangeRepository = holidayChangeRepository;
+        this.holidayRepository = holidayRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long holidayId, Long calendarId, HolidayChange.ChangeType changeType) {
+        holidayChangeRepository.incrementVersion();
+        HolidayChange change = new HolidayChange(holidayId, calendarId, changeType);
+        change.setVersion(holidayChangeRepository.findVersion().longValue());
+        holidayChangeRepository.save(change);
+    }
+
+    /**
+     * Records an update of every holiday of the calendar, as the country, region and organisation of a calendar are
+     * part of its holidays in the feed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCalendarChange(Long calendarId) {
+        holidayRepository.findByCalendarIdInOrderByHolidayDate(Collections.singleton(calendarId))
+            .forEach(h -> record(h.getId(), calendarId, HolidayChange.ChangeType.UPDATED));
+    }
+}
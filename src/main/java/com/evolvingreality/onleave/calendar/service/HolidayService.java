@@ -1,8 +1,17 @@
 package com.evolvingreality.onleave.calendar.service;
 
 import com.evolvingreality.onleave.calendar.domain.Holiday;
+import com.evolvingreality.onleave.calendar.service.index.IndexedHoliday;
+import com.evolvingreality.onleave.calendar.web.rest.dto.HolidayChangeDTO;
+import com.evolvingreality.onleave.calendar.web.rest.dto.HolidayDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
 
 
 
@@ -27,6 +36,23 @@ public interface HolidayService {
      */
     Page<Holiday> findAll(Pageable pageable);
 
+    /**
+     *  Get the holidays in date then id order after a holiday, without counting them.
+     *  
+     *  @param holidayDate the date of the last holiday read, or null for the first holidays
+     *  @param id the id of the last holiday read, or null for the first holidays
+     *  @param size the maximum number of holidays
+     *  @return the holidays, and whether there are more
+     */
+    Slice<Holiday> findAllAfter(LocalDate holidayDate, Long id, int size);
+
+    /**
+     *  Count the holidays.
+     *  
+     *  @return the number of holidays
+     */
+    long count();
+
     /**
      *  Get the "id" holiday.
      *  
@@ -35,6 +61,52 @@ public interface HolidayService {
      */
     Holiday findOne(Long id);
 
+    /**
+     *  Get the holidays of a country between two dates.
+     *  
+     *  @param country the country code
+     *  @param from the first date, included
+     *  @param to the last date, included
+     *  @return the holidays of the national, regional and organisation calendars of the country, in date order
+     */
+    List<HolidayDTO> findByCountry(String country, LocalDate from, LocalDate to);
+
+    /**
+     *  Get the holiday changes after a version of the holiday data, each with the current state of its holiday.
+     *  
+     *  @param version the last version read, 0 for all the changes
+     *  @param size the maximum number of changes
+     *  @return the changes in version order, and whether there are more
+     */
+    Slice<HolidayChangeDTO> findChanges(long version, int size);
+
+    /**
+     *  Get the calendars with a holiday on a date.
+     *  
+     *  @param date the date
+     *  @return the keys of the calendars, the country code for national calendars
+     */
+    List<String> findCalendarsOnHoliday(LocalDate date);
+
+    /**
+     *  Get the calendars with a holiday on each day of a range.
+     *  
+     *  @param from the first date, included
+     *  @param to the last date, included
+     *  @return the keys of the calendars for each day with at least one holiday, in date order
+     */
+    SortedMap<LocalDate, List<String>> findCalendarsOnHoliday(LocalDate from, LocalDate to);
+
+    /**
+     *  Get the next holidays from a date, across all the calendars or the calendars of some countries.
+     *  
+     *  @param from the first date, included
+     *  @param limit the maximum number of holidays
+     *  @param countries the country codes, or empty for all the countries
+     *  @return the holidays in date order
+     */
+    List<IndexedHoliday> findUpcomingHolidays(LocalDate from, int limit, Set<String> countries);
+
     /**
      *  Delete the "id" holiday.
      *  
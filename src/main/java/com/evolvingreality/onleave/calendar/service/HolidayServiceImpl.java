@@ -1,15 +1,37 @@
 package com.evolvingreality.onleave.calendar.service;
 
+import com.evolvingreality.onleave.calendar.domain.Calendar;
 import com.evolvingreality.onleave.calendar.domain.Holiday;
+import com.evolvingreality.onleave.calendar.domain.HolidayChange;
+import com.evolvingreality.onleave.calendar.repository.HolidayChangeRepository;
 import com.evolvingreality.onleave.calendar.repository.HolidayRepository;
+import com.evolvingreality.onleave.calendar.service.CalendarDataChangedEvent.ChangeType;
+import com.evolvingreality.onleave.calendar.service.index.CalendarYearData;
+import com.evolvingreality.onleave.calendar.service.index.IndexedHoliday;
+import com.evolvingreality.onleave.calendar.web.rest.dto.HolidayChangeDTO;
+import com.evolvingreality.onleave.calendar.web.rest.dto.HolidayDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 
 /**
  * Service Implementation for managing Holiday.
@@ -22,9 +44,23 @@ public class HolidayServiceImpl implements HolidayService{
     
     private final HolidayRepository holidayRepository;
     
+    private final HolidayChangeRepository holidayChangeRepository;
+    
+    private final HolidayChangeJournal holidayChangeJournal;
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final CalendarHolidayIndex calendarHolidayIndex;
+    
     @Autowired
-    public HolidayServiceImpl(final HolidayRepository holidayRepository) {
+    public HolidayServiceImpl(final HolidayRepository holidayRepository,
+    		final HolidayChangeRepository holidayChangeRepository, final HolidayChangeJournal holidayChangeJournal,
+    		final ApplicationEventPublisher eventPublisher, final CalendarHolidayIndex calendarHolidayIndex) {
     	this.holidayRepository = holidayRepository;
+    	this.holidayChangeRepository = holidayChangeRepository;
+    	this.holidayChangeJournal = holidayChangeJournal;
+    	this.eventPublisher = eventPublisher;
+    	this.calendarHolidayIndex = calendarHolidayIndex;
     }
     
     /**
@@ -36,7 +72,14 @@ public class HolidayServiceImpl implements HolidayService{
     @Transactional(readOnly = false)
     public Holiday save(Holiday holiday) {
         log.debug("Request to save Holiday : {}", holiday);
-        return holidayRepository.save(holiday);       
+        HolidayChange.ChangeType changeType = holiday.getId() == null ? HolidayChange.ChangeType.CREATED
+            : HolidayChange.ChangeType.UPDATED;
+        Holiday result = holidayRepository.save(holiday);
+        holidayChangeJournal.record(result.getId(), result.getCalendar() == null ? null : result.getCalendar().getId(),
+            changeType);
+        eventPublisher.publishEvent(new CalendarDataChangedEvent(this, "holiday", result.getId(), ChangeType.SAVED,
+            getCalendarKey(result.getCalendar())));
+        return result;
     }
 
     /**
@@ -50,6 +93,19 @@ public class HolidayServiceImpl implements HolidayService{
         return holidayRepository.findAll(pageable); 
     }
 
+    @Override
+    public Slice<Holiday> findAllAfter(LocalDate holidayDate, Long id, int size) {
+        log.debug("Request to get Holidays after : {}, {}", holidayDate, id);
+        Pageable pageable = new PageRequest(0, size);
+        return holidayDate == null || id == null ? holidayRepository.findAllOrderByDate(pageable)
+            : holidayRepository.findAllOrderByDateAfter(holidayDate, id, pageable);
+    }
+
+    @Override
+    public long count() {
+        return holidayRepository.count();
+    }
+
     /**
      *  Get one holiday by id.
      *
@@ -61,6 +117,53 @@ public class HolidayServiceImpl implements HolidayService{
         return holidayRepository.findOne(id);
     }
 
+    @Override
+    public List<HolidayDTO> findByCountry(String country, LocalDate from, LocalDate to) {
+        log.debug("Request to get Holidays : {}, {}, {}", country, from, to);
+        return holidayRepository.findAllByCountry(country, from.getYear(), to.getYear(), from, to);
+    }
+
+    @Override
+    public Slice<HolidayChangeDTO> findChanges(long version, int size) {
+        log.debug("Request to get Holiday changes after : {}", version);
+        Slice<HolidayChange> changes = holidayChangeRepository.findByVersionGreaterThanOrderByVersion(version,
+            new PageRequest(0, size));
+        List<Long> ids = changes.getContent().stream()
+            .filter(c -> c.getChangeType() != HolidayChange.ChangeType.DELETED)
+            .map(HolidayChange::getHolidayId)
+            .distinct()
+            .collect(Collectors.toList());
+        Map<Long, HolidayDTO> holidays = ids.isEmpty() ? Collections.emptyMap()
+            : holidayRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(HolidayDTO::getId, Function.identity()));
+        List<HolidayChangeDTO> content = changes.getContent().stream()
+            .map(c -> new HolidayChangeDTO(c.getVersion(), c.getChangeType(), c.getHolidayId(),
+                c.getChangeType() == HolidayChange.ChangeType.DELETED ? null : holidays.get(c.getHolidayId())))
+            .collect(Collectors.toList());
+        return new SliceImpl<>(content, new PageRequest(0, size), changes.hasNext());
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<String> findCalendarsOnHoliday(LocalDate date) {
+        log.debug("Request to get Calendars on holiday : {}", date);
+        return calendarHolidayIndex.read(index -> index.getCalendarsOn(date));
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public SortedMap<LocalDate, List<String>> findCalendarsOnHoliday(LocalDate from, LocalDate to) {
+        log.debug("Request to get Calendars on holiday : {}, {}", from, to);
+        return calendarHolidayIndex.read(index -> index.getCalendarsByDayBetween(from, to));
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<IndexedHoliday> findUpcomingHolidays(LocalDate from, int limit, Set<String> countries) {
+        log.debug("Request to get upcoming Holidays : {}, {}, {}", from, limit, countries);
+        return calendarHolidayIndex.read(index -> index.getNext(from, limit, countries));
+    }
+
     /**
      *  Delete the  holiday by id.
      *  
@@ -69,6 +172,16 @@ public class HolidayServiceImpl implements HolidayService{
     @Transactional(readOnly = false)
     public void delete(Long id) {
         log.debug("Request to delete Holiday : {}", id);
+        Holiday holiday = holidayRepository.findOne(id);
         holidayRepository.delete(id);
+        holidayChangeJournal.record(id, holiday == null || holiday.getCalendar() == null ? null : holiday.getCalendar().getId(),
+            HolidayChange.ChangeType.DELETED);
+        eventPublisher.publishEvent(new CalendarDataChangedEvent(this, "holiday", id, ChangeType.DELETED,
+            holiday == null ? null : getCalendarKey(holiday.getCalendar())));
+    }
+
+    private String getCalendarKey(Calendar calendar) {
+        return calendar == null || calendar.getCountry() == null ? null
+            : CalendarYearData.key(calendar.getCountry(), calendar.getRegion(), calendar.getOrganisation());
     }
 }
@@ -0,0 +1,269 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only, memory-mapped binary snapshot of every calendar year, each layer of a calendar in its own record.
+ * <p>
+ * The file is laid out as:
+ * <ul>
+ *     <li>a {@value #HEADER_SIZE} bytes header: magic, version, write time and the section sizes</li>
+ *     <li>fixed-width {@value #RECORD_SIZE} bytes year records: calendar key, year, holiday count, index of
+ *     the first holiday, the working days bitmap, the working days of the week and 7 reserved bytes. A key longer
+ *     than {@value #KEY_SIZE} bytes is stored in the string table, the record holding {@value #LONG_KEY}, which never
+ *     starts a UTF-8 sequence, and the offset of the key as an int at byte 4</li>
+ *     <li>fixed-width {@value #HOLIDAY_SIZE} bytes holidays: day of year and offsets of the name and
+ *     description in the string table</li>
+ *     <li>the string table, each string being its UTF-8 length as a short followed by its bytes</li>
+ * </ul>
+ * Only the record lookup table lives on the heap, everything else is read from the mapping on demand.
+ */
+public final class CalendarSnapshot {
+
+    static final int MAGIC = 0x43414C53;
+
+    static final int VERSION = 4;
+
+    static final int HEADER_SIZE = 32;
+
+    static final int KEY_SIZE = 16;
+
+    static final byte LONG_KEY = (byte) 0xFF;
+
+    static final int MAX_STRING_SIZE = 0xFFFF;
+
+    static final int RECORD_SIZE = 80;
+
+    static final int WORKING_DAYS_OFFSET = KEY_SIZE + 8;
+
+    static final int WORKING_WEEK_OFFSET = WORKING_DAYS_OFFSET + DayBitmaps.WORDS * 8;
+
+    static final int HOLIDAY_SIZE = 12;
+
+    private final ByteBuffer buffer;
+
+    private final long writtenAt;
+
+    private final int recordCount;
+
+    private final int holidaysOffset;
+
+    private final int stringsOffset;
+
+    private final Map<String, Integer> records = new HashMap<>();
+
+    private CalendarSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a version " + VERSION + " calendar snapshot");
+        }
+        this.writtenAt = buffer.getLong(8);
+        this.recordCount = buffer.getInt(16);
+        int holidayCount = buffer.getInt(20);
+        this.holidaysOffset = HEADER_SIZE + recordCount * RECORD_SIZE;
+        this.stringsOffset = holidaysOffset + holidayCount * HOLIDAY_SIZE;
+
+        for (int i = 0; i < recordCount; i++) {
+            int record = HEADER_SIZE + i * RECORD_SIZE;
+            records.put(key(readKey(record), buffer.getShort(record + KEY_SIZE)), record);
+        }
+    }
+
+    /**
+     * Maps an existing snapshot file.
+     *
+     * @param path the snapshot file
+     * @return the mapped snapshot
+     * @throws IOException if the file can not be read or is not a snapshot
+     */
+    public static CalendarSnapshot map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid once the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CalendarSnapshot(buffer);
+        }
+    }
+
+    /**
+     * Writes the calendars to a new snapshot file, atomically replacing the existing one.
+     *
+     * @param path the snapshot file
+     * @param calendars the calendar years, their key must {@link #fits(String) fit} in the snapshot
+     * @throws IOException if the file can not be written
+     */
+    public static void write(Path path, Collection<CalendarYearData> calendars) throws IOException {
+        List<CalendarYearData> sorted = calendars.stream()
+            .sorted(Comparator.comparing(CalendarYearData::getKey).thenComparing(CalendarYearData::getYear))
+            .collect(Collectors.toList());
+        int holidayCount = sorted.stream().mapToInt(c -> c.getHolidays().size()).sum();
+
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        Map<String, Integer> stringOffsets = new HashMap<>();
+        ByteBuffer records = ByteBuffer.allocate(sorted.size() * RECORD_SIZE);
+        ByteBuffer holidays = ByteBuffer.allocate(holidayCount * HOLIDAY_SIZE);
+
+        int firstHoliday = 0;
+        for (CalendarYearData calendar : sorted) {
+            byte[] key = calendar.getKey().getBytes(StandardCharsets.UTF_8);
+            if (key.length > MAX_STRING_SIZE) {
+                throw new IllegalArgumentException("Calendar " + calendar.getKey() + " does not fit in a snapshot");
+            }
+            if (key.length <= KEY_SIZE) {
+                records.put(key).put(new byte[KEY_SIZE - key.length]);
+            } else {
+                records.put(LONG_KEY).put(new byte[3]).putInt(writeString(strings, stringOffsets, calendar.getKey()))
+                    .put(new byte[KEY_SIZE - 8]);
+            }
+            records.putShort((short) calendar.getYear());
+            records.putShort((short) calendar.getHolidays().size());
+            records.putInt(firstHoliday);
+            for (long word : calendar.getWorkingDays()) {
+                records.putLong(word);
+            }
+            records.put((byte) calendar.getWorkingWeek()).put(new byte[7]);
+            for (HolidayEntry holiday : calendar.getHolidays()) {
+                holidays.putShort((short) holiday.getDate().getDayOfYear());
+                holidays.putShort((short) 0);
+                holidays.putInt(writeString(strings, stringOffsets, holiday.getName()));
+                holidays.putInt(writeString(strings, stringOffsets, holiday.getDescription()));
+            }
+            firstHoliday += calendar.getHolidays().size();
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis())
+            .putInt(sorted.size()).putInt(holidayCount).putInt(strings.size());
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            header.rewind();
+            records.flip();
+            holidays.flip();
+            ByteBuffer[] buffers = { header, records, holidays, ByteBuffer.wrap(strings.toByteArray()) };
+            // A gathering write can stop before the end of the buffers
+            while (hasRemaining(buffers)) {
+                channel.write(buffers);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static boolean hasRemaining(ByteBuffer[] buffers) {
+        for (ByteBuffer buffer : buffers) {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the calendar key can be stored in a snapshot record
+     */
+    public static boolean fits(String key) {
+        return key.getBytes(StandardCharsets.UTF_8).length <= MAX_STRING_SIZE;
+    }
+
+    public long getWrittenAt() {
+        return writtenAt;
+    }
+
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * @param calendarKey the calendar key, see {@link CalendarYearData#key}
+     * @param year the year of the calendar
+     * @return the calendar year read from the snapshot, if it holds it
+     */
+    public Optional<CalendarYearData> find(String calendarKey, int year) {
+        Integer record = records.get(key(calendarKey, year));
+        if (record == null) {
+            return Optional.empty();
+        }
+
+        long[] workingDays = DayBitmaps.create();
+        for (int i = 0; i < DayBitmaps.WORDS; i++) {
+            workingDays[i] = buffer.getLong(record + WORKING_DAYS_OFFSET + i * 8);
+        }
+
+        int holidayCount = buffer.getShort(record + KEY_SIZE + 2);
+        int firstHoliday = buffer.getInt(record + KEY_SIZE + 4);
+        List<HolidayEntry> holidays = new ArrayList<>(holidayCount);
+        LocalDate firstDay = LocalDate.of(year, 1, 1);
+        for (int i = 0; i < holidayCount; i++) {
+            int holiday = holidaysOffset + (firstHoliday + i) * HOLIDAY_SIZE;
+            holidays.add(new HolidayEntry(firstDay.withDayOfYear(buffer.getShort(holiday)),
+                readString(buffer.getInt(holiday + 4)), readString(buffer.getInt(holiday + 8))));
+        }
+        return Optional.of(new CalendarYearData(calendarKey, year, buffer.get(record + WORKING_WEEK_OFFSET), workingDays,
+            holidays));
+    }
+
+    private String readKey(int record) {
+        if (buffer.get(record) == LONG_KEY) {
+            return readString(buffer.getInt(record + 4));
+        }
+        byte[] key = new byte[KEY_SIZE];
+        ByteBuffer view = buffer.duplicate();
+        view.position(record);
+        view.get(key);
+        int length = 0;
+        while (length < KEY_SIZE && key[length] != 0) {
+            length++;
+        }
+        return new String(key, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private String readString(int offset) {
+        if (offset < 0) {
+            return null;
+        }
+        int length = buffer.getShort(stringsOffset + offset) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(stringsOffset + offset + 2);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int writeString(ByteArrayOutputStream strings, Map<String, Integer> offsets, String value) {
+        if (value == null) {
+            return -1;
+        }
+        return offsets.computeIfAbsent(value, v -> {
+            int offset = strings.size();
+            byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(bytes.length, MAX_STRING_SIZE);
+            strings.write(length >>> 8);
+            strings.write(length);
+            strings.write(bytes, 0, length);
+            return offset;
+        });
+    }
+
+    private static String key(String calendarKey, int year) {
+        return calendarKey + ":" + year;
+    }
+}
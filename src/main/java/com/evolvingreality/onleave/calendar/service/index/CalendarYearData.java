@@ -0,0 +1,204 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * The holidays and working days of a calendar layer for one year.
+ * <p>
+ * This is everything needed to build a {@link com.evolvingreality.onleave.calendar.domain.CalendarYear},
+ * without going back to the database for each day. A layer is a national, regional or organisation
+ * calendar, identified by its {@link #key(String, String, String) key}; the effective calendar of a region
+ * is the {@link #compose(String, List) composition} of the national layer with the more specific ones.
+ */
+public class CalendarYearData {
+
+    private static final String KEY_SEPARATOR = "/";
+
+    private final String key;
+
+    private final int year;
+
+    private final int workingWeek;
+
+    private final long[] holidayDays;
+
+    private final long[] workingDays;
+
+    private final Map<Integer, HolidayEntry> holidays = new TreeMap<>();
+
+    /**
+     * Computes the working days of a year with a Saturday and Sunday weekend from its holidays.
+     */
+    public CalendarYearData(String key, int year, Collection<HolidayEntry> holidays) {
+        this(key, year, WeekMask.MONDAY_TO_FRIDAY, holidays);
+    }
+
+    /**
+     * Computes the working days of the year from its working days of the week and its holidays.
+     *
+     * @param workingWeek the working days of the week, see {@link WeekMask}
+     */
+    public CalendarYearData(String key, int year, int workingWeek, Collection<HolidayEntry> holidays) {
+        this.key = key;
+        this.year = year;
+        this.workingWeek = workingWeek;
+        this.holidayDays = DayBitmaps.create();
+        for (HolidayEntry holiday : holidays) {
+            if (holiday.getDate().getYear() == year) {
+                this.holidays.put(holiday.getDate().getDayOfYear(), holiday);
+                DayBitmaps.set(holidayDays, holiday.getDate().getDayOfYear());
+            }
+        }
+        this.workingDays = DayBitmaps.andNot(DayBitmaps.pattern(year, workingWeek), holidayDays);
+    }
+
+    /**
+     * Uses precomputed working days, as read back from a {@link CalendarSnapshot}.
+     */
+    public CalendarYearData(String key, int year, int workingWeek, long[] workingDays, Collection<HolidayEntry> holidays) {
+        this.key = key;
+        this.year = year;
+        this.workingWeek = workingWeek;
+        this.workingDays = workingDays;
+        this.holidayDays = DayBitmaps.create();
+        holidays.forEach(h -> {
+            this.holidays.put(h.getDate().getDayOfYear(), h);
+            DayBitmaps.set(holidayDays, h.getDate().getDayOfYear());
+        });
+    }
+
+    private CalendarYearData(String key, int year, int workingWeek, long[] holidayDays, long[] workingDays,
+                             Map<Integer, HolidayEntry> holidays) {
+        this.key = key;
+        this.year = year;
+        this.workingWeek = workingWeek;
+        this.holidayDays = holidayDays;
+        this.workingDays = workingDays;
+        this.holidays.putAll(holidays);
+    }
+
+    /**
+     * @param country the country code
+     * @param region the region code, or null for a national or national organisation calendar
+     * @param organisation the organisation, or null for a national or regional calendar
+     * @return the key of the calendar layer, like {@code DE}, {@code DE/BY} or {@code DE/BY/ACME}
+     */
+    public static String key(String country, String region, String organisation) {
+        StringBuilder key = new StringBuilder(country);
+        if (region != null || organisation != null) {
+            key.append(KEY_SEPARATOR).append(region == null ? "" : region);
+        }
+        if (organisation != null) {
+            key.append(KEY_SEPARATOR).append(organisation);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Composes calendar layers of the same year in a single pass: the holidays bitmaps are OR-ed and the working
+     * days of the first layer masked with the holidays of the others. The holidays of the more specific layers,
+     * last in the list, win over the ones of the less specific layers, the working week is the one of the first.
+     *
+     * @param key the key of the composed calendar
+     * @param layers the layers, from the national calendar to the most specific one
+     * @return the composed calendar
+     */
+    public static CalendarYearData compose(String key, List<CalendarYearData> layers) {
+        CalendarYearData base = layers.get(0);
+        long[] holidayDays = base.holidayDays.clone();
+        long[] workingDays = base.workingDays.clone();
+        Map<Integer, HolidayEntry> holidays = new TreeMap<>(base.holidays);
+        for (CalendarYearData layer : layers.subList(1, layers.size())) {
+            if (layer.year != base.year) {
+                throw new IllegalArgumentException("Can not compose " + layer.key + " of " + layer.year
+                    + " with a calendar of " + base.year);
+            }
+            for (int i = 0; i < DayBitmaps.WORDS; i++) {
+                holidayDays[i] |= layer.holidayDays[i];
+                workingDays[i] &= ~layer.holidayDays[i];
+            }
+            holidays.putAll(layer.holidays);
+        }
+        return new CalendarYearData(key, base.year, base.workingWeek, holidayDays, workingDays, holidays);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * @return the working days of the week, see {@link WeekMask}
+     */
+    public int getWorkingWeek() {
+        return workingWeek;
+    }
+
+    /**
+     * @return the holidays bitmap, see {@link DayBitmaps}
+     */
+    public long[] getHolidayDays() {
+        return holidayDays;
+    }
+
+    /**
+     * @return the working days bitmap, see {@link DayBitmaps}
+     */
+    public long[] getWorkingDays() {
+        return workingDays;
+    }
+
+    /**
+     * Computes the working days of a working pattern by masking the days of the pattern with the holidays.
+     *
+     * @param pattern the working days of the week, see {@link WeekMask}
+     * @return a new working days bitmap, see {@link DayBitmaps}
+     */
+    public long[] getWorkingDays(int pattern) {
+        return DayBitmaps.andNot(DayBitmaps.pattern(year, pattern), holidayDays);
+    }
+
+    /**
+     * @return the holidays of the year, in date order
+     */
+    public Collection<HolidayEntry> getHolidays() {
+        return Collections.unmodifiableCollection(holidays.values());
+    }
+
+    public Optional<HolidayEntry> getHoliday(LocalDate date) {
+        if (date.getYear() != year) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(holidays.get(date.getDayOfYear()));
+    }
+
+    /**
+     * @return true if the day of the week of the date is not a working day of this calendar
+     */
+    public boolean isWeekEnd(LocalDate date) {
+        return !WeekMask.contains(workingWeek, date.getDayOfWeek());
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        return date.getYear() == year && DayBitmaps.get(workingDays, date.getDayOfYear());
+    }
+
+    /**
+     * @param date the date
+     * @param pattern the working days of the week, see {@link WeekMask}
+     * @return true if the date is in the working pattern and is not a holiday
+     */
+    public boolean isWorkingDay(LocalDate date, int pattern) {
+        return date.getYear() == year && WeekMask.contains(pattern, date.getDayOfWeek())
+            && !DayBitmaps.get(holidayDays, date.getDayOfYear());
+    }
+}
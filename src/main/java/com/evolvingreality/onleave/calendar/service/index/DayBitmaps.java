@@ -0,0 +1,125 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Helpers for bitmaps holding one bit per day of a year.
+ * <p>
+ * Bit {@code dayOfYear - 1} of the bitmap is the day, so a leap year fits in {@link #WORDS} longs.
+ */
+public final class DayBitmaps {
+
+    public static final int WORDS = 6;
+
+    private static final Map<Integer, long[][]> DAYS_OF_WEEK = new ConcurrentHashMap<>();
+
+    private DayBitmaps() {
+    }
+
+    public static long[] create() {
+        return new long[WORDS];
+    }
+
+    public static void set(long[] bitmap, int dayOfYear) {
+        int bit = dayOfYear - 1;
+        bitmap[bit >>> 6] |= 1L << bit;
+    }
+
+    public static boolean get(long[] bitmap, int dayOfYear) {
+        int bit = dayOfYear - 1;
+        return (bitmap[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * @return a new bitmap of the Monday to Friday days of the year
+     */
+    public static long[] weekdays(int year) {
+        return pattern(year, WeekMask.MONDAY_TO_FRIDAY);
+    }
+
+    /**
+     * OR-s the bitmaps of the days of the week set in the mask, each computed once per year.
+     *
+     * @param year the year
+     * @param weekMask the days of the week, see {@link WeekMask}
+     * @return a new bitmap of the days of the year matching the mask
+     */
+    public static long[] pattern(int year, int weekMask) {
+        long[][] days = DAYS_OF_WEEK.computeIfAbsent(year, DayBitmaps::daysOfWeek);
+        long[] bitmap = create();
+        for (int day = 0; day < 7; day++) {
+            if ((weekMask & (1 << day)) != 0) {
+                for (int i = 0; i < WORDS; i++) {
+                    bitmap[i] |= days[day][i];
+                }
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * @return the number of days set in the bitmap between the two days of the year, both included
+     */
+    public static int count(long[] bitmap, int fromDayOfYear, int toDayOfYear) {
+        int count = 0;
+        int from = fromDayOfYear - 1;
+        int to = toDayOfYear - 1;
+        for (int i = from >>> 6; i <= to >>> 6; i++) {
+            long word = bitmap[i];
+            if (i == from >>> 6) {
+                word &= -1L << from;
+            }
+            if (i == to >>> 6) {
+                word &= -1L >>> (63 - (to & 63));
+            }
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Calls the consumer with every day set in the bitmap between the two days of the year, both included,
+     * in order.
+     */
+    public static void forEach(long[] bitmap, int fromDayOfYear, int toDayOfYear, IntConsumer consumer) {
+        int from = fromDayOfYear - 1;
+        int to = toDayOfYear - 1;
+        for (int i = from >>> 6; i <= to >>> 6; i++) {
+            long word = bitmap[i];
+            if (i == from >>> 6) {
+                word &= -1L << from;
+            }
+            if (i == to >>> 6) {
+                word &= -1L >>> (63 - (to & 63));
+            }
+            while (word != 0) {
+                consumer.accept(i * 64 + Long.numberOfTrailingZeros(word) + 1);
+                word &= word - 1;
+            }
+        }
+    }
+
+    private static long[][] daysOfWeek(int year) {
+        long[][] days = new long[7][WORDS];
+        LocalDate date = LocalDate.of(year, 1, 1);
+        while (date.getYear() == year) {
+            set(days[date.getDayOfWeek().getValue() - 1], date.getDayOfYear());
+            date = date.plusDays(1);
+        }
+        return days;
+    }
+
+    /**
+     * @return a new bitmap of the days set in {@code bitmap} but not in {@code mask}
+     */
+    public static long[] andNot(long[] bitmap, long[] mask) {
+        long[] result = create();
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = bitmap[i] & ~mask[i];
+        }
+        return result;
+    }
+}
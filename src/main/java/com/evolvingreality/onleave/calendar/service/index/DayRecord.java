@@ -0,0 +1,151 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Flyweight reader of a fixed-width calendar year record stored in an {@link OffHeapDayIndex} slab.
+ * <p>
+ * A record is {@value #RECORD_SIZE} bytes:
+ * <ul>
+ *     <li>the {@value #KEY_SIZE} bytes UTF-8 calendar key padded with zeros, see {@link CalendarYearData#key}, or
+ *     only zeros for a longer key, which the index keeps out of line on the heap</li>
+ *     <li>the year and the number of holidays as shorts, the working days of the week as a byte and 11 reserved
+ *     bytes</li>
+ *     <li>the holidays bitmap and the working days bitmap, {@link DayBitmaps#WORDS} longs each</li>
+ * </ul>
+ * The reader holds no data of its own, it is moved from record to record with {@link #wrap(ByteBuffer, int, String)}
+ * and must not be kept once the index has handed it back.
+ */
+public final class DayRecord {
+
+    static final int KEY_SIZE = 16;
+
+    static final int RECORD_SIZE = 128;
+
+    static final int YEAR_OFFSET = KEY_SIZE;
+
+    static final int HOLIDAY_COUNT_OFFSET = YEAR_OFFSET + 2;
+
+    static final int WORKING_WEEK_OFFSET = HOLIDAY_COUNT_OFFSET + 2;
+
+    static final int HOLIDAYS_OFFSET = 32;
+
+    static final int WORKING_DAYS_OFFSET = HOLIDAYS_OFFSET + DayBitmaps.WORDS * 8;
+
+    private ByteBuffer slab;
+
+    private int offset;
+
+    private String longKey;
+
+    DayRecord wrap(ByteBuffer slab, int offset, String longKey) {
+        this.slab = slab;
+        this.offset = offset;
+        this.longKey = longKey;
+        return this;
+    }
+
+    public String getKey() {
+        if (longKey != null) {
+            return longKey;
+        }
+        int length = 0;
+        while (length < KEY_SIZE && slab.get(offset + length) != 0) {
+            length++;
+        }
+        byte[] key = new byte[length];
+        for (int i = 0; i < length; i++) {
+            key[i] = slab.get(offset + i);
+        }
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    public int getYear() {
+        return slab.getShort(offset + YEAR_OFFSET);
+    }
+
+    public int getHolidayCount() {
+        return slab.getShort(offset + HOLIDAY_COUNT_OFFSET);
+    }
+
+    /**
+     * @return the working days of the week, see {@link WeekMask}
+     */
+    public int getWorkingWeek() {
+        return slab.get(offset + WORKING_WEEK_OFFSET);
+    }
+
+    public boolean isHoliday(int dayOfYear) {
+        return getBit(HOLIDAYS_OFFSET, dayOfYear);
+    }
+
+    public boolean isWorkingDay(int dayOfYear) {
+        return getBit(WORKING_DAYS_OFFSET, dayOfYear);
+    }
+
+    /**
+     * @param dayOfYear the day of the year
+     * @param pattern the working days of the week, see {@link WeekMask}
+     * @return true if the day is in the working pattern and is not a holiday
+     */
+    public boolean isWorkingDay(int dayOfYear, int pattern) {
+        return WeekMask.contains(pattern, LocalDate.ofYearDay(getYear(), dayOfYear).getDayOfWeek())
+            && !isHoliday(dayOfYear);
+    }
+
+    /**
+     * @return a copy of the holidays bitmap, see {@link DayBitmaps}
+     */
+    public long[] getHolidays() {
+        return getBitmap(HOLIDAYS_OFFSET);
+    }
+
+    /**
+     * @return a copy of the working days bitmap, see {@link DayBitmaps}
+     */
+    public long[] getWorkingDays() {
+        return getBitmap(WORKING_DAYS_OFFSET);
+    }
+
+    /**
+     * @param pattern the working days of the week, see {@link WeekMask}
+     * @return a new bitmap of the days of the pattern that are not holidays, see {@link DayBitmaps}
+     */
+    public long[] getWorkingDays(int pattern) {
+        return DayBitmaps.andNot(DayBitmaps.pattern(getYear(), pattern), getHolidays());
+    }
+
+    /**
+     * Writes a calendar year at the current position. Only used by the index, under its write lock.
+     *
+     * @param key the UTF-8 calendar key, only zeros are written if it is longer than {@value #KEY_SIZE} bytes
+     */
+    void write(byte[] key, CalendarYearData data) {
+        boolean inline = key.length <= KEY_SIZE;
+        for (int i = 0; i < KEY_SIZE; i++) {
+            slab.put(offset + i, inline && i < key.length ? key[i] : 0);
+        }
+        slab.putShort(offset + YEAR_OFFSET, (short) data.getYear());
+        slab.putShort(offset + HOLIDAY_COUNT_OFFSET, (short) data.getHolidays().size());
+        slab.put(offset + WORKING_WEEK_OFFSET, (byte) data.getWorkingWeek());
+        for (int i = 0; i < DayBitmaps.WORDS; i++) {
+            slab.putLong(offset + HOLIDAYS_OFFSET + i * 8, data.getHolidayDays()[i]);
+            slab.putLong(offset + WORKING_DAYS_OFFSET + i * 8, data.getWorkingDays()[i]);
+        }
+    }
+
+    private boolean getBit(int bitmapOffset, int dayOfYear) {
+        int bit = dayOfYear - 1;
+        return (slab.getLong(offset + bitmapOffset + (bit >>> 6) * 8) & (1L << bit)) != 0;
+    }
+
+    private long[] getBitmap(int bitmapOffset) {
+        long[] bitmap = DayBitmaps.create();
+        for (int i = 0; i < DayBitmaps.WORDS; i++) {
+            bitmap[i] = slab.getLong(offset + bitmapOffset + i * 8);
+        }
+        return bitmap;
+    }
+}
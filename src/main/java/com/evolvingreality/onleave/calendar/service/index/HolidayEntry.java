@@ -0,0 +1,50 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import com.evolvingreality.onleave.calendar.domain.Holiday;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * A holiday of a {@link CalendarYearData}, detached from the persistence layer.
+ */
+public class HolidayEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LocalDate date;
+
+    private final String name;
+
+    private final String description;
+
+    public HolidayEntry(LocalDate date, String name, String description) {
+        this.date = date;
+        this.name = name;
+        this.description = description;
+    }
+
+    public static HolidayEntry of(Holiday holiday) {
+        return new HolidayEntry(holiday.getHolidayDate(), holiday.getName(), holiday.getDescription());
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return "HolidayEntry{" +
+            "date='" + date + "'" +
+            ", name='" + name + "'" +
+            '}';
+    }
+}
@@ -0,0 +1,212 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory index of every holiday by epoch day.
+ * <p>
+ * Each day holds its holidays and a bitset of the calendars on holiday, bit {@code n} being the n-th calendar
+ * key seen by the index. Days are immutable and replaced as holidays are written, so readers never lock;
+ * writers are serialized on the index.
+ */
+public class HolidayIndex {
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+
+    private volatile String[] calendarKeys = new String[0];
+
+    private final ConcurrentSkipListMap<Long, HolidayDay> days = new ConcurrentSkipListMap<>();
+
+    private final Map<Long, IndexedHoliday> holidays = new HashMap<>();
+
+    /**
+     * Creates an empty index.
+     */
+    public HolidayIndex() {
+    }
+
+    /**
+     * Creates the index of the holidays, to be swapped in whole for the previous one rather than updated in place.
+     */
+    public HolidayIndex(Collection<IndexedHoliday> all) {
+        Map<Long, List<IndexedHoliday>> byDay = new HashMap<>();
+        for (IndexedHoliday holiday : all) {
+            holidays.put(holiday.getId(), holiday);
+            byDay.computeIfAbsent(holiday.getDate().toEpochDay(), d -> new ArrayList<>()).add(holiday);
+        }
+        byDay.forEach((day, dayHolidays) -> days.put(day, new HolidayDay(dayHolidays)));
+    }
+
+    /**
+     * Adds or replaces a holiday, moving it if its date or calendar changed.
+     */
+    public synchronized void put(IndexedHoliday holiday) {
+        removeHoliday(holiday.getId());
+        holidays.put(holiday.getId(), holiday);
+        long day = holiday.getDate().toEpochDay();
+        HolidayDay current = days.get(day);
+        List<IndexedHoliday> dayHolidays = current == null ? new ArrayList<>() : new ArrayList<>(current.holidays);
+        dayHolidays.add(holiday);
+        days.put(day, new HolidayDay(dayHolidays));
+    }
+
+    /**
+     * Removes a holiday, if indexed.
+     */
+    public synchronized void remove(Long id) {
+        removeHoliday(id);
+    }
+
+    /**
+     * @return the keys of the calendars with a holiday on the date, in key order
+     */
+    public List<String> getCalendarsOn(LocalDate date) {
+        HolidayDay day = days.get(date.toEpochDay());
+        return day == null ? Collections.emptyList() : toKeys(day.calendars);
+    }
+
+    /**
+     * @return the keys of the calendars with a holiday between the two dates, both included, in key order
+     */
+    public List<String> getCalendarsBetween(LocalDate from, LocalDate to) {
+        BitSet calendars = new BitSet();
+        range(from, to).values().forEach(day -> calendars.or(day.calendars));
+        return toKeys(calendars);
+    }
+
+    /**
+     * @return the keys of the calendars on holiday for each day with a holiday between the two dates, both included
+     */
+    public SortedMap<LocalDate, List<String>> getCalendarsByDayBetween(LocalDate from, LocalDate to) {
+        SortedMap<LocalDate, List<String>> result = new TreeMap<>();
+        range(from, to).forEach((day, holidayDay) -> result.put(LocalDate.ofEpochDay(day), toKeys(holidayDay.calendars)));
+        return result;
+    }
+
+    /**
+     * Walks the days from the date, skipping the days without a holiday of the countries, until enough holidays
+     * are found: the cost is the lookup of the date plus the days read, not the size of the index.
+     *
+     * @param from the first date, included
+     * @param limit the maximum number of holidays
+     * @param countries the country codes of the calendars, or null or empty for all the calendars
+     * @return the next holidays of the countries, in date then calendar key order
+     */
+    public List<IndexedHoliday> getNext(LocalDate from, int limit, Set<String> countries) {
+        BitSet mask = countries == null || countries.isEmpty() ? null : ofCountries(countries);
+        List<IndexedHoliday> result = new ArrayList<>(limit);
+        for (HolidayDay day : days.tailMap(from.toEpochDay(), true).values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (mask == null) {
+                day.holidays.stream().limit(limit - result.size()).forEach(result::add);
+            } else if (day.calendars.intersects(mask)) {
+                day.holidays.stream()
+                    .filter(h -> countries.contains(country(h.getCalendarKey())))
+                    .limit(limit - result.size())
+                    .forEach(result::add);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of days with at least one holiday
+     */
+    public int size() {
+        return days.size();
+    }
+
+    private NavigableMap<Long, HolidayDay> range(LocalDate from, LocalDate to) {
+        return days.subMap(from.toEpochDay(), true, to.toEpochDay(), true);
+    }
+
+    private void removeHoliday(Long id) {
+        IndexedHoliday previous = holidays.remove(id);
+        if (previous == null) {
+            return;
+        }
+        long day = previous.getDate().toEpochDay();
+        HolidayDay current = days.get(day);
+        if (current == null) {
+            return;
+        }
+        List<IndexedHoliday> dayHolidays = new ArrayList<>(current.holidays);
+        dayHolidays.removeIf(h -> h.getId().equals(id));
+        if (dayHolidays.isEmpty()) {
+            days.remove(day);
+        } else {
+            days.put(day, new HolidayDay(dayHolidays));
+        }
+    }
+
+    private int ordinal(String calendarKey) {
+        Integer ordinal = ordinals.get(calendarKey);
+        if (ordinal == null) {
+            ordinal = calendarKeys.length;
+            String[] keys = new String[ordinal + 1];
+            System.arraycopy(calendarKeys, 0, keys, 0, ordinal);
+            keys[ordinal] = calendarKey;
+            calendarKeys = keys;
+            ordinals.put(calendarKey, ordinal);
+        }
+        return ordinal;
+    }
+
+    private BitSet ofCountries(Set<String> countries) {
+        String[] keys = calendarKeys;
+        BitSet mask = new BitSet(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            if (countries.contains(country(keys[i]))) {
+                mask.set(i);
+            }
+        }
+        return mask;
+    }
+
+    private static String country(String calendarKey) {
+        int separator = calendarKey.indexOf('/');
+        return separator < 0 ? calendarKey : calendarKey.substring(0, separator);
+    }
+
+    private List<String> toKeys(BitSet calendars) {
+        String[] keys = calendarKeys;
+        List<String> result = new ArrayList<>(calendars.cardinality());
+        for (int i = calendars.nextSetBit(0); i >= 0; i = calendars.nextSetBit(i + 1)) {
+            result.add(keys[i]);
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * The holidays of a day, immutable.
+     */
+    private final class HolidayDay {
+
+        private final List<IndexedHoliday> holidays;
+
+        private final BitSet calendars = new BitSet();
+
+        HolidayDay(List<IndexedHoliday> holidays) {
+            holidays.sort(Comparator.comparing(IndexedHoliday::getCalendarKey));
+            this.holidays = Collections.unmodifiableList(holidays);
+            holidays.forEach(h -> calendars.set(ordinal(h.getCalendarKey())));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import java.time.LocalDate;
+
+/**
+ * A holiday of a {@link HolidayIndex}, with the key of its calendar.
+ */
+public class IndexedHoliday {
+
+    private final Long id;
+
+    private final String calendarKey;
+
+    private final LocalDate date;
+
+    private final String name;
+
+    private final String description;
+
+    public IndexedHoliday(Long id, String calendarKey, LocalDate date, String name, String description) {
+        this.id = id;
+        this.calendarKey = calendarKey;
+        this.date = date;
+        this.name = name;
+        this.description = description;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the key of the calendar of the holiday, see {@link CalendarYearData#key}
+     */
+    public String getCalendarKey() {
+        return calendarKey;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedHoliday{" +
+            "id=" + id +
+            ", calendarKey='" + calendarKey + "'" +
+            ", date='" + date + "'" +
+            ", name='" + name + "'" +
+            '}';
+    }
+}
@@ -0,0 +1,259 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Index of the days of calendar years, stored off-heap.
+ * <p>
+ * Each calendar year is a fixed-width {@link DayRecord} in a slab, a direct {@link ByteBuffer} holding a
+ * fixed number of records. Slabs are allocated as the index grows, up to a maximum number of slabs, and are kept
+ * for the life of the index, the slots of removed years being reused. Once every slot of the last slab is used,
+ * adding a year evicts a year that was not read recently, chosen with the clock algorithm: every read marks the
+ * slot of its record, and the eviction hand goes round the slots clearing the marks until it finds an unmarked
+ * one. Only the map from calendar key and year to the record slot, the slot marks and the calendar keys too long
+ * to fit in a record live on the heap.
+ * <p>
+ * Records are read through a {@link DayRecord} flyweight under an optimistic read of the index lock, so
+ * readers never block each other and only retry when a write happened meanwhile.
+ */
+public class OffHeapDayIndex {
+
+    private final int recordsPerSlab;
+
+    private final int maxSlabs;
+
+    private final StampedLock lock = new StampedLock();
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    private volatile ByteBuffer[] slabArray = new ByteBuffer[0];
+
+    private volatile byte[] referenced = new byte[0];
+
+    private String[] slotKeys = new String[0];
+
+    private volatile String[] longKeys = new String[0];
+
+    private int clockHand;
+
+    private volatile long evictions;
+
+    private volatile int size;
+
+    private int nextSlot;
+
+    /**
+     * @param recordsPerSlab the number of records of a slab
+     * @param maxSlabs the maximum number of slabs, the index holding at most {@code recordsPerSlab * maxSlabs}
+     * calendar years
+     */
+    public OffHeapDayIndex(int recordsPerSlab, int maxSlabs) {
+        if (recordsPerSlab <= 0 || maxSlabs <= 0) {
+            throw new IllegalArgumentException("The number of records per slab and of slabs must be positive");
+        }
+        this.recordsPerSlab = recordsPerSlab;
+        this.maxSlabs = maxSlabs;
+    }
+
+    /**
+     * Adds or replaces the record of a calendar year, evicting a year not read recently if the index is full.
+     *
+     * @param data the calendar year
+     */
+    public void put(CalendarYearData data) {
+        byte[] key = data.getKey().getBytes(StandardCharsets.UTF_8);
+
+        long stamp = lock.writeLock();
+        try {
+            String recordKey = key(data.getKey(), data.getYear());
+            Integer slot = slots.get(recordKey);
+            if (slot == null) {
+                slot = allocateSlot();
+                slots.put(recordKey, slot);
+                slotKeys[slot] = recordKey;
+                size = slots.size();
+            }
+            longKeys[slot] = key.length > DayRecord.KEY_SIZE ? data.getKey() : null;
+            record(slot, new DayRecord()).write(key, data);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the record of a calendar year, its slot is reused by the next record added.
+     */
+    public void remove(String key, int year) {
+        long stamp = lock.writeLock();
+        try {
+            Integer slot = slots.remove(key(key, year));
+            if (slot != null) {
+                slotKeys[slot] = null;
+                longKeys[slot] = null;
+                freeSlots.push(slot);
+                size = slots.size();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes every record, the slabs are kept for the records added next.
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            slots.clear();
+            freeSlots.clear();
+            Arrays.fill(slotKeys, null);
+            Arrays.fill(longKeys, null);
+            Arrays.fill(referenced, (byte) 0);
+            nextSlot = 0;
+            clockHand = 0;
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Reads the record of a calendar year. The reader may be called more than once if the record is written
+     * concurrently, it must not keep the flyweight nor have side effects.
+     *
+     * @param calendarKey the calendar key, see {@link CalendarYearData#key}
+     * @param year the year of the calendar
+     * @param reader reads what is needed from the record
+     * @return the value read, or empty if the index does not hold the year
+     */
+    public <T> Optional<T> read(String calendarKey, int year, Function<DayRecord, T> reader) {
+        DayRecord record = new DayRecord();
+        String key = key(calendarKey, year);
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Optional<T> value = read(key, record, reader);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                // Inconsistent read of a record being written, retried below under the read lock
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return read(key, record, reader);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the number of calendar years in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the off-heap bytes used by the records
+     */
+    public long getUsedBytes() {
+        return (long) size * DayRecord.RECORD_SIZE;
+    }
+
+    /**
+     * @return the off-heap bytes allocated for the slabs
+     */
+    public long getCapacityBytes() {
+        return (long) slabArray.length * recordsPerSlab * DayRecord.RECORD_SIZE;
+    }
+
+    /**
+     * @return the number of slabs allocated
+     */
+    public int getSlabCount() {
+        return slabArray.length;
+    }
+
+    /**
+     * @return the number of calendar years evicted to make room for others
+     */
+    public long getEvictionCount() {
+        return evictions;
+    }
+
+    private <T> Optional<T> read(String key, DayRecord record, Function<DayRecord, T> reader) {
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            return Optional.empty();
+        }
+        // Racy on purpose, a lost mark only makes the year a candidate for eviction a little early
+        byte[] marks = referenced;
+        if (slot < marks.length) {
+            marks[slot] = 1;
+        }
+        return Optional.ofNullable(reader.apply(record(slot, record)));
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (nextSlot == maxSlabs * recordsPerSlab) {
+            return evictSlot();
+        }
+        int slot = nextSlot++;
+        if (slot / recordsPerSlab >= slabs.size()) {
+            slabs.add(ByteBuffer.allocateDirect(recordsPerSlab * DayRecord.RECORD_SIZE));
+            slabArray = slabs.toArray(new ByteBuffer[slabs.size()]);
+            slotKeys = Arrays.copyOf(slotKeys, slabs.size() * recordsPerSlab);
+            longKeys = Arrays.copyOf(longKeys, slabs.size() * recordsPerSlab);
+            referenced = Arrays.copyOf(referenced, slabs.size() * recordsPerSlab);
+        }
+        return slot;
+    }
+
+    private int evictSlot() {
+        byte[] marks = referenced;
+        while (marks[clockHand] != 0) {
+            marks[clockHand] = 0;
+            clockHand = (clockHand + 1) % nextSlot;
+        }
+        int slot = clockHand;
+        clockHand = (clockHand + 1) % nextSlot;
+        slots.remove(slotKeys[slot]);
+        slotKeys[slot] = null;
+        evictions++;
+        return slot;
+    }
+
+    private DayRecord record(int slot, DayRecord record) {
+        return record.wrap(slabArray[slot / recordsPerSlab], (slot % recordsPerSlab) * DayRecord.RECORD_SIZE,
+            longKeys[slot]);
+    }
+
+    private static String key(String calendarKey, int year) {
+        return calendarKey + ":" + year;
+    }
+}
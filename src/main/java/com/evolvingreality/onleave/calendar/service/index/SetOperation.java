@@ -0,0 +1,53 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+/**
+ * Word-wise set operations on {@link DayBitmaps}.
+ */
+public enum SetOperation {
+
+    /**
+     * Days set in every bitmap.
+     */
+    INTERSECTION {
+        @Override
+        long apply(long word, long operand) {
+            return word & operand;
+        }
+    },
+
+    /**
+     * Days set in at least one bitmap.
+     */
+    UNION {
+        @Override
+        long apply(long word, long operand) {
+            return word | operand;
+        }
+    },
+
+    /**
+     * Days set in the first bitmap and in none of the others.
+     */
+    DIFFERENCE {
+        @Override
+        long apply(long word, long operand) {
+            return word & ~operand;
+        }
+    };
+
+    abstract long apply(long word, long operand);
+
+    /**
+     * Applies the operation to the bitmap, in place.
+     *
+     * @param bitmap the bitmap, updated with the result
+     * @param operand the other bitmap
+     * @return the bitmap
+     */
+    public long[] apply(long[] bitmap, long[] operand) {
+        for (int i = 0; i < DayBitmaps.WORDS; i++) {
+            bitmap[i] = apply(bitmap[i], operand[i]);
+        }
+        return bitmap;
+    }
+}
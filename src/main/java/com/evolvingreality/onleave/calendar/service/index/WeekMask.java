@@ -0,0 +1,49 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import java.time.DayOfWeek;
+
+/**
+ * Helpers for 7-bit masks of days of the week, bit {@code dayOfWeek.getValue() - 1} being the day, so Monday
+ * is bit 0 and Sunday bit 6.
+ * <p>
+ * Masks are used both for the weekend of a country calendar and for the working pattern of a part-time
+ * schedule, for instance {@code 0b0000111} for Monday to Wednesday.
+ */
+public final class WeekMask {
+
+    public static final int ALL_DAYS = 0b1111111;
+
+    public static final int SATURDAY_SUNDAY = of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+
+    public static final int MONDAY_TO_FRIDAY = ALL_DAYS & ~SATURDAY_SUNDAY;
+
+    private WeekMask() {
+    }
+
+    public static int of(DayOfWeek... days) {
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= 1 << (day.getValue() - 1);
+        }
+        return mask;
+    }
+
+    public static boolean contains(int mask, DayOfWeek day) {
+        return (mask & (1 << (day.getValue() - 1))) != 0;
+    }
+
+    /**
+     * @param weekendMask the weekend days, or null for Saturday and Sunday
+     * @return the working days of the week
+     */
+    public static int workingWeek(Integer weekendMask) {
+        return ALL_DAYS & ~(weekendMask == null ? SATURDAY_SUNDAY : weekendMask);
+    }
+
+    /**
+     * @return true if the mask has no bit beyond Sunday
+     */
+    public static boolean isValid(int mask) {
+        return (mask & ~ALL_DAYS) == 0;
+    }
+}
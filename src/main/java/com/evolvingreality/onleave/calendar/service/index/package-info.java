@@ -0,0 +1,4 @@
+/**
+ * Compact, bitmap based representations of the calendars.
+ */
+package com.evolvingreality.onleave.calendar.service.index;
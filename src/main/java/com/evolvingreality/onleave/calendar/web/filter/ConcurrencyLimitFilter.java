@@ -0,0 +1,118 @@
+package com.evolvingreality.onleave.calendar.web.filter;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sheds the requests of the expensive endpoints when they queue up, so that the cheap ones keep working.
+ * <p>
+ * Each class of endpoints, matched by path patterns, gets a {@link GradientConcurrencyLimiter}; the requests over
+ * its limit are rejected at once with a Retry-After header, the other requests go through unlimited. The limit,
+ * the requests in flight and the rejections of each class are reported as
+ * {@code ConcurrencyLimitFilter.<class>.limit}, {@code .inFlight} and {@code .rejections}.
+ */
+public class ConcurrencyLimitFilter implements Filter {
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final List<EndpointClass> endpointClasses = new ArrayList<>();
+
+    private final MetricRegistry metricRegistry;
+
+    private final int rejectionStatus;
+
+    private final String retryAfterSeconds;
+
+    /**
+     * @param rejectionStatus the status of the rejected requests, usually 429 or 503
+     * @param retryAfterSeconds the Retry-After of the rejected requests
+     */
+    public ConcurrencyLimitFilter(MetricRegistry metricRegistry, int rejectionStatus, int retryAfterSeconds) {
+        this.metricRegistry = metricRegistry;
+        this.rejectionStatus = rejectionStatus;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+    }
+
+    /**
+     * Limits the requests matching one of the patterns, the first class matching a request applying.
+     */
+    public void addEndpointClass(String name, List<String> patterns, GradientConcurrencyLimiter limiter) {
+        metricRegistry.register(MetricRegistry.name(ConcurrencyLimitFilter.class, name, "limit"),
+            (Gauge<Integer>) limiter::getLimit);
+        metricRegistry.register(MetricRegistry.name(ConcurrencyLimitFilter.class, name, "inFlight"),
+            (Gauge<Integer>) limiter::getInFlight);
+        endpointClasses.add(new EndpointClass(patterns, limiter,
+            metricRegistry.meter(MetricRegistry.name(ConcurrencyLimitFilter.class, name, "rejections"))));
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        // Nothing to initialize
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to destroy
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+        throws IOException, ServletException {
+
+        EndpointClass endpointClass = match((HttpServletRequest) request);
+        if (endpointClass == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!endpointClass.limiter.tryAcquire()) {
+            endpointClass.rejections.mark();
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setHeader("Retry-After", retryAfterSeconds);
+            httpResponse.sendError(rejectionStatus);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            endpointClass.limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private EndpointClass match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (EndpointClass endpointClass : endpointClasses) {
+            for (String pattern : endpointClass.patterns) {
+                if (pathMatcher.match(pattern, path)) {
+                    return endpointClass;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static class EndpointClass {
+
+        private final List<String> patterns;
+
+        private final GradientConcurrencyLimiter limiter;
+
+        private final Meter rejections;
+
+        EndpointClass(List<String> patterns, GradientConcurrencyLimiter limiter, Meter rejections) {
+            this.patterns = patterns;
+            this.limiter = limiter;
+            this.rejections = rejections;
+        }
+    }
+}
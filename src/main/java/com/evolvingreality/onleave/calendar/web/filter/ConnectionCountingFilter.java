@@ -0,0 +1,44 @@
+package com.evolvingreality.onleave.calendar.web.filter;
+
+import com.evolvingreality.onleave.calendar.config.metrics.ConnectionCountingDataSource;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+
+import javax.servlet.*;
+import java.io.IOException;
+
+/**
+ * Records the number of database connections acquired by each request, so that read paths served from the
+ * caches can be checked not to acquire any.
+ */
+public class ConnectionCountingFilter implements Filter {
+
+    private final Histogram connections;
+
+    public ConnectionCountingFilter(MetricRegistry metricRegistry) {
+        this.connections = metricRegistry.histogram(MetricRegistry.name(ConnectionCountingFilter.class, "connections"));
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        // Nothing to initialize
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to destroy
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+        throws IOException, ServletException {
+
+        ConnectionCountingDataSource.startCounting();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            connections.update(ConnectionCountingDataSource.stopCounting());
+        }
+    }
+}
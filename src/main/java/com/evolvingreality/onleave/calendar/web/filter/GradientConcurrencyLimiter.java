@@ -0,0 +1,116 @@
+package com.evolvingreality.onleave.calendar.web.filter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An adaptive limit of the requests in flight, adjusted from their latency in the style of the gradient
+ * congestion control of TCP.
+ * <p>
+ * A fast moving average of the response times is compared with the lowest response time of the last windows, which
+ * stands for the latency without queuing: as long as they are close the limit grows by the square root of itself,
+ * when requests start queuing the average rises and the limit shrinks by the ratio of the two, down to half of it at
+ * once. The minimum is taken over the current and the previous window only, so that the baseline follows a lasting
+ * change of the latency without being dragged up by the queuing it is meant to detect.
+ */
+public class GradientConcurrencyLimiter {
+
+    private static final double SHORT_SMOOTHING = 0.2;
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final double LIMIT_SMOOTHING = 0.2;
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private volatile int limit;
+
+    private double estimatedLimit;
+
+    private double shortRtt;
+
+    private long windowStart;
+
+    private long windowMinRtt = Long.MAX_VALUE;
+
+    private long previousWindowMinRtt = Long.MAX_VALUE;
+
+    /**
+     * @param initialLimit the limit until latencies have been measured
+     * @param minLimit the lowest limit
+     * @param maxLimit the highest limit
+     */
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * @return true if the request can go, in which case {@link #release(long)} must be called once it is done
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * @param rttNanos the response time of the request
+     */
+    public void release(long rttNanos) {
+        release(rttNanos, System.nanoTime());
+    }
+
+    void release(long rttNanos, long nowNanos) {
+        int current = inFlight.getAndDecrement();
+        update(rttNanos, current, nowNanos);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtRelease, long nowNanos) {
+        if (windowMinRtt == Long.MAX_VALUE && previousWindowMinRtt == Long.MAX_VALUE) {
+            shortRtt = rttNanos;
+            windowMinRtt = rttNanos;
+            windowStart = nowNanos;
+            return;
+        }
+        if (nowNanos - windowStart >= WINDOW_NANOS) {
+            // A whole window without a request leaves no minimum worth keeping
+            previousWindowMinRtt = nowNanos - windowStart >= 2 * WINDOW_NANOS ? Long.MAX_VALUE : windowMinRtt;
+            windowMinRtt = Long.MAX_VALUE;
+            windowStart = nowNanos;
+        }
+        shortRtt += (rttNanos - shortRtt) * SHORT_SMOOTHING;
+        windowMinRtt = Math.min(windowMinRtt, rttNanos);
+        long minRtt = Math.min(windowMinRtt, previousWindowMinRtt);
+        // Not using the limit, so latencies say nothing about it
+        if (inFlightAtRelease < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, minRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+            estimatedLimit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
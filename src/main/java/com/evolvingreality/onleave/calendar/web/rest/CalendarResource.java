@@ -4,7 +4,12 @@ import com.codahale.metrics.annotation.Timed;
 import com.evolvingreality.onleave.calendar.domain.Calendar;
 import com.evolvingreality.onleave.calendar.domain.CalendarDay;
 import com.evolvingreality.onleave.calendar.domain.CalendarYear;
+import com.evolvingreality.onleave.calendar.service.CalendarChangeStream;
 import com.evolvingreality.onleave.calendar.service.CalendarService;
+import com.evolvingreality.onleave.calendar.service.index.SetOperation;
+import com.evolvingreality.onleave.calendar.service.index.WeekMask;
+import com.evolvingreality.onleave.calendar.web.rest.dto.WorkingDaySetDTO;
+import com.evolvingreality.onleave.calendar.web.rest.dto.WorkingDaysDTO;
 import com.evolvingreality.onleave.calendar.web.rest.util.HeaderUtil;
 import com.evolvingreality.onleave.calendar.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
@@ -12,12 +17,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -27,6 +34,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * REST controller for managing Calendar.
@@ -35,13 +43,20 @@ import java.util.Optional;
 @RequestMapping("/api")
 public class CalendarResource {
 
+    private static final int MAX_RANGE_YEARS = 10;
+
+    private static final int MAX_COUNTRIES = 20;
+
     private final Logger log = LoggerFactory.getLogger(CalendarResource.class);
            
     private final CalendarService calendarService;
     
+    private final CalendarChangeStream calendarChangeStream;
+    
     @Autowired
-    public CalendarResource(final CalendarService calendarService) {
+    public CalendarResource(final CalendarService calendarService, final CalendarChangeStream calendarChangeStream) {
     	this.calendarService = calendarService;
+    	this.calendarChangeStream = calendarChangeStream;
     }
     
     /**
@@ -92,21 +107,66 @@ public class CalendarResource {
 
     /**
      * GET  /calendars : get all the calendars.
+     * <p>
+     * Without a cursor the page is read with an offset, in the requested sort, and counted. With a cursor the
+     * calendars are read in id order after it: an empty cursor reads the first page, which links to the next one
+     * with the cursor of its last calendar.
      *
-     * @param pageable the pagination information
-     * @return the ResponseEntity with status 200 (OK) and the list of calendars in body
+     * @param pageable the pagination information, only its size is used after a cursor
+     * @param cursor the cursor of the next link, empty for the first page, none for offset pagination
+     * @param count true to get the total number of calendars in the X-Total-Count header after a cursor
+     * @return the ResponseEntity with status 200 (OK) and the list of calendars in body,
+     * or with status 400 (Bad Request) if the cursor is not valid
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
     @RequestMapping(value = "/calendars",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Calendar>> getAllCalendars(Pageable pageable)
+    public ResponseEntity<List<Calendar>> getAllCalendars(Pageable pageable,
+    		@RequestParam(required = false) String cursor,
+    		@RequestParam(defaultValue = "false") boolean count)
         throws URISyntaxException {
         log.debug("REST request to get a page of Calendars");
-        Page<Calendar> page = calendarService.findAll(pageable); 
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/calendars");
-        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        if (cursor == null) {
+            Page<Calendar> page = calendarService.findAll(pageable); 
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/calendars");
+            return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        }
+        Long afterId = null;
+        if (!cursor.isEmpty()) {
+            try {
+                afterId = Long.valueOf(PaginationUtil.decodeCursor(cursor, 1).get(0));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("calendar", "cursorinvalid", 
+                		"The cursor is not valid")).body(null);
+            }
+        }
+        Slice<Calendar> slice = calendarService.findAllAfter(afterId, pageable.getPageSize());
+        HttpHeaders headers = PaginationUtil.generateCursorPaginationHttpHeaders(slice,
+        		c -> PaginationUtil.encodeCursor(c.getId()), count ? calendarService.count() : null, "/api/calendars");
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /calendars/changes : stream the calendar and holiday changes as Server-Sent Events.
+     * <p>
+     * Every committed change on any node of the cluster is sent as a {@value CalendarChangeStream#EVENT_NAME}
+     * event, with the entity name, id and change type and the key of the calendar changed.
+     *
+     * @param countries the country codes of the changes to stream, all the countries if not given
+     * @return the ResponseEntity with status 200 (OK) and the stream of the changes,
+     * or with status 503 (Service Unavailable) if this node has no room for another subscription
+     */
+    @RequestMapping(value = "/calendars/changes",
+        method = RequestMethod.GET,
+        produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> streamCalendarChanges(@RequestParam(required = false) Set<String> countries) {
+        log.debug("REST request to stream Calendar changes : {}", countries);
+        return calendarChangeStream.subscribe(countries)
+            .map(emitter -> new ResponseEntity<>(emitter, HttpStatus.OK))
+            .orElseGet(() -> new ResponseEntity<>(HeaderUtil.createFailureAlert("calendar", "subscriptionsfull",
+            		"Too many subscriptions to the calendar changes"), HttpStatus.SERVICE_UNAVAILABLE));
     }
 
     /**
@@ -149,15 +209,19 @@ public class CalendarResource {
      * GET  /calendars/country/:country/year/:year : get the "year" calendar.
      *
      * @param id the id of the calendar to retrieve
+     * @param region the region, its holidays are added to the ones of the country
+     * @param organisation the organisation, its holidays are added to the ones of the country and region
      * @return the ResponseEntity with status 200 (OK) and with body the calendar, or with status 404 (Not Found)
+     * when the country, region or organisation has no calendar for the year
      */
     @RequestMapping(value = "/calendars/country/{country}/year/{year}",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<CalendarYear> getCompleteCalendar(@PathVariable String country, @PathVariable Integer year) {
-        log.debug("REST request to get Calendar : {},{}", country, year);
-        Optional<CalendarYear> calendarYear = calendarService.getCalendarYear(country, year);
+    public ResponseEntity<CalendarYear> getCompleteCalendar(@PathVariable String country, @PathVariable Integer year,
+    		@RequestParam(required = false) String region, @RequestParam(required = false) String organisation) {
+        log.debug("REST request to get Calendar : {},{},{},{}", country, region, organisation, year);
+        Optional<CalendarYear> calendarYear = calendarService.getCalendarYear(country, region, organisation, year);
         return calendarYear
         	.map(result -> new ResponseEntity<>(
                 result,
@@ -169,15 +233,19 @@ public class CalendarResource {
      * GET  /calendars/country/:country/year/:year/padded : get the "year" calendar.
      *
      * @param id the id of the calendar to retrieve
+     * @param region the region, its holidays are added to the ones of the country
+     * @param organisation the organisation, its holidays are added to the ones of the country and region
      * @return the ResponseEntity with status 200 (OK) and with body the calendar, or with status 404 (Not Found)
+     * when the country, region or organisation has no calendar for the year
      */
     @RequestMapping(value = "/calendars/country/{country}/year/{year}/padded",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<CalendarYear> getCompletePaddedCalendar(@PathVariable String country, @PathVariable Integer year) {
-        log.debug("REST request to get Calendar : {},{}", country, year);
-        Optional<CalendarYear> calendarYear = calendarService.getPaddedCalendarYear(country, year);
+    public ResponseEntity<CalendarYear> getCompletePaddedCalendar(@PathVariable String country, @PathVariable Integer year,
+    		@RequestParam(required = false) String region, @RequestParam(required = false) String organisation) {
+        log.debug("REST request to get Calendar : {},{},{},{}", country, region, organisation, year);
+        Optional<CalendarYear> calendarYear = calendarService.getPaddedCalendarYear(country, region, organisation, year);
         return calendarYear
         	.map(result -> new ResponseEntity<>(
                 result,
@@ -206,19 +274,113 @@ public class CalendarResource {
      * GET  /calendars/next/work/day/:date : get the "next work date" calendar.
      *
      * @param date the date we want the next work day from.
-     * @return the ResponseEntity with status 200 (OK) and with body the date
+     * @param country the country calendar, when not set a holiday of any country is not a work day
+     * @param region the region of the country, its holidays are not work days either
+     * @param organisation the organisation, its holidays are not work days either
+     * @param pattern the working days of the week of a part-time schedule as a 7-bit mask, Monday being bit 0
+     * @return the ResponseEntity with status 200 (OK) and with body the date, or with status 400 (Bad Request)
+     * if the pattern is not valid, or with status 404 (Not Found) if the calendar has no work day in the year
+     * after the date
      */
     @RequestMapping(value = "/calendars/next/work/day/{date}",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<CalendarDay> getNextWorkDay(@PathVariable @DateTimeFormat(pattern="yyyy-MM-dd") Date date) {
-        log.debug("REST request to get next work date : {}", date);
-        LocalDate nextWorkDate = calendarService.getNextWorkDay(LocalDateTime.ofInstant(
-        		date.toInstant(), ZoneId.systemDefault()).toLocalDate());
-        CalendarDay day = new CalendarDay();
-        day.setDate(nextWorkDate);
-        return new ResponseEntity<>(day, HttpStatus.OK);
+    public ResponseEntity<CalendarDay> getNextWorkDay(@PathVariable @DateTimeFormat(pattern="yyyy-MM-dd") Date date,
+    		@RequestParam(required = false) String country, @RequestParam(required = false) String region,
+    		@RequestParam(required = false) String organisation, @RequestParam(required = false) Integer pattern) {
+        log.debug("REST request to get next work date : {}, {}, {}, {}, {}", country, region, organisation, pattern, date);
+        if (pattern != null && (country == null || !isValidPattern(pattern))) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("calendar", "patterninvalid", 
+            		"A working pattern needs a country and at least one day of the week")).body(null);
+        }
+        LocalDate localDate = LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()).toLocalDate();
+        Optional<LocalDate> nextWorkDate = country == null ? Optional.of(calendarService.getNextWorkDay(localDate))
+        		: calendarService.getNextWorkDay(country, region, organisation, pattern, localDate);
+        return nextWorkDate.map(nextDate -> {
+                CalendarDay day = new CalendarDay();
+                day.setDate(nextDate);
+                return new ResponseEntity<>(day, HttpStatus.OK);
+            })
+            .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
+    /**
+     * GET  /calendars/country/:country/working/days : count the working days between two dates.
+     *
+     * @param country the country calendar
+     * @param from the first date, included
+     * @param to the last date, included, at most {@value #MAX_RANGE_YEARS} years after the first one
+     * @param region the region of the country, its holidays are not working days either
+     * @param organisation the organisation, its holidays are not working days either
+     * @param pattern the working days of the week of a part-time schedule as a 7-bit mask, Monday being bit 0
+     * @return the ResponseEntity with status 200 (OK) and with body the number of working days,
+     * or with status 400 (Bad Request) if the pattern or the dates are not valid
+     */
+    @RequestMapping(value = "/calendars/country/{country}/working/days",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<WorkingDaysDTO> countWorkingDays(@PathVariable String country,
+    		@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+    		@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+    		@RequestParam(required = false) String region, @RequestParam(required = false) String organisation,
+    		@RequestParam(required = false) Integer pattern) {
+        log.debug("REST request to count working days : {}, {}, {}, {}, {}, {}", country, region, organisation, pattern, from, to);
+        if (pattern != null && !isValidPattern(pattern)) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("calendar", "patterninvalid", 
+            		"A working pattern needs at least one day of the week")).body(null);
+        }
+        if (!isValidRange(from, to)) {
+            return rangeInvalid();
+        }
+        long workingDays = calendarService.countWorkingDays(country, region, organisation, pattern, from, to);
+        return new ResponseEntity<>(new WorkingDaysDTO(from, to, pattern, workingDays), HttpStatus.OK);
+    }
+    
+    /**
+     * GET  /calendars/working/days : combine the working days of several countries between two dates.
+     *
+     * @param countries the country calendars, at most {@value #MAX_COUNTRIES}
+     * @param operation INTERSECTION for the days every country works, UNION for the days at least one country
+     * works, DIFFERENCE for the days the first country works and none of the others does
+     * @param from the first date, included
+     * @param to the last date, included, at most {@value #MAX_RANGE_YEARS} years after the first one
+     * @return the ResponseEntity with status 200 (OK) and with body the working days,
+     * or with status 400 (Bad Request) if the countries or the dates are not valid
+     */
+    @RequestMapping(value = "/calendars/working/days",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<WorkingDaySetDTO> getWorkingDays(@RequestParam List<String> countries,
+    		@RequestParam(defaultValue = "INTERSECTION") SetOperation operation,
+    		@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+    		@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.debug("REST request to get the {} of working days : {}, {}, {}", operation, countries, from, to);
+        if (countries.isEmpty() || countries.size() > MAX_COUNTRIES) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("calendar", "countriesinvalid", 
+            		"Between 1 and " + MAX_COUNTRIES + " countries can be combined")).body(null);
+        }
+        if (!isValidRange(from, to)) {
+            return rangeInvalid();
+        }
+        List<LocalDate> days = calendarService.getWorkingDays(countries, operation, from, to);
+        return new ResponseEntity<>(new WorkingDaySetDTO(operation, countries, from, to, days), HttpStatus.OK);
+    }
+    
+    private boolean isValidPattern(int pattern) {
+    	return pattern != 0 && WeekMask.isValid(pattern);
+    }
+    
+    private boolean isValidRange(LocalDate from, LocalDate to) {
+    	return !to.isBefore(from) && !to.isAfter(from.plusYears(MAX_RANGE_YEARS));
+    }
+    
+    private <T> ResponseEntity<T> rangeInvalid() {
+    	return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("calendar", "rangeinvalid", 
+    			"The end of the range must be after its start and at most " + MAX_RANGE_YEARS + " years later"))
+    		.body(null);
     }
 
 }
@@ -3,6 +3,9 @@ package com.evolvingreality.onleave.calendar.web.rest;
 import com.codahale.metrics.annotation.Timed;
 import com.evolvingreality.onleave.calendar.domain.Holiday;
 import com.evolvingreality.onleave.calendar.service.HolidayService;
+import com.evolvingreality.onleave.calendar.service.index.IndexedHoliday;
+import com.evolvingreality.onleave.calendar.web.rest.dto.HolidayChangeDTO;
+import com.evolvingreality.onleave.calendar.web.rest.dto.HolidayDTO;
 import com.evolvingreality.onleave.calendar.web.rest.util.HeaderUtil;
 import com.evolvingreality.onleave.calendar.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
@@ -10,6 +13,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -18,8 +23,13 @@ import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
 
 /**
  * REST controller for managing Holiday.
@@ -29,6 +39,12 @@ import java.util.Optional;
 public class HolidayResource {
 
     private final Logger log = LoggerFactory.getLogger(HolidayResource.class);
+
+    private static final int MAX_UPCOMING_HOLIDAYS = 100;
+
+    private static final int MAX_CHANGES = 5000;
+
+    private static final int MAX_RANGE_YEARS = 10;
         
     private final HolidayService holidayService;
     
@@ -85,21 +101,106 @@ public class HolidayResource {
 
     /**
      * GET  /holidays : get all the holidays.
+     * <p>
+     * Without a cursor the page is read with an offset, in the requested sort, and counted. With a cursor the
+     * holidays are read in date then id order after it, so every page costs the same whatever its depth: an empty
+     * cursor reads the first page, which links to the next one with the cursor of its last holiday.
      *
-     * @param pageable the pagination information
-     * @return the ResponseEntity with status 200 (OK) and the list of holidays in body
+     * @param pageable the pagination information, only its size is used after a cursor
+     * @param cursor the cursor of the next link, empty for the first page, none for offset pagination
+     * @param count true to get the total number of holidays in the X-Total-Count header after a cursor
+     * @return the ResponseEntity with status 200 (OK) and the list of holidays in body,
+     * or with status 400 (Bad Request) if the cursor is not valid
      * @throws URISyntaxException if there is an error to generate the pagination HTTP headers
      */
     @RequestMapping(value = "/holidays",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
     @Timed
-    public ResponseEntity<List<Holiday>> getAllHolidays(Pageable pageable)
+    public ResponseEntity<List<Holiday>> getAllHolidays(Pageable pageable,
+    		@RequestParam(required = false) String cursor,
+    		@RequestParam(defaultValue = "false") boolean count)
         throws URISyntaxException {
         log.debug("REST request to get a page of Holidays");
-        Page<Holiday> page = holidayService.findAll(pageable); 
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/holidays");
-        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        if (cursor == null) {
+            Page<Holiday> page = holidayService.findAll(pageable); 
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/holidays");
+            return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        }
+        LocalDate afterDate = null;
+        Long afterId = null;
+        if (!cursor.isEmpty()) {
+            try {
+                List<String> values = PaginationUtil.decodeCursor(cursor, 2);
+                afterDate = LocalDate.parse(values.get(0));
+                afterId = Long.valueOf(values.get(1));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("holiday", "cursorinvalid", 
+                		"The cursor is not valid")).body(null);
+            }
+        }
+        Slice<Holiday> slice = holidayService.findAllAfter(afterDate, afterId, pageable.getPageSize());
+        HttpHeaders headers = PaginationUtil.generateCursorPaginationHttpHeaders(slice,
+        		h -> PaginationUtil.encodeCursor(h.getHolidayDate(), h.getId()), count ? holidayService.count() : null,
+        		"/api/holidays");
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /holidays?country=:country&from=:from&to=:to : get the holidays of a country between two dates.
+     *
+     * @param country the country code
+     * @param from the first date, included
+     * @param to the last date, included, at most {@value #MAX_RANGE_YEARS} years after the first one
+     * @return the ResponseEntity with status 200 (OK) and with body the holidays of the national, regional and
+     * organisation calendars of the country in date order, or with status 400 (Bad Request) if the dates are
+     * not valid
+     */
+    @RequestMapping(value = "/holidays",
+        method = RequestMethod.GET,
+        params = "country",
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<List<HolidayDTO>> getHolidaysByCountry(@RequestParam String country,
+    		@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+    		@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.debug("REST request to get Holidays : {}, {}, {}", country, from, to);
+        if (to.isBefore(from) || to.isAfter(from.plusYears(MAX_RANGE_YEARS))) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("holiday", "rangeinvalid", 
+            		"The end of the range must be after its start and at most " + MAX_RANGE_YEARS + " years later"))
+            	.body(null);
+        }
+        return new ResponseEntity<>(holidayService.findByCountry(country, from, to), HttpStatus.OK);
+    }
+
+    /**
+     * GET  /holidays/changes?since=:version : get the holiday changes after a version of the holiday data.
+     * <p>
+     * Clients keep the X-Change-Version header of the response and send it back as the next version, repeating
+     * while the X-Has-More header is true. A change that is not a deletion carries the current state of its holiday.
+     *
+     * @param since the last version read, 0 or none to read every change
+     * @param size the maximum number of changes, up to {@value #MAX_CHANGES}
+     * @return the ResponseEntity with status 200 (OK) and with body the changes in version order,
+     * or with status 400 (Bad Request) if the size is out of range
+     */
+    @RequestMapping(value = "/holidays/changes",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<List<HolidayChangeDTO>> getHolidayChanges(@RequestParam(defaultValue = "0") long since,
+    		@RequestParam(defaultValue = "500") int size) {
+        log.debug("REST request to get Holiday changes after : {}", since);
+        if (size < 1 || size > MAX_CHANGES) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("holiday", "sizeinvalid", 
+            		"The size must be between 1 and " + MAX_CHANGES)).body(null);
+        }
+        Slice<HolidayChangeDTO> changes = holidayService.findChanges(since, size);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Change-Version", "" + (changes.hasContent()
+            ? changes.getContent().get(changes.getNumberOfElements() - 1).getVersion() : since));
+        headers.add("X-Has-More", "" + changes.hasNext());
+        return new ResponseEntity<>(changes.getContent(), headers, HttpStatus.OK);
     }
 
     /**
@@ -122,6 +223,71 @@ public class HolidayResource {
             .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * GET  /holidays/upcoming : get the next holidays, across all the countries or some of them.
+     *
+     * @param from the first date, included, today if not given
+     * @param limit the maximum number of holidays, up to {@value #MAX_UPCOMING_HOLIDAYS}
+     * @param countries the country codes, all the countries if not given
+     * @return the ResponseEntity with status 200 (OK) and with body the holidays in date order,
+     * or with status 400 (Bad Request) if the limit is out of range
+     */
+    @RequestMapping(value = "/holidays/upcoming",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<List<IndexedHoliday>> getUpcomingHolidays(
+    		@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+    		@RequestParam(defaultValue = "10") int limit,
+    		@RequestParam(required = false) Set<String> countries) {
+        log.debug("REST request to get upcoming Holidays : {}, {}, {}", from, limit, countries);
+        if (limit < 1 || limit > MAX_UPCOMING_HOLIDAYS) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("holiday", "limitinvalid", 
+            		"The limit must be between 1 and " + MAX_UPCOMING_HOLIDAYS)).body(null);
+        }
+        return new ResponseEntity<>(holidayService.findUpcomingHolidays(from == null ? LocalDate.now() : from, limit,
+        		countries == null ? Collections.emptySet() : countries), HttpStatus.OK);
+    }
+
+    /**
+     * GET  /holidays/on/:date : get the calendars with a holiday on the date.
+     *
+     * @param date the date
+     * @return the ResponseEntity with status 200 (OK) and with body the keys of the calendars, the country code
+     * for national calendars and country/region/organisation for the others
+     */
+    @RequestMapping(value = "/holidays/on/{date}",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<List<String>> getCalendarsOnHoliday(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.debug("REST request to get Calendars on holiday : {}", date);
+        return new ResponseEntity<>(holidayService.findCalendarsOnHoliday(date), HttpStatus.OK);
+    }
+
+    /**
+     * GET  /holidays/on?from=:from&to=:to : get the calendars with a holiday on each day of the range, for instance a week.
+     *
+     * @param from the first date, included
+     * @param to the last date, included
+     * @return the ResponseEntity with status 200 (OK) and with body the keys of the calendars by day with a holiday,
+     * or with status 400 (Bad Request) if the end of the range is before its start
+     */
+    @RequestMapping(value = "/holidays/on",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<SortedMap<LocalDate, List<String>>> getCalendarsOnHoliday(
+    		@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+    		@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.debug("REST request to get Calendars on holiday : {}, {}", from, to);
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("holiday", "rangeinvalid", 
+            		"The end of the range is before its start")).body(null);
+        }
+        return new ResponseEntity<>(holidayService.findCalendarsOnHoliday(from, to), HttpStatus.OK);
+    }
+
     /**
      * DELETE  /holidays/:id : delete the "id" holiday.
      *
@@ -1,6 +1,9 @@
 package com.evolvingreality.onleave.calendar.web.rest;
 
+import com.evolvingreality.onleave.calendar.aop.logging.LoggingAspect;
 import com.evolvingreality.onleave.calendar.web.rest.dto.LoggerDTO;
+import com.evolvingreality.onleave.calendar.web.rest.dto.LoggingAspectDTO;
+import com.evolvingreality.onleave.calendar.web.rest.util.HeaderUtil;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.LoggerContext;
@@ -8,18 +11,28 @@ import com.codahale.metrics.annotation.Timed;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.inject.Inject;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
- * Controller for view and managing Log Level at runtime.
+ * Controller for view and managing Log Level and the logging aspect mode at runtime.
  */
 @RestController
 @RequestMapping("/management/jhipster")
 public class LogsResource {
 
+    private final Optional<LoggingAspect> loggingAspect;
+
+    @Inject
+    public LogsResource(Optional<LoggingAspect> loggingAspect) {
+        this.loggingAspect = loggingAspect;
+    }
+
     @RequestMapping(value = "/logs",
         method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
@@ -40,4 +53,37 @@ public class LogsResource {
         LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
         context.getLogger(jsonLogger.getName()).setLevel(Level.valueOf(jsonLogger.getLevel()));
     }
+
+    @RequestMapping(value = "/logging-aspect",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public ResponseEntity<LoggingAspectDTO> getLoggingAspect() {
+        return loggingAspect
+            .map(aspect -> new ResponseEntity<>(new LoggingAspectDTO(aspect), HttpStatus.OK))
+            .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * PUT  /logging-aspect : switch the logging aspect to another mode.
+     *
+     * @param jsonAspect the mode, the sample rate and the maximum length of the arguments
+     * @return the ResponseEntity with status 204 (No Content), or with status 400 (Bad Request) if the mode is
+     * missing or the sample rate or the maximum length is not positive, or with status 404 (Not Found) if the
+     * aspect is not enabled
+     */
+    @RequestMapping(value = "/logging-aspect",
+        method = RequestMethod.PUT)
+    @Timed
+    public ResponseEntity<Void> changeLoggingAspect(@RequestBody LoggingAspectDTO jsonAspect) {
+        if (jsonAspect.getMode() == null || jsonAspect.getSampleRate() < 1 || jsonAspect.getMaxArgumentLength() < 1) {
+            return ResponseEntity.badRequest().headers(HeaderUtil.createFailureAlert("loggingAspect", "modeinvalid",
+                "A mode, a positive sample rate and a positive maximum argument length are needed")).build();
+        }
+        if (!loggingAspect.isPresent()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        loggingAspect.get().configure(jsonAspect.getMode(), jsonAspect.getSampleRate(), jsonAspect.getMaxArgumentLength());
+        return ResponseEntity.noContent().build();
+    }
 }
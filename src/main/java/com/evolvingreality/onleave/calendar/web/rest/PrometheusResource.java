@@ -0,0 +1,37 @@
+package com.evolvingreality.onleave.calendar.web.rest;
+
+import com.evolvingreality.onleave.calendar.config.metrics.PrometheusTextWriter;
+
+import com.codahale.metrics.MetricRegistry;
+import com.netflix.spectator.api.Registry;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Controller for scraping the metrics with Prometheus.
+ */
+@RestController
+@RequestMapping("/management")
+public class PrometheusResource {
+
+    private final PrometheusTextWriter prometheusTextWriter;
+
+    @Inject
+    public PrometheusResource(MetricRegistry metricRegistry, Optional<Registry> spectatorRegistry) {
+        this.prometheusTextWriter = new PrometheusTextWriter(metricRegistry, spectatorRegistry.orElse(null));
+    }
+
+    /**
+     * GET  /prometheus : get the Dropwizard, JVM and Spectator metrics in the Prometheus text format.
+     */
+    @RequestMapping(value = "/prometheus",
+        method = RequestMethod.GET)
+    public void getMetrics(HttpServletResponse response) throws IOException {
+        response.setContentType(PrometheusTextWriter.CONTENT_TYPE);
+        prometheusTextWriter.write(response.getWriter());
+    }
+}
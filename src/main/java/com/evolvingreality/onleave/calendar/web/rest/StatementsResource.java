@@ -0,0 +1,46 @@
+package com.evolvingreality.onleave.calendar.web.rest;
+
+import com.evolvingreality.onleave.calendar.config.metrics.StatementMetrics;
+import com.evolvingreality.onleave.calendar.web.rest.dto.StatementDTO;
+
+import com.codahale.metrics.annotation.Timed;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import javax.inject.Inject;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Controller for viewing the SQL statements that took the most database time.
+ */
+@RestController
+@RequestMapping("/management/jhipster")
+public class StatementsResource {
+
+    private static final int MAX_STATEMENTS = 100;
+
+    private final StatementMetrics statementMetrics;
+
+    @Inject
+    public StatementsResource(StatementMetrics statementMetrics) {
+        this.statementMetrics = statementMetrics;
+    }
+
+    /**
+     * GET  /statements : get the statement shapes with the highest total time.
+     *
+     * @param limit the number of statements, at most {@value #MAX_STATEMENTS}
+     * @return the statements, slowest in total first
+     */
+    @RequestMapping(value = "/statements",
+        method = RequestMethod.GET,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    @Timed
+    public List<StatementDTO> getTopStatements(@RequestParam(defaultValue = "20") int limit) {
+        return statementMetrics.getTop(Math.max(0, Math.min(limit, MAX_STATEMENTS)))
+            .stream()
+            .map(StatementDTO::new)
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,49 @@
+package com.evolvingreality.onleave.calendar.web.rest.dto;
+
+import com.evolvingreality.onleave.calendar.domain.HolidayChange.ChangeType;
+
+/**
+ * A change of the holiday change feed, with the current state of the holiday unless it was deleted since.
+ */
+public class HolidayChangeDTO {
+
+    private Long version;
+
+    private ChangeType changeType;
+
+    private Long holidayId;
+
+    private HolidayDTO holiday;
+
+    public HolidayChangeDTO(Long version, ChangeType changeType, Long holidayId, HolidayDTO holiday) {
+        this.version = version;
+        this.changeType = changeType;
+        this.holidayId = holidayId;
+        this.holiday = holiday;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public Long getHolidayId() {
+        return holidayId;
+    }
+
+    public HolidayDTO getHoliday() {
+        return holiday;
+    }
+
+    @Override
+    public String toString() {
+        return "HolidayChangeDTO{" +
+            "version=" + version +
+            ", changeType='" + changeType + '\'' +
+            ", holidayId=" + holidayId +
+            '}';
+    }
+}
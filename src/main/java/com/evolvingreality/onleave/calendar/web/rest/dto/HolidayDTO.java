@@ -0,0 +1,82 @@
+package com.evolvingreality.onleave.calendar.web.rest.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A holiday with the identity of its calendar, read with a constructor expression rather than as entities.
+ */
+public class HolidayDTO {
+
+    private Long id;
+
+    private String name;
+
+    private String description;
+
+    private LocalDate holidayDate;
+
+    private Long calendarId;
+
+    private String country;
+
+    private String region;
+
+    private String organisation;
+
+    public HolidayDTO(Long id, String name, String description, LocalDate holidayDate, Long calendarId,
+                      String country, String region, String organisation) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.holidayDate = holidayDate;
+        this.calendarId = calendarId;
+        this.country = country;
+        this.region = region;
+        this.organisation = organisation;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public LocalDate getHolidayDate() {
+        return holidayDate;
+    }
+
+    public Long getCalendarId() {
+        return calendarId;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getOrganisation() {
+        return organisation;
+    }
+
+    @Override
+    public String toString() {
+        return "HolidayDTO{" +
+            "id=" + id +
+            ", name='" + name + '\'' +
+            ", holidayDate='" + holidayDate + '\'' +
+            ", calendarId=" + calendarId +
+            ", country='" + country + '\'' +
+            ", region='" + region + '\'' +
+            ", organisation='" + organisation + '\'' +
+            '}';
+    }
+}
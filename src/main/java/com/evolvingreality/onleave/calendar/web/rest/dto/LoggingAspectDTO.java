@@ -0,0 +1,60 @@
+package com.evolvingreality.onleave.calendar.web.rest.dto;
+
+import com.evolvingreality.onleave.calendar.aop.logging.LoggingAspect;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * View Model object for storing the mode of the logging aspect.
+ */
+public class LoggingAspectDTO {
+
+    private LoggingAspect.Mode mode;
+
+    private int sampleRate;
+
+    private int maxArgumentLength;
+
+    public LoggingAspectDTO(LoggingAspect loggingAspect) {
+        this.mode = loggingAspect.getMode();
+        this.sampleRate = loggingAspect.getSampleRate();
+        this.maxArgumentLength = loggingAspect.getMaxArgumentLength();
+    }
+
+    @JsonCreator
+    public LoggingAspectDTO() {
+    }
+
+    public LoggingAspect.Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(LoggingAspect.Mode mode) {
+        this.mode = mode;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public int getMaxArgumentLength() {
+        return maxArgumentLength;
+    }
+
+    public void setMaxArgumentLength(int maxArgumentLength) {
+        this.maxArgumentLength = maxArgumentLength;
+    }
+
+    @Override
+    public String toString() {
+        return "LoggingAspectDTO{" +
+            "mode='" + mode + '\'' +
+            ", sampleRate=" + sampleRate +
+            ", maxArgumentLength=" + maxArgumentLength +
+            '}';
+    }
+}
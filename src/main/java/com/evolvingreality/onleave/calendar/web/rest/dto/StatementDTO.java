@@ -0,0 +1,89 @@
+package com.evolvingreality.onleave.calendar.web.rest.dto;
+
+import com.evolvingreality.onleave.calendar.config.metrics.StatementMetrics.StatementStats;
+
+import com.codahale.metrics.Snapshot;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The executions of a SQL statement shape, with durations in milliseconds.
+ */
+public class StatementDTO {
+
+    private String id;
+
+    private String shape;
+
+    private long count;
+
+    private double totalMillis;
+
+    private double meanMillis;
+
+    private double p99Millis;
+
+    private double maxMillis;
+
+    private long totalRows;
+
+    public StatementDTO(StatementStats stats) {
+        Snapshot snapshot = stats.getSnapshot();
+        this.id = stats.getId();
+        this.shape = stats.getShape();
+        this.count = stats.getCount();
+        this.totalMillis = millis(stats.getTotalNanos());
+        this.meanMillis = millis(snapshot.getMean());
+        this.p99Millis = millis(snapshot.get99thPercentile());
+        this.maxMillis = millis(snapshot.getMax());
+        this.totalRows = stats.getTotalRows();
+    }
+
+    private static double millis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementDTO{" +
+            "id='" + id + '\'' +
+            ", count=" + count +
+            ", totalMillis=" + totalMillis +
+            ", meanMillis=" + meanMillis +
+            ", totalRows=" + totalRows +
+            ", shape='" + shape + '\'' +
+            '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.evolvingreality.onleave.calendar.web.rest.dto;
+
+import com.evolvingreality.onleave.calendar.service.index.SetOperation;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The working days resulting from a set operation on several country calendars.
+ */
+public class WorkingDaySetDTO {
+
+    private SetOperation operation;
+
+    private List<String> countries;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private List<LocalDate> days;
+
+    public WorkingDaySetDTO(SetOperation operation, List<String> countries, LocalDate from, LocalDate to,
+                            List<LocalDate> days) {
+        this.operation = operation;
+        this.countries = countries;
+        this.from = from;
+        this.to = to;
+        this.days = days;
+    }
+
+    public SetOperation getOperation() {
+        return operation;
+    }
+
+    public List<String> getCountries() {
+        return countries;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public List<LocalDate> getDays() {
+        return days;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkingDaySetDTO{" +
+            "operation=" + operation +
+            ", countries=" + countries +
+            ", from='" + from + '\'' +
+            ", to='" + to + '\'' +
+            ", days=" + days.size() +
+            '}';
+    }
+}
@@ -0,0 +1,50 @@
+package com.evolvingreality.onleave.calendar.web.rest.dto;
+
+import java.time.LocalDate;
+
+/**
+ * The number of working days of a calendar between two dates.
+ */
+public class WorkingDaysDTO {
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private Integer pattern;
+
+    private long workingDays;
+
+    public WorkingDaysDTO(LocalDate from, LocalDate to, Integer pattern, long workingDays) {
+        this.from = from;
+        this.to = to;
+        this.pattern = pattern;
+        this.workingDays = workingDays;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public Integer getPattern() {
+        return pattern;
+    }
+
+    public long getWorkingDays() {
+        return workingDays;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkingDaysDTO{" +
+            "from='" + from + '\'' +
+            ", to='" + to + '\'' +
+            ", pattern='" + pattern + '\'' +
+            ", workingDays=" + workingDays +
+            '}';
+    }
+}
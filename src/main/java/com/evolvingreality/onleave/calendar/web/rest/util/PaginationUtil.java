@@ -1,11 +1,18 @@
 package com.evolvingreality.onleave.calendar.web.rest.util;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Utility class for handling pagination.
@@ -13,9 +20,14 @@ import java.net.URISyntaxException;
  * <p>
  * Pagination uses the same principles as the <a href="https://developer.github.com/v3/#pagination">Github API</a>,
  * and follow <a href="http://tools.ietf.org/html/rfc5988">RFC 5988 (Link header)</a>.
+ * <p>
+ * Pages read after a cursor, the opaque position of the last element of the previous page, link to the next
+ * page with the cursor of their own last element. They need neither an offset scan nor a count query.
  */
 public class PaginationUtil {
 
+    private static final String CURSOR_SEPARATOR = ",";
+
     public static HttpHeaders generatePaginationHttpHeaders(Page<?> page, String baseUrl)
         throws URISyntaxException {
 
@@ -40,6 +52,51 @@ public class PaginationUtil {
         return headers;
     }
 
+    /**
+     * @param slice the page read after a cursor
+     * @param cursorOf the cursor of an element, see {@link #encodeCursor(Object...)}
+     * @param totalCount the total number of elements, or null if not asked for
+     * @param baseUrl the url of the resource
+     */
+    public static <T> HttpHeaders generateCursorPaginationHttpHeaders(Slice<T> slice, Function<T, String> cursorOf,
+                                                                      Long totalCount, String baseUrl) {
+
+        HttpHeaders headers = new HttpHeaders();
+        if (totalCount != null) {
+            headers.add("X-Total-Count", "" + totalCount);
+        }
+        String link = "";
+        if (slice.hasNext()) {
+            String cursor = cursorOf.apply(slice.getContent().get(slice.getNumberOfElements() - 1));
+            link = "<" + UriComponentsBuilder.fromUriString(baseUrl).queryParam("cursor", cursor)
+                .queryParam("size", slice.getSize()).toUriString() + ">; rel=\"next\",";
+        }
+        link += "<" + UriComponentsBuilder.fromUriString(baseUrl).queryParam("size", slice.getSize()).toUriString()
+            + ">; rel=\"first\"";
+        headers.add(HttpHeaders.LINK, link);
+        return headers;
+    }
+
+    public static String encodeCursor(Object... values) {
+        String cursor = Arrays.stream(values).map(String::valueOf).collect(Collectors.joining(CURSOR_SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor the cursor, see {@link #encodeCursor(Object...)}
+     * @param size the expected number of values
+     * @return the values of the cursor
+     * @throws IllegalArgumentException if the cursor is not a cursor of this number of values
+     */
+    public static List<String> decodeCursor(String cursor, int size) {
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        List<String> values = Arrays.asList(decoded.split(CURSOR_SEPARATOR, -1));
+        if (values.size() != size) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+        return values;
+    }
+
     private static String generateUri(String baseUrl, int page, int size) throws URISyntaxException {
         return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).toUriString();
     }
@@ -0,0 +1,64 @@
+import _root_.io.gatling.core.scenario.Simulation
+import ch.qos.logback.classic.{Level, LoggerContext}
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import org.slf4j.LoggerFactory
+
+import scala.concurrent.duration._
+
+/**
+ * Performance test for the public calendar reads of the security fast lane.
+ *
+ * Run it once against the application with jhipster.security.fastLane.enabled and once without: the difference of
+ * the response times is the cost of the security filter chain and of the token resolution per request. The reads
+ * are sent with the token of the "token" system property when set, as the requests relayed by the gateway are.
+ */
+class CalendarFastLaneGatlingTest extends Simulation {
+
+    val context: LoggerContext = LoggerFactory.getILoggerFactory.asInstanceOf[LoggerContext]
+    // Log all HTTP requests
+    //context.getLogger("io.gatling.http").setLevel(Level.valueOf("TRACE"))
+    // Log failed HTTP requests
+    //context.getLogger("io.gatling.http").setLevel(Level.valueOf("DEBUG"))
+
+    val baseURL = Option(System.getProperty("baseURL")) getOrElse """http://127.0.0.1:8080"""
+
+    val country = Option(System.getProperty("country")) getOrElse "IE"
+
+    val httpConf = http
+        .baseURL(baseURL)
+        .acceptHeader("*/*")
+        .acceptEncodingHeader("gzip, deflate")
+        .connection("keep-alive")
+        .userAgentHeader("Mozilla/5.0 (Macintosh; Intel Mac OS X 10.10; rv:33.0) Gecko/20100101 Firefox/33.0")
+
+    val headers_http = Map(
+        "Accept" -> """application/json"""
+    ) ++ Option(System.getProperty("token")).map(token => "Authorization" -> ("Bearer " + token))
+
+    val scn = scenario("Read public calendars")
+        .repeat(200) {
+            exec(http("Get countries")
+            .get("/api/calendars/countries")
+            .headers(headers_http)
+            .check(status.is(200)))
+            .exec(http("Get calendar year")
+            .get("/api/calendars/country/" + country + "/year/2016")
+            .headers(headers_http)
+            .check(status.is(200)))
+            .exec(http("Get padded calendar year")
+            .get("/api/calendars/country/" + country + "/year/2016/padded")
+            .headers(headers_http)
+            .check(status.is(200)))
+            .exec(http("Get next work day")
+            .get("/api/calendars/next/work/day/2016-12-24?country=" + country)
+            .headers(headers_http)
+            .check(status.is(200)))
+        }
+
+    val users = scenario("Users").exec(scn)
+
+    setUp(
+        users.inject(rampUsers(50) over (30 seconds))
+    ).protocols(httpConf)
+}
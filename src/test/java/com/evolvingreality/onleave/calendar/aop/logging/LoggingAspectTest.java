@@ -0,0 +1,117 @@
+package com.evolvingreality.onleave.calendar.aop.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.codahale.metrics.MetricRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the LoggingAspect.
+ *
+ * @see LoggingAspect
+ */
+public class LoggingAspectTest {
+
+    private static final int MAX_ARGUMENT_LENGTH = 10;
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(LoggingAspect.class);
+
+    private Level level;
+
+    private ListAppender<ILoggingEvent> appender;
+
+    private MetricRegistry metricRegistry;
+
+    private ProceedingJoinPoint joinPoint;
+
+    @Before
+    public void initTest() throws Throwable {
+        level = logger.getLevel();
+        // The level of prod
+        logger.setLevel(Level.INFO);
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        metricRegistry = new MetricRegistry();
+
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getDeclaringTypeName()).thenReturn("CalendarService");
+        when(signature.getName()).thenReturn("toString");
+        when(signature.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(new Object[] {"an argument longer than the maximum"});
+        when(joinPoint.proceed()).thenReturn("result");
+    }
+
+    @After
+    public void cleanup() {
+        logger.detachAppender(appender);
+        logger.setLevel(level);
+    }
+
+    @Test
+    public void offCallsThrough() throws Throwable {
+        Object result = aspect(LoggingAspect.Mode.OFF).logAround(joinPoint);
+
+        assertThat(result).isEqualTo("result");
+        assertThat(appender.list).isEmpty();
+        assertThat(metricRegistry.getTimers()).isEmpty();
+    }
+
+    @Test
+    public void logIsAtDebugLevel() throws Throwable {
+        aspect(LoggingAspect.Mode.LOG).logAround(joinPoint);
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    public void samplesAreLoggedAtInfoLevelTruncated() throws Throwable {
+        Object result = aspect(LoggingAspect.Mode.SAMPLED).logAround(joinPoint);
+
+        assertThat(result).isEqualTo("result");
+        assertThat(appender.list).extracting("level").containsExactly(Level.INFO, Level.INFO);
+        assertThat(appender.list.get(0).getFormattedMessage())
+            .isEqualTo("Enter: CalendarService.toString() with argument[s] = [an argume...(37 chars)");
+        assertThat(appender.list.get(1).getFormattedMessage())
+            .isEqualTo("Exit: CalendarService.toString() with result = result");
+    }
+
+    @Test
+    public void timingRecordsATimer() throws Throwable {
+        aspect(LoggingAspect.Mode.TIMING).logAround(joinPoint);
+        aspect(LoggingAspect.Mode.TIMING).logAround(joinPoint);
+
+        assertThat(metricRegistry.timer("aspect.CalendarService.toString").getCount()).isEqualTo(2);
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configureRejectsASampleRateOfZero() {
+        aspect(LoggingAspect.Mode.OFF).configure(LoggingAspect.Mode.SAMPLED, 0, MAX_ARGUMENT_LENGTH);
+    }
+
+    /**
+     * @return the aspect in the mode, sampling every call
+     */
+    private LoggingAspect aspect(LoggingAspect.Mode mode) {
+        LoggingAspect aspect = new LoggingAspect(mode, 1, MAX_ARGUMENT_LENGTH);
+        ReflectionTestUtils.setField(aspect, "metricRegistry", metricRegistry);
+        // Without the log of the mode
+        appender.list.clear();
+        return aspect;
+    }
+}
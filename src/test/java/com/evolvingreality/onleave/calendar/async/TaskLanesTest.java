@@ -0,0 +1,99 @@
+package com.evolvingreality.onleave.calendar.async;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the TaskLanes.
+ *
+ * @see TaskLanes
+ */
+public class TaskLanesTest {
+
+    private MetricRegistry metricRegistry;
+
+    private TaskExecutorAdapter defaultExecutor;
+
+    private TaskLanes taskLanes;
+
+    @Before
+    public void initTest() {
+        metricRegistry = new MetricRegistry();
+        defaultExecutor = new TaskExecutorAdapter(Runnable::run);
+        taskLanes = new TaskLanes(defaultExecutor);
+        taskLanes.add(lane(TaskLanes.REFRESH));
+        taskLanes.add(lane(TaskLanes.CHANGE_STREAM));
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        taskLanes.destroy();
+    }
+
+    @Test
+    public void laneRunsOnItsOwnPool() throws Exception {
+        Future<String> thread = taskLanes.get(TaskLanes.REFRESH).submit(() -> Thread.currentThread().getName());
+
+        assertThat(thread.get(10, TimeUnit.SECONDS)).startsWith("calendar-" + TaskLanes.REFRESH + "-");
+        assertThat(metricRegistry.timer(MetricRegistry.name("executor", TaskLanes.REFRESH, "running")).getCount())
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void laneThatIsNotConfiguredRunsOnTheDefaultExecutor() {
+        assertThat(taskLanes.get(TaskLanes.WARM_UP)).isSameAs(defaultExecutor);
+    }
+
+    @Test
+    public void fullLaneDoesNotHoldBackTheOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // The thread of the lane is busy and its queue is full
+            taskLanes.get(TaskLanes.REFRESH).execute(() -> await(release));
+            taskLanes.get(TaskLanes.REFRESH).execute(() -> { });
+            try {
+                taskLanes.get(TaskLanes.REFRESH).execute(() -> { });
+                throw new AssertionError("The task was accepted by a full lane");
+            } catch (TaskRejectedException e) {
+                assertThat(metricRegistry.meter(MetricRegistry.name("executor", TaskLanes.REFRESH, "rejections"))
+                    .getCount()).isEqualTo(1);
+            }
+
+            Future<?> change = taskLanes.get(TaskLanes.CHANGE_STREAM).submit(() -> { });
+
+            change.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * @return a lane of a single thread queueing a single task
+     */
+    private InstrumentedTaskExecutor lane(String name) {
+        InstrumentedTaskExecutor executor = new InstrumentedTaskExecutor(name, metricRegistry);
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        return executor;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
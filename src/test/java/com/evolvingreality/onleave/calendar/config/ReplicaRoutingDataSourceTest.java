@@ -0,0 +1,127 @@
+package com.evolvingreality.onleave.calendar.config;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the ReplicaRoutingDataSource.
+ *
+ * @see ReplicaRoutingDataSource
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private static final String REPLICA = "replica-1";
+
+    private static final int HEALTH_CHECK_INTERVAL_SECONDS = 3600;
+
+    private MetricRegistry metricRegistry;
+
+    private FailingDataSource replica;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private DataSourceTransactionManager transactionManager;
+
+    @Before
+    public void initTest() {
+        metricRegistry = new MetricRegistry();
+        replica = new FailingDataSource(database("replica"));
+        routingDataSource = new ReplicaRoutingDataSource(database("primary"),
+            Collections.singletonMap(REPLICA, replica), HEALTH_CHECK_INTERVAL_SECONDS, metricRegistry);
+        transactionManager = new DataSourceTransactionManager(routingDataSource);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        routingDataSource.close();
+    }
+
+    @Test
+    public void readOnlyTransactionReadsFromTheReplica() {
+        assertThat(readDatabase(true, null)).isEqualTo("replica");
+        assertThat(fallbacks()).isEqualTo(0);
+    }
+
+    @Test
+    public void readWriteTransactionReadsFromThePrimary() {
+        assertThat(readDatabase(false, null)).isEqualTo("primary");
+    }
+
+    @Test
+    public void readOnlyTransactionNamedPrimaryReadsFromThePrimary() {
+        assertThat(readDatabase(true, ReplicaRoutingDataSource.PRIMARY)).isEqualTo("primary");
+        assertThat(fallbacks()).isEqualTo(0);
+    }
+
+    @Test
+    public void failingReplicaFallsBackToThePrimary() {
+        replica.failing = true;
+
+        assertThat(readDatabase(true, null)).isEqualTo("primary");
+        assertThat(routingDataSource.getReplicasUp()).isEmpty();
+        assertThat(fallbacks()).isEqualTo(1);
+    }
+
+    /**
+     * @return the name of the database read by a transaction
+     */
+    private String readDatabase(boolean readOnly, String name) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        transactionTemplate.setName(name);
+        return transactionTemplate.execute(status ->
+            new JdbcTemplate(routingDataSource).queryForObject("select name from database_name", String.class));
+    }
+
+    private long fallbacks() {
+        return metricRegistry.meter(MetricRegistry.name(ReplicaRoutingDataSource.class, "fallbacks")).getCount();
+    }
+
+    /**
+     * @return an in-memory database holding its name
+     */
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists database_name (name varchar(16))");
+        jdbcTemplate.execute("delete from database_name");
+        jdbcTemplate.update("insert into database_name (name) values (?)", name);
+        return dataSource;
+    }
+
+    /**
+     * A data source refusing its connections while failing, as a replica which is down.
+     */
+    private static class FailingDataSource extends DelegatingDataSource {
+
+        private volatile boolean failing;
+
+        FailingDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.evolvingreality.onleave.calendar.config.logging;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the LogEventRingBuffer.
+ *
+ * @see LogEventRingBuffer
+ */
+public class LogEventRingBufferTest {
+
+    @Test
+    public void capacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new LogEventRingBuffer<String>(1000).capacity()).isEqualTo(1024);
+        assertThat(new LogEventRingBuffer<String>(1024).capacity()).isEqualTo(1024);
+        assertThat(new LogEventRingBuffer<String>(1).capacity()).isEqualTo(2);
+    }
+
+    @Test
+    public void drainsInOrder() {
+        LogEventRingBuffer<String> buffer = new LogEventRingBuffer<>(4);
+        buffer.offer("a", 4);
+        buffer.offer("b", 4);
+        buffer.offer("c", 4);
+
+        List<String> batch = new ArrayList<>();
+        assertThat(buffer.drainTo(batch, 2)).isEqualTo(2);
+        assertThat(batch).containsExactly("a", "b");
+        assertThat(buffer.size()).isEqualTo(1);
+
+        batch.clear();
+        assertThat(buffer.drainTo(batch, 10)).isEqualTo(1);
+        assertThat(batch).containsExactly("c");
+        assertThat(buffer.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void offerFailsFromTheLimit() {
+        LogEventRingBuffer<String> buffer = new LogEventRingBuffer<>(4);
+
+        assertThat(buffer.offer("a", 2)).isTrue();
+        assertThat(buffer.offer("b", 2)).isTrue();
+        assertThat(buffer.offer("c", 2)).isFalse();
+        assertThat(buffer.offer("c", 4)).isTrue();
+        assertThat(buffer.offer("d", 4)).isTrue();
+        assertThat(buffer.offer("e", 4)).isFalse();
+    }
+
+    @Test
+    public void slotsAreReusedOnceDrained() {
+        LogEventRingBuffer<Integer> buffer = new LogEventRingBuffer<>(2);
+        List<Integer> batch = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(buffer.offer(i, 2)).isTrue();
+            buffer.drainTo(batch, 2);
+        }
+
+        assertThat(batch).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    public void concurrentProducersLoseNothingAccepted() throws Exception {
+        int producers = 4;
+        int perProducer = 10000;
+        LogEventRingBuffer<Integer> buffer = new LogEventRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(i, buffer.capacity())) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        List<Integer> batch = new ArrayList<>();
+        while (batch.size() < producers * perProducer) {
+            if (buffer.drainTo(batch, 256) == 0) {
+                Thread.yield();
+            }
+        }
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        assertThat(batch).hasSize(producers * perProducer);
+        assertThat(buffer.size()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,75 @@
+package com.evolvingreality.onleave.calendar.config.metrics;
+
+import com.codahale.metrics.Snapshot;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Test class for the HdrHistogramReservoir.
+ *
+ * @see HdrHistogramReservoir
+ */
+public class HdrHistogramReservoirTest {
+
+    @Test
+    public void snapshotOfTheLastInterval() {
+        HdrHistogramReservoir reservoir = new HdrHistogramReservoir(0, 3);
+        for (long value = 1; value <= 1000; value++) {
+            reservoir.update(value);
+        }
+
+        Snapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(snapshot.size()).isEqualTo(1000);
+        assertThat(snapshot.getMin()).isEqualTo(1);
+        assertThat(snapshot.getMax()).isEqualTo(1000);
+        assertThat(snapshot.getMean()).isCloseTo(500.5, within(0.5));
+        assertThat(snapshot.getMedian()).isCloseTo(500, within(1.0));
+        assertThat(snapshot.get99thPercentile()).isCloseTo(990, within(1.0));
+    }
+
+    @Test
+    public void valuesOfAnIntervalAreOnlySeenOnce() {
+        HdrHistogramReservoir reservoir = new HdrHistogramReservoir(0, 3);
+        reservoir.update(42);
+
+        assertThat(reservoir.getSnapshot().getMax()).isEqualTo(42);
+        Snapshot next = reservoir.getSnapshot();
+        assertThat(next.size()).isEqualTo(0);
+        assertThat(next.getMax()).isEqualTo(0);
+        assertThat(next.getMean()).isEqualTo(0);
+    }
+
+    @Test
+    public void snapshotIsSharedWithinAnInterval() {
+        HdrHistogramReservoir reservoir = new HdrHistogramReservoir(3600, 3);
+        Snapshot first = reservoir.getSnapshot();
+        reservoir.update(42);
+
+        assertThat(reservoir.getSnapshot()).isSameAs(first);
+        assertThat(reservoir.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void negativeValuesAreRecordedAsZero() {
+        HdrHistogramReservoir reservoir = new HdrHistogramReservoir(0, 3);
+        reservoir.update(-5);
+
+        Snapshot snapshot = reservoir.getSnapshot();
+
+        assertThat(snapshot.size()).isEqualTo(1);
+        assertThat(snapshot.getMin()).isEqualTo(0);
+    }
+
+    @Test
+    public void valuesHaveOneEntryPerDistinctValue() {
+        HdrHistogramReservoir reservoir = new HdrHistogramReservoir(0, 3);
+        reservoir.update(7);
+        reservoir.update(7);
+        reservoir.update(9);
+
+        assertThat(reservoir.getSnapshot().getValues()).containsExactly(7, 9);
+    }
+}
@@ -0,0 +1,105 @@
+package com.evolvingreality.onleave.calendar.config.metrics;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the PrometheusTextWriter.
+ *
+ * @see PrometheusTextWriter
+ */
+public class PrometheusTextWriterTest {
+
+    private MetricRegistry metricRegistry;
+
+    private PrometheusTextWriter writer;
+
+    @Before
+    public void initTest() {
+        metricRegistry = new MetricRegistry();
+        writer = new PrometheusTextWriter(metricRegistry, null);
+    }
+
+    @Test
+    public void countersAndMeters() throws IOException {
+        metricRegistry.counter("calendar.cache.misses").inc(3);
+        metricRegistry.meter("calendar.requests").mark(2);
+
+        String text = scrape();
+
+        assertThat(text).contains("# TYPE calendar_cache_misses gauge\ncalendar_cache_misses 3\n");
+        assertThat(text).contains("# TYPE calendar_requests_total counter\ncalendar_requests_total 2\n");
+    }
+
+    @Test
+    public void summingTimerHasASum() throws IOException {
+        SummingTimer timer = metricRegistry.register("calendar.load",
+            new SummingTimer(new ExponentiallyDecayingReservoir()));
+        timer.update(1, TimeUnit.SECONDS);
+        timer.update(500, TimeUnit.MILLISECONDS);
+
+        String text = scrape();
+
+        assertThat(text).contains("# TYPE calendar_load_seconds summary\n");
+        assertThat(text).contains("calendar_load_seconds{quantile=\"0.5\"} ");
+        assertThat(text).contains("calendar_load_seconds_sum 1.5\n");
+        assertThat(text).contains("calendar_load_seconds_count 2\n");
+        assertThat(text).contains("# TYPE calendar_load_seconds_max gauge\ncalendar_load_seconds_max 1.0\n");
+    }
+
+    @Test
+    public void plainTimerHasNoSum() throws IOException {
+        Timer timer = metricRegistry.register("calendar.load", new Timer());
+        timer.update(1, TimeUnit.SECONDS);
+
+        String text = scrape();
+
+        assertThat(text).contains("calendar_load_seconds_count 1\n");
+        assertThat(text).doesNotContain("_sum");
+    }
+
+    @Test
+    public void onlyTheFirstOfCollidingMetricsIsWritten() throws IOException {
+        metricRegistry.counter("calendar.hits").inc(1);
+        metricRegistry.counter("calendar_hits").inc(2);
+
+        String text = scrape();
+
+        assertThat(text.split("# TYPE calendar_hits ", -1)).hasSize(2);
+        // The registry sorts the metrics by name, so the dotted one comes first
+        assertThat(text).contains("calendar_hits 1\n").doesNotContain("calendar_hits 2\n");
+    }
+
+    @Test
+    public void collisionsAreResolvedAgainOnEveryScrape() throws IOException {
+        metricRegistry.counter("calendar.hits").inc(1);
+        metricRegistry.counter("calendar_hits").inc(2);
+        scrape();
+
+        String text = scrape();
+
+        assertThat(text).contains("# TYPE calendar_hits gauge\ncalendar_hits 1\n");
+    }
+
+    @Test
+    public void sanitize() {
+        assertThat(PrometheusTextWriter.sanitize("jvm.memory.heap-used")).isEqualTo("jvm_memory_heap_used");
+        assertThat(PrometheusTextWriter.sanitize("5xx")).isEqualTo("_5xx");
+        assertThat(PrometheusTextWriter.sanitize("")).isEqualTo("_");
+    }
+
+    private String scrape() throws IOException {
+        StringWriter out = new StringWriter();
+        writer.write(out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.evolvingreality.onleave.calendar.config.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the StatementMetrics.
+ *
+ * @see StatementMetrics
+ */
+public class StatementMetricsTest {
+
+    private MetricRegistry metricRegistry;
+
+    private StatementMetrics statementMetrics;
+
+    @Before
+    public void initTest() {
+        metricRegistry = new MetricRegistry();
+        statementMetrics = new StatementMetrics(metricRegistry, 0, 2);
+    }
+
+    @Test
+    public void shapeCollapsesLiteralsAndParameterLists() {
+        assertThat(StatementMetrics.shape("select * from holiday where name = 'It''s'  and id in (?, ?, ?)"))
+            .isEqualTo("select * from holiday where name = ? and id in (?)");
+        assertThat(StatementMetrics.shape("select * from calendar where year = 2016"))
+            .isEqualTo("select * from calendar where year = ?");
+    }
+
+    @Test
+    public void executionsOfAShapeAddUp() {
+        statementMetrics.record("select * from calendar where id = 1", 1000, 1);
+        statementMetrics.record("select * from calendar where id = 2", 3000, 0);
+
+        List<StatementMetrics.StatementStats> top = statementMetrics.getTop(10);
+
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).getTotalNanos()).isEqualTo(4000);
+        assertThat(metricRegistry.timer("jdbc.statements." + top.get(0).getId() + ".time").getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void everyShapeHasItsOwnId() {
+        // Distinct strings of the same hash code
+        statementMetrics.record("select Aa", 1000, 1);
+        statementMetrics.record("select BB", 2000, 1);
+
+        List<StatementMetrics.StatementStats> top = statementMetrics.getTop(10);
+
+        assertThat(top).hasSize(2);
+        assertThat(top.get(0).getId()).isNotEqualTo(top.get(1).getId());
+        assertThat(metricRegistry.getTimers()).hasSize(2);
+    }
+
+    @Test
+    public void shapesPastTheMaximumAreOther() {
+        statementMetrics.record("select 1 from calendar", 1000, 1);
+        statementMetrics.record("select 1 from holiday", 1000, 1);
+        statementMetrics.record("select 1 from holiday_change", 1000, 1);
+
+        assertThat(statementMetrics.getTop(10)).extracting("id").contains(StatementMetrics.OTHER);
+        assertThat(metricRegistry.getTimers()).containsKey("jdbc.statements.other.time");
+    }
+}
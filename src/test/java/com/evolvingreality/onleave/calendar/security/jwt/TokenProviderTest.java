@@ -0,0 +1,149 @@
+package com.evolvingreality.onleave.calendar.security.jwt;
+
+import com.evolvingreality.onleave.calendar.config.JHipsterProperties;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the TokenProvider.
+ *
+ * @see TokenProvider
+ */
+public class TokenProviderTest {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQ=";
+
+    private static final int CACHE_SIZE = 4;
+
+    private TokenProvider tokenProvider;
+
+    @Before
+    public void initTest() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        jwt.setSecret(SECRET);
+        jwt.setCacheSize(CACHE_SIZE);
+        tokenProvider = new TokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jHipsterProperties", jHipsterProperties);
+        tokenProvider.init();
+    }
+
+    @Test
+    public void resolveAuthentication() {
+        String token = createToken("user");
+
+        Authentication authentication = tokenProvider.resolveAuthentication(token);
+
+        assertThat(authentication.getName()).isEqualTo("user");
+        assertThat(authentication.getAuthorities()).containsExactly(new SimpleGrantedAuthority("ROLE_USER"));
+        assertThat(tokenProvider.getCachedTokenCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void everyRequestGetsItsOwnAuthentication() {
+        String token = createToken("user");
+        Authentication first = tokenProvider.resolveAuthentication(token);
+        // A request changing its authentication must not change the one of the next request
+        first.setAuthenticated(false);
+
+        Authentication second = tokenProvider.resolveAuthentication(token);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPrincipal()).isNotSameAs(first.getPrincipal());
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getName()).isEqualTo("user");
+    }
+
+    @Test
+    public void tamperedSignatureIsRejected() {
+        String token = createToken("user");
+        int signature = token.lastIndexOf('.') + 1;
+        char replaced = token.charAt(signature) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signature) + replaced + token.substring(signature + 1);
+
+        assertThat(tokenProvider.resolveAuthentication(tampered)).isNull();
+        assertThat(tokenProvider.getCachedTokenCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void tamperedClaimsAreRejected() {
+        String token = createToken("user");
+        tokenProvider.resolveAuthentication(token);
+        String[] parts = token.split("\\.");
+        String claims = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+            .replace("ROLE_USER", "ROLE_ADMIN");
+        String tampered = parts[0] + "."
+            + Base64.getUrlEncoder().withoutPadding().encodeToString(claims.getBytes(StandardCharsets.UTF_8))
+            + "." + parts[2];
+
+        assertThat(tokenProvider.resolveAuthentication(tampered)).isNull();
+    }
+
+    @Test(expected = ExpiredJwtException.class)
+    public void expiredTokenIsRejected() {
+        tokenProvider.resolveAuthentication(createToken("user", new Date(System.currentTimeMillis() - 60000)));
+    }
+
+    @Test
+    public void cachedTokenIsRejectedOnceExpired() throws InterruptedException {
+        String token = createToken("user", new Date(System.currentTimeMillis() + 1000));
+        assertThat(tokenProvider.resolveAuthentication(token)).isNotNull();
+
+        Thread.sleep(1100);
+
+        try {
+            tokenProvider.resolveAuthentication(token);
+            throw new AssertionError("The expired token was accepted");
+        } catch (ExpiredJwtException e) {
+            assertThat(tokenProvider.getCachedTokenCount()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void fullCacheDropsTheTokensThatExpireFirst() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < CACHE_SIZE + 1; i++) {
+            String token = createToken("user" + i, new Date(System.currentTimeMillis() + (i + 1) * 60000));
+            tokenProvider.resolveAuthentication(token);
+            tokens.add(token);
+        }
+
+        assertThat(tokenProvider.getCachedTokenCount()).isEqualTo(CACHE_SIZE);
+        // Only the cached tokens are still resolved once the key changes, they are not verified again
+        ReflectionTestUtils.setField(tokenProvider, "secretKey", "b3RoZXItc2VjcmV0");
+        assertThat(tokenProvider.resolveAuthentication(tokens.get(0))).isNull();
+        for (String token : tokens.subList(1, tokens.size())) {
+            assertThat(tokenProvider.resolveAuthentication(token)).isNotNull();
+        }
+    }
+
+    private String createToken(String login) {
+        return tokenProvider.createToken(new UsernamePasswordAuthenticationToken(login, "",
+            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))), false);
+    }
+
+    private static String createToken(String login, Date expiration) {
+        return Jwts.builder()
+            .setSubject(login)
+            .claim("auth", "ROLE_USER")
+            .signWith(SignatureAlgorithm.HS512, SECRET)
+            .setExpiration(expiration)
+            .compact();
+    }
+}
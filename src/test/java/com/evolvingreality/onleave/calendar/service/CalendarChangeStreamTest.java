@@ -0,0 +1,113 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.codahale.metrics.MetricRegistry;
+import com.evolvingreality.onleave.calendar.async.TaskLanes;
+import com.evolvingreality.onleave.calendar.service.CalendarDataChangedEvent.ChangeType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Message;
+import com.hazelcast.core.MessageListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the CalendarChangeStream.
+ *
+ * @see CalendarChangeStream
+ */
+public class CalendarChangeStreamTest {
+
+    private static final int MAX_PENDING_CHANGES = 100;
+
+    private MetricRegistry metricRegistry;
+
+    private HazelcastInstance hazelcastInstance;
+
+    private ITopic<Object> topic;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void initTest() {
+        metricRegistry = new MetricRegistry();
+        hazelcastInstance = mock(HazelcastInstance.class);
+        topic = mock(ITopic.class);
+        when(hazelcastInstance.<Object>getTopic(CalendarChangeStream.CALENDAR_CHANGES_TOPIC)).thenReturn(topic);
+    }
+
+    @Test
+    public void slowSubscriberIsDropped() {
+        // The deliveries never run, as for a client that does not read its changes
+        MessageListener<CalendarChangeMessage> listener = subscribeToIreland(task -> { });
+
+        for (int i = 0; i <= MAX_PENDING_CHANGES; i++) {
+            listener.onMessage(message("IE"));
+        }
+
+        assertThat(drops()).isEqualTo(1);
+        assertThat(subscriptions()).isEqualTo(0);
+    }
+
+    @Test
+    public void changesOfOtherCountriesAreNotQueued() {
+        MessageListener<CalendarChangeMessage> listener = subscribeToIreland(task -> { });
+
+        for (int i = 0; i <= MAX_PENDING_CHANGES; i++) {
+            listener.onMessage(message("GB"));
+        }
+
+        assertThat(drops()).isEqualTo(0);
+        assertThat(subscriptions()).isEqualTo(1);
+    }
+
+    @Test
+    public void subscriberIsDroppedWhenItsDeliveryIsRejected() {
+        MessageListener<CalendarChangeMessage> listener = subscribeToIreland(task -> {
+            throw new TaskRejectedException("Change stream lane full");
+        });
+
+        listener.onMessage(message("IE"));
+
+        assertThat(drops()).isEqualTo(1);
+        assertThat(subscriptions()).isEqualTo(0);
+    }
+
+    /**
+     * @return the listener of the topic of a change stream with a subscriber to the changes of Ireland
+     */
+    @SuppressWarnings("unchecked")
+    private MessageListener<CalendarChangeMessage> subscribeToIreland(TaskExecutor executor) {
+        CalendarChangeStream changeStream = new CalendarChangeStream(hazelcastInstance,
+            new TaskLanes(new TaskExecutorAdapter(executor)), metricRegistry);
+        assertThat(changeStream.subscribe(Collections.singleton("IE")).isPresent()).isTrue();
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(topic).addMessageListener(captor.capture());
+        return captor.getValue();
+    }
+
+    private long drops() {
+        return metricRegistry.meter(MetricRegistry.name(CalendarChangeStream.class, "drops")).getCount();
+    }
+
+    private Object subscriptions() {
+        return metricRegistry.getGauges().get(MetricRegistry.name(CalendarChangeStream.class, "subscriptions"))
+            .getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Message<CalendarChangeMessage> message(String country) {
+        Message<CalendarChangeMessage> message = mock(Message.class);
+        when(message.getMessageObject()).thenReturn(new CalendarChangeMessage("holiday", 1L, ChangeType.SAVED, country));
+        return message;
+    }
+}
@@ -0,0 +1,94 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.codahale.metrics.MetricRegistry;
+import com.evolvingreality.onleave.calendar.config.JHipsterProperties;
+import com.evolvingreality.onleave.calendar.service.CalendarDataChangedEvent.ChangeType;
+import com.evolvingreality.onleave.calendar.service.index.CalendarYearData;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Member;
+import com.hazelcast.core.Message;
+import com.hazelcast.core.MessageListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the CalendarDayIndex.
+ *
+ * @see CalendarDayIndex
+ */
+public class CalendarDayIndexTest {
+
+    private static final CalendarYearData IRELAND = new CalendarYearData("IE", 2016, Collections.emptyList());
+
+    private CalendarDayIndex calendarDayIndex;
+
+    private MessageListener<CalendarChangeMessage> listener;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void initTest() {
+        HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
+        ITopic<Object> topic = mock(ITopic.class);
+        when(hazelcastInstance.<Object>getTopic(CalendarChangeStream.CALENDAR_CHANGES_TOPIC)).thenReturn(topic);
+        calendarDayIndex = new CalendarDayIndex(new JHipsterProperties(), new MetricRegistry(), hazelcastInstance);
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(topic).addMessageListener(captor.capture());
+        listener = captor.getValue();
+    }
+
+    @Test
+    public void yearLoadedInTheCurrentGenerationIsKept() {
+        calendarDayIndex.put(IRELAND, calendarDayIndex.getGeneration());
+
+        assertThat(calendarDayIndex.read("IE", 2016, r -> true).isPresent()).isTrue();
+    }
+
+    @Test
+    public void yearLoadedBeforeAChangeIsNotKept() {
+        long generation = calendarDayIndex.getGeneration();
+        calendarDayIndex.onCalendarDataChanged(new CalendarDataChangedEvent(this, "holiday", 1L, ChangeType.SAVED, "IE"));
+
+        calendarDayIndex.put(IRELAND, generation);
+
+        assertThat(calendarDayIndex.read("IE", 2016, r -> true).isPresent()).isFalse();
+    }
+
+    @Test
+    public void changeOfAnotherInstanceClearsTheIndex() {
+        calendarDayIndex.put(IRELAND, calendarDayIndex.getGeneration());
+
+        listener.onMessage(message(false));
+
+        assertThat(calendarDayIndex.read("IE", 2016, r -> true).isPresent()).isFalse();
+    }
+
+    @Test
+    public void changeOfThisInstanceIsNotAppliedTwice() {
+        calendarDayIndex.put(IRELAND, calendarDayIndex.getGeneration());
+        long generation = calendarDayIndex.getGeneration();
+
+        listener.onMessage(message(true));
+
+        assertThat(calendarDayIndex.getGeneration()).isEqualTo(generation);
+        assertThat(calendarDayIndex.read("IE", 2016, r -> true).isPresent()).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Message<CalendarChangeMessage> message(boolean local) {
+        Member member = mock(Member.class);
+        when(member.localMember()).thenReturn(local);
+        Message<CalendarChangeMessage> message = mock(Message.class);
+        when(message.getPublishingMember()).thenReturn(member);
+        when(message.getMessageObject()).thenReturn(new CalendarChangeMessage("holiday", 1L, ChangeType.SAVED, "IE"));
+        return message;
+    }
+}
@@ -0,0 +1,93 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.evolvingreality.onleave.calendar.CalendarApp;
+import com.evolvingreality.onleave.calendar.config.JHipsterProperties;
+import com.evolvingreality.onleave.calendar.domain.Calendar;
+import com.evolvingreality.onleave.calendar.repository.CalendarRepository;
+import com.evolvingreality.onleave.calendar.service.index.CalendarYearData;
+import com.evolvingreality.onleave.calendar.service.index.WeekMask;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import javax.inject.Inject;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the CalendarSnapshotService.
+ *
+ * @see CalendarSnapshotService
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = CalendarApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class CalendarSnapshotServiceIntTest {
+
+    private static final String COUNTRY = "AE";
+
+    private static final Integer YEAR = 2016;
+
+    private static final int FRIDAY_SATURDAY = WeekMask.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY);
+
+    @Inject
+    private CalendarRepository calendarRepository;
+
+    @Inject
+    private CalendarSnapshotService calendarSnapshotService;
+
+    @Inject
+    private JHipsterProperties jHipsterProperties;
+
+    private JHipsterProperties.Cache.Snapshot snapshotProperties;
+
+    private Path path;
+
+    private Calendar calendar;
+
+    @Before
+    public void initTest() throws Exception {
+        path = Files.createTempFile("calendar", ".snapshot");
+        snapshotProperties = jHipsterProperties.getCache().getSnapshot();
+        snapshotProperties.setEnabled(true);
+        snapshotProperties.setPath(path.toString());
+
+        // Saved outside of a test transaction, the snapshot is written from its own transaction
+        calendar = new Calendar();
+        calendar.setCountry(COUNTRY);
+        calendar.setYear(YEAR);
+        calendar.setWeekendMask(FRIDAY_SATURDAY);
+        calendarRepository.saveAndFlush(calendar);
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        calendarRepository.delete(calendar);
+        snapshotProperties.setEnabled(false);
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void writeKeepsTheWeekendMask() {
+        calendarSnapshotService.write();
+
+        Optional<CalendarYearData> data = calendarSnapshotService.find(COUNTRY, YEAR);
+        assertThat(data.isPresent()).isTrue();
+        assertThat(data.get().getWorkingWeek()).isEqualTo(WeekMask.workingWeek(FRIDAY_SATURDAY));
+        // Friday 1 January 2016 is a weekend day, Sunday 3 January a working day
+        assertThat(data.get().isWorkingDay(LocalDate.of(2016, 1, 1))).isFalse();
+        assertThat(data.get().isWorkingDay(LocalDate.of(2016, 1, 3))).isTrue();
+    }
+}
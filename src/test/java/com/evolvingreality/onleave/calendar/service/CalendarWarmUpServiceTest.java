@@ -0,0 +1,99 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.evolvingreality.onleave.calendar.async.TaskLanes;
+import com.evolvingreality.onleave.calendar.config.JHipsterProperties;
+import com.evolvingreality.onleave.calendar.domain.Calendar;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the CalendarWarmUpService.
+ *
+ * @see CalendarWarmUpService
+ */
+public class CalendarWarmUpServiceTest {
+
+    private static final int JIT_ITERATIONS = 2;
+
+    private CalendarService calendarService;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private CalendarWarmUpService calendarWarmUpService;
+
+    private CalendarWarmUpHealthIndicator healthIndicator;
+
+    @Before
+    public void initTest() {
+        calendarService = mock(CalendarService.class);
+        when(calendarService.getCalendarYear(anyString(), anyInt())).thenReturn(Optional.empty());
+        when(calendarService.getPaddedCalendarYear(anyString(), anyInt())).thenReturn(Optional.empty());
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getCache().getWarmUp().setJitIterations(JIT_ITERATIONS);
+        // The warm-up runs on the calling thread
+        TaskLanes taskLanes = new TaskLanes(new TaskExecutorAdapter(Runnable::run));
+        calendarWarmUpService = new CalendarWarmUpService(calendarService, new ObjectMapper(), taskLanes,
+            jHipsterProperties);
+        healthIndicator = new CalendarWarmUpHealthIndicator(calendarWarmUpService);
+    }
+
+    @Test
+    public void outOfServiceUntilWarm() {
+        Calendar calendar = new Calendar();
+        calendar.setCountry("IE");
+        when(calendarService.findUniqueCountryCalendar()).thenReturn(Collections.singletonList(calendar));
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        calendarWarmUpService.onApplicationEvent(ready());
+
+        assertThat(calendarWarmUpService.getState()).isEqualTo(CalendarWarmUpService.State.COMPLETED);
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+        int currentYear = LocalDate.now().getYear();
+        verify(calendarService).getPaddedCalendarYear("IE", currentYear + 1);
+        verify(calendarService).getCalendarYear("IE", currentYear + 1);
+    }
+
+    @Test
+    public void failedWarmUpDoesNotKeepTheInstanceOutOfService() {
+        when(calendarService.findUniqueCountryCalendar())
+            .thenThrow(new DataAccessResourceFailureException("Database not available"));
+
+        calendarWarmUpService.onApplicationEvent(ready());
+
+        assertThat(calendarWarmUpService.getState()).isEqualTo(CalendarWarmUpService.State.FAILED);
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    public void disabledWarmUpDoesNotLoadTheCalendars() {
+        jHipsterProperties.getCache().getWarmUp().setEnabled(false);
+
+        calendarWarmUpService.onApplicationEvent(ready());
+
+        assertThat(calendarWarmUpService.getState()).isEqualTo(CalendarWarmUpService.State.DISABLED);
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+        verify(calendarService, never()).findUniqueCountryCalendar();
+    }
+
+    private static ApplicationReadyEvent ready() {
+        return new ApplicationReadyEvent(new SpringApplication(), new String[0], null);
+    }
+}
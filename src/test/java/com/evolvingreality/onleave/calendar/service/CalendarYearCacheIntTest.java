@@ -0,0 +1,235 @@
+package com.evolvingreality.onleave.calendar.service;
+
+import com.codahale.metrics.MetricRegistry;
+import com.evolvingreality.onleave.calendar.CalendarApp;
+import com.evolvingreality.onleave.calendar.async.TaskLanes;
+import com.evolvingreality.onleave.calendar.config.CacheConfiguration;
+import com.evolvingreality.onleave.calendar.config.JHipsterProperties;
+import com.evolvingreality.onleave.calendar.domain.CalendarYear;
+import com.evolvingreality.onleave.calendar.service.CalendarDataChangedEvent.ChangeType;
+import com.hazelcast.core.HazelcastInstance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the CalendarYearCache.
+ *
+ * @see CalendarYearCache
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = CalendarApp.class)
+@WebAppConfiguration
+@IntegrationTest
+public class CalendarYearCacheIntTest {
+
+    private static final String CALENDAR_KEY = "XC";
+
+    private static final Integer YEAR = 2016;
+
+    private static final String CACHE_KEY = CALENDAR_KEY + ":" + YEAR;
+
+    private static final int CALLERS = 4;
+
+    private static final long STALE_MILLIS = TimeUnit.SECONDS.toMillis(new JHipsterProperties().getCache()
+        .getSoftTimeToLiveSeconds());
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private HazelcastInstance hazelcastInstance;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    private MetricRegistry metricRegistry;
+
+    private CalendarYearCache calendarYearCache;
+
+    private Cache cache;
+
+    private AtomicInteger loads;
+
+    @Before
+    public void initTest() {
+        metricRegistry = new MetricRegistry();
+        // The refreshes run on the calling thread
+        TaskLanes taskLanes = new TaskLanes(new TaskExecutorAdapter(Runnable::run));
+        calendarYearCache = new CalendarYearCache(cacheManager, hazelcastInstance, new JHipsterProperties(),
+            metricRegistry, taskLanes, transactionManager);
+        cache = cacheManager.getCache(CacheConfiguration.CALENDAR_YEAR_CACHE);
+        loads = new AtomicInteger();
+    }
+
+    @After
+    public void cleanup() {
+        cache.evict(CACHE_KEY);
+    }
+
+    @Test
+    public void concurrentMissesAreLoadedOnce() throws Exception {
+        CalendarYear calendarYear = calendarYear();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Optional<CalendarYear>>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> get(() -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return Optional.of(calendarYear);
+                })));
+            }
+            // Every other caller waits for the load of the first one
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (coalesced() < CALLERS - 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            for (Future<Optional<CalendarYear>> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS).get()).isSameAs(calendarYear);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(coalesced()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    public void cachedYearIsNotLoadedAgain() {
+        get(this::load);
+
+        Optional<CalendarYear> calendarYear = get(this::load);
+
+        assertThat(calendarYear.isPresent()).isTrue();
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void missingYearIsNotCached() {
+        get(() -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertThat(cache.get(CACHE_KEY)).isNull();
+    }
+
+    @Test
+    public void yearLoadedBeforeAChangeIsNotCached() {
+        Optional<CalendarYear> calendarYear = get(() -> {
+            // The change is committed while the year is loaded from the data before it
+            calendarYearCache.onCalendarDataChanged(changed());
+            return load();
+        });
+
+        assertThat(calendarYear.isPresent()).isTrue();
+        assertThat(cache.get(CACHE_KEY)).isNull();
+        get(this::load);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void staleYearIsServedWhileRefreshed() {
+        CalendarYear stale = calendarYear();
+        cache.put(CACHE_KEY, stale(stale));
+
+        Optional<CalendarYear> calendarYear = get(this::load);
+
+        assertThat(calendarYear.get()).isSameAs(stale);
+        assertThat(loads.get()).isEqualTo(1);
+        CalendarYearCache.CachedCalendarYear refreshed = cache.get(CACHE_KEY, CalendarYearCache.CachedCalendarYear.class);
+        assertThat(refreshed.getLoadedAt()).isGreaterThan(System.currentTimeMillis() - STALE_MILLIS);
+    }
+
+    @Test
+    public void refreshStartedBeforeAChangeIsNotCached() {
+        cache.put(CACHE_KEY, stale(calendarYear()));
+
+        get(() -> {
+            calendarYearCache.onCalendarDataChanged(changed());
+            return load();
+        });
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.get(CACHE_KEY)).isNull();
+    }
+
+    @Test
+    public void refreshOfAMissingYearEvictsIt() {
+        cache.put(CACHE_KEY, stale(calendarYear()));
+
+        get(() -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertThat(cache.get(CACHE_KEY)).isNull();
+    }
+
+    private Optional<CalendarYear> get(Supplier<Optional<CalendarYear>> loader) {
+        return calendarYearCache.get(CacheConfiguration.CALENDAR_YEAR_CACHE, CALENDAR_KEY, YEAR, loader);
+    }
+
+    private Optional<CalendarYear> load() {
+        loads.incrementAndGet();
+        return Optional.of(calendarYear());
+    }
+
+    private long coalesced() {
+        return metricRegistry.meter(MetricRegistry.name(CalendarYearCache.class, "coalesced")).getCount();
+    }
+
+    private CalendarDataChangedEvent changed() {
+        return new CalendarDataChangedEvent(this, "holiday", 1L, ChangeType.SAVED, CALENDAR_KEY);
+    }
+
+    /**
+     * @return the year cached past the soft time to live
+     */
+    private static CalendarYearCache.CachedCalendarYear stale(CalendarYear calendarYear) {
+        return new CalendarYearCache.CachedCalendarYear(calendarYear, System.currentTimeMillis() - 2 * STALE_MILLIS);
+    }
+
+    private static CalendarYear calendarYear() {
+        CalendarYear calendarYear = new CalendarYear();
+        calendarYear.setCountry(CALENDAR_KEY);
+        calendarYear.setYear(YEAR);
+        return calendarYear;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
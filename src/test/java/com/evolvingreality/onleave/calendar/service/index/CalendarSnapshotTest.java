@@ -0,0 +1,111 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Test class for the CalendarSnapshot.
+ *
+ * @see CalendarSnapshot
+ */
+public class CalendarSnapshotTest {
+
+    private static final String LONG_KEY = "DE/BY/ACME-HOLDINGS-EUROPE";
+
+    private static final int SUNDAY_TO_THURSDAY =
+        WeekMask.workingWeek(WeekMask.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path path;
+
+    @Before
+    public void initTest() throws IOException {
+        path = folder.newFile("calendar.snapshot").toPath();
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        CalendarYearData ireland = new CalendarYearData("IE", 2016, Arrays.asList(
+            new HolidayEntry(LocalDate.of(2016, 3, 17), "St. Patrick's Day", "National Holiday"),
+            new HolidayEntry(LocalDate.of(2016, 12, 25), "Christmas Day", null)));
+        CalendarYearData emirates = new CalendarYearData("AE", 2016, SUNDAY_TO_THURSDAY, Collections.emptyList());
+        CalendarSnapshot.write(path, Arrays.asList(ireland, emirates));
+
+        CalendarSnapshot snapshot = CalendarSnapshot.map(path);
+
+        assertThat(snapshot.size()).isEqualTo(2);
+        CalendarYearData read = snapshot.find("IE", 2016).get();
+        assertThat(read.getWorkingDays()).isEqualTo(ireland.getWorkingDays());
+        assertThat(read.getWorkingWeek()).isEqualTo(WeekMask.MONDAY_TO_FRIDAY);
+        assertThat(read.getHolidays()).extracting("date", "name", "description").containsExactly(
+            tuple(LocalDate.of(2016, 3, 17), "St. Patrick's Day", "National Holiday"),
+            tuple(LocalDate.of(2016, 12, 25), "Christmas Day", null));
+        assertThat(read.isWorkingDay(LocalDate.of(2016, 3, 17))).isFalse();
+        assertThat(snapshot.find("IE", 2015).isPresent()).isFalse();
+    }
+
+    @Test
+    public void roundTripOfTheWeekendMask() throws IOException {
+        CalendarSnapshot.write(path, Collections.singletonList(
+            new CalendarYearData("AE", 2016, SUNDAY_TO_THURSDAY, Collections.emptyList())));
+
+        CalendarYearData read = CalendarSnapshot.map(path).find("AE", 2016).get();
+
+        assertThat(read.getWorkingWeek()).isEqualTo(SUNDAY_TO_THURSDAY);
+        // Friday 1 and Saturday 2 January 2016 are the weekend, Sunday 3 January a working day
+        assertThat(read.isWorkingDay(LocalDate.of(2016, 1, 1))).isFalse();
+        assertThat(read.isWorkingDay(LocalDate.of(2016, 1, 2))).isFalse();
+        assertThat(read.isWorkingDay(LocalDate.of(2016, 1, 3))).isTrue();
+    }
+
+    @Test
+    public void roundTripOfKeysLongerThanARecord() throws IOException {
+        // 9 two-byte characters, longer than a record key in UTF-8
+        String multiByteKey = "\u00C9\u00C9\u00C9\u00C9\u00C9\u00C9\u00C9\u00C9\u00C9";
+        CalendarSnapshot.write(path, Arrays.asList(
+            new CalendarYearData(LONG_KEY, 2016, Collections.singletonList(
+                new HolidayEntry(LocalDate.of(2016, 6, 1), "Founders Day", null))),
+            new CalendarYearData("DE/BY/ACME", 2016, Collections.emptyList()),
+            new CalendarYearData(multiByteKey, 2016, Collections.emptyList())));
+
+        CalendarSnapshot snapshot = CalendarSnapshot.map(path);
+
+        Optional<CalendarYearData> read = snapshot.find(LONG_KEY, 2016);
+        assertThat(read.isPresent()).isTrue();
+        assertThat(read.get().getHolidays()).extracting("name").containsExactly("Founders Day");
+        assertThat(snapshot.find("DE/BY/ACME", 2016).get().getHolidays()).isEmpty();
+        assertThat(snapshot.find(multiByteKey, 2016).isPresent()).isTrue();
+    }
+
+    @Test
+    public void keysFitUpToTheStringSize() {
+        char[] tooLong = new char[CalendarSnapshot.MAX_STRING_SIZE + 1];
+        Arrays.fill(tooLong, 'A');
+
+        assertThat(CalendarSnapshot.fits(LONG_KEY)).isTrue();
+        assertThat(CalendarSnapshot.fits(new String(tooLong))).isFalse();
+    }
+
+    @Test(expected = IOException.class)
+    public void mapRejectsOtherFiles() throws IOException {
+        Files.write(path, new byte[CalendarSnapshot.HEADER_SIZE]);
+
+        CalendarSnapshot.map(path);
+    }
+}
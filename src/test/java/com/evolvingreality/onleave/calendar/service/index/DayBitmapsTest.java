@@ -0,0 +1,104 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the DayBitmaps.
+ *
+ * @see DayBitmaps
+ */
+public class DayBitmapsTest {
+
+    @Test
+    public void setAndGetEveryDayOfALeapYear() {
+        long[] bitmap = DayBitmaps.create();
+        DayBitmaps.set(bitmap, 1);
+        DayBitmaps.set(bitmap, 64);
+        DayBitmaps.set(bitmap, 65);
+        DayBitmaps.set(bitmap, 366);
+
+        assertThat(DayBitmaps.get(bitmap, 1)).isTrue();
+        assertThat(DayBitmaps.get(bitmap, 2)).isFalse();
+        assertThat(DayBitmaps.get(bitmap, 64)).isTrue();
+        assertThat(DayBitmaps.get(bitmap, 65)).isTrue();
+        assertThat(DayBitmaps.get(bitmap, 366)).isTrue();
+        assertThat(DayBitmaps.count(bitmap, 1, 366)).isEqualTo(4);
+    }
+
+    @Test
+    public void weekdaysOfAYear() {
+        long[] weekdays = DayBitmaps.weekdays(2016);
+
+        // 2016 starts on a Friday and has 261 weekdays
+        assertThat(DayBitmaps.get(weekdays, 1)).isTrue();
+        assertThat(DayBitmaps.get(weekdays, 2)).isFalse();
+        assertThat(DayBitmaps.get(weekdays, 3)).isFalse();
+        assertThat(DayBitmaps.count(weekdays, 1, 366)).isEqualTo(261);
+    }
+
+    @Test
+    public void patternOfAPartTimeSchedule() {
+        long[] pattern = DayBitmaps.pattern(2016, WeekMask.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY));
+
+        LocalDate date = LocalDate.of(2016, 1, 1);
+        while (date.getYear() == 2016) {
+            boolean expected = date.getDayOfWeek() == DayOfWeek.MONDAY || date.getDayOfWeek() == DayOfWeek.WEDNESDAY;
+            assertThat(DayBitmaps.get(pattern, date.getDayOfYear())).as(date.toString()).isEqualTo(expected);
+            date = date.plusDays(1);
+        }
+    }
+
+    @Test
+    public void countWithinAWord() {
+        long[] weekdays = DayBitmaps.weekdays(2016);
+
+        // Monday 4 to Sunday 10 January
+        assertThat(DayBitmaps.count(weekdays, 4, 10)).isEqualTo(5);
+        assertThat(DayBitmaps.count(weekdays, 9, 10)).isEqualTo(0);
+    }
+
+    @Test
+    public void countAcrossWords() {
+        long[] all = DayBitmaps.pattern(2016, WeekMask.ALL_DAYS);
+
+        assertThat(DayBitmaps.count(all, 60, 200)).isEqualTo(141);
+        assertThat(DayBitmaps.count(all, 64, 65)).isEqualTo(2);
+    }
+
+    @Test
+    public void forEachInOrder() {
+        long[] bitmap = DayBitmaps.create();
+        DayBitmaps.set(bitmap, 3);
+        DayBitmaps.set(bitmap, 63);
+        DayBitmaps.set(bitmap, 64);
+        DayBitmaps.set(bitmap, 130);
+        DayBitmaps.set(bitmap, 300);
+
+        List<Integer> days = new ArrayList<>();
+        DayBitmaps.forEach(bitmap, 4, 299, days::add);
+
+        assertThat(days).containsExactly(63, 64, 130);
+    }
+
+    @Test
+    public void andNotLeavesTheOperandsUnchanged() {
+        long[] bitmap = DayBitmaps.create();
+        DayBitmaps.set(bitmap, 1);
+        DayBitmaps.set(bitmap, 2);
+        long[] mask = DayBitmaps.create();
+        DayBitmaps.set(mask, 2);
+
+        long[] result = DayBitmaps.andNot(bitmap, mask);
+
+        assertThat(DayBitmaps.get(result, 1)).isTrue();
+        assertThat(DayBitmaps.get(result, 2)).isFalse();
+        assertThat(DayBitmaps.get(bitmap, 2)).isTrue();
+    }
+}
@@ -0,0 +1,76 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the DayRecord.
+ *
+ * @see DayRecord
+ */
+public class DayRecordTest {
+
+    private ByteBuffer slab;
+
+    private CalendarYearData ireland;
+
+    @Before
+    public void initTest() {
+        slab = ByteBuffer.allocateDirect(2 * DayRecord.RECORD_SIZE);
+        ireland = new CalendarYearData("IE", 2016, Arrays.asList(
+            new HolidayEntry(LocalDate.of(2016, 3, 17), "St. Patrick's Day", null),
+            new HolidayEntry(LocalDate.of(2016, 12, 25), "Christmas Day", null)));
+    }
+
+    @Test
+    public void writeAndRead() {
+        DayRecord record = new DayRecord().wrap(slab, DayRecord.RECORD_SIZE, null);
+        record.write("IE".getBytes(StandardCharsets.UTF_8), ireland);
+
+        assertThat(record.getKey()).isEqualTo("IE");
+        assertThat(record.getYear()).isEqualTo(2016);
+        assertThat(record.getHolidayCount()).isEqualTo(2);
+        assertThat(record.getWorkingWeek()).isEqualTo(WeekMask.MONDAY_TO_FRIDAY);
+        assertThat(record.getHolidays()).isEqualTo(ireland.getHolidayDays());
+        assertThat(record.getWorkingDays()).isEqualTo(ireland.getWorkingDays());
+        // Thursday 17 March 2016
+        assertThat(record.isHoliday(77)).isTrue();
+        assertThat(record.isWorkingDay(77)).isFalse();
+        assertThat(record.isWorkingDay(76)).isTrue();
+    }
+
+    @Test
+    public void workingDaysOfAPattern() {
+        DayRecord record = new DayRecord().wrap(slab, 0, null);
+        record.write("IE".getBytes(StandardCharsets.UTF_8), ireland);
+        int mondayToThursday = WeekMask.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+            DayOfWeek.THURSDAY);
+
+        // Thursday 17 March is a holiday, Thursday 24 March a working day and Friday 25 March out of the pattern
+        assertThat(record.isWorkingDay(77, mondayToThursday)).isFalse();
+        assertThat(record.isWorkingDay(84, mondayToThursday)).isTrue();
+        assertThat(record.isWorkingDay(85, mondayToThursday)).isFalse();
+        assertThat(record.getWorkingDays(mondayToThursday)).isEqualTo(ireland.getWorkingDays(mondayToThursday));
+    }
+
+    @Test
+    public void longKeyIsNotWrittenInTheRecord() {
+        String longKey = "DE/BY/ACME-HOLDINGS-EUROPE";
+        DayRecord record = new DayRecord().wrap(slab, 0, null);
+        record.write("IE".getBytes(StandardCharsets.UTF_8), ireland);
+
+        record.wrap(slab, 0, longKey).write(longKey.getBytes(StandardCharsets.UTF_8), ireland);
+
+        assertThat(record.getKey()).isEqualTo(longKey);
+        assertThat(record.wrap(slab, 0, null).getKey()).isEmpty();
+        assertThat(record.getYear()).isEqualTo(2016);
+    }
+}
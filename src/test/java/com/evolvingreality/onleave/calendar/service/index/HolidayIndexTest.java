@@ -0,0 +1,59 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the HolidayIndex.
+ *
+ * @see HolidayIndex
+ */
+public class HolidayIndexTest {
+
+    private static final LocalDate ST_PATRICKS_DAY = LocalDate.of(2016, 3, 17);
+
+    private static final LocalDate CHRISTMAS_DAY = LocalDate.of(2016, 12, 25);
+
+    @Test
+    public void indexOfTheHolidays() {
+        HolidayIndex index = new HolidayIndex(Arrays.asList(
+            new IndexedHoliday(1L, "IE", ST_PATRICKS_DAY, "St. Patrick's Day", null),
+            new IndexedHoliday(2L, "IE", CHRISTMAS_DAY, "Christmas Day", null),
+            new IndexedHoliday(3L, "GB", CHRISTMAS_DAY, "Christmas Day", null)));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.getCalendarsOn(CHRISTMAS_DAY)).containsExactly("GB", "IE");
+        assertThat(index.getCalendarsBetween(ST_PATRICKS_DAY, ST_PATRICKS_DAY.plusDays(1))).containsExactly("IE");
+        assertThat(index.getNext(ST_PATRICKS_DAY, 10, Collections.singleton("GB"))).extracting("id")
+            .containsExactly(3L);
+    }
+
+    @Test
+    public void putMovesAHoliday() {
+        HolidayIndex index = new HolidayIndex(Collections.singletonList(
+            new IndexedHoliday(1L, "IE", ST_PATRICKS_DAY, "St. Patrick's Day", null)));
+
+        index.put(new IndexedHoliday(1L, "IE", ST_PATRICKS_DAY.plusDays(1), "St. Patrick's Day", null));
+
+        assertThat(index.getCalendarsOn(ST_PATRICKS_DAY)).isEmpty();
+        assertThat(index.getCalendarsOn(ST_PATRICKS_DAY.plusDays(1))).containsExactly("IE");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void removeDropsTheDayOfItsLastHoliday() {
+        HolidayIndex index = new HolidayIndex(Collections.singletonList(
+            new IndexedHoliday(1L, "IE", ST_PATRICKS_DAY, "St. Patrick's Day", null)));
+
+        index.remove(1L);
+        index.remove(2L);
+
+        assertThat(index.size()).isEqualTo(0);
+        assertThat(index.getCalendarsOn(ST_PATRICKS_DAY)).isEmpty();
+    }
+}
@@ -0,0 +1,112 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the OffHeapDayIndex.
+ *
+ * @see OffHeapDayIndex
+ */
+public class OffHeapDayIndexTest {
+
+    private static final String LONG_KEY = "DE/BY/ACME-HOLDINGS-EUROPE";
+
+    private OffHeapDayIndex index;
+
+    @Before
+    public void initTest() {
+        index = new OffHeapDayIndex(2, 2);
+    }
+
+    @Test
+    public void putAndRead() {
+        index.put(year("IE", 2016));
+
+        assertThat(index.read("IE", 2016, DayRecord::getYear)).contains(2016);
+        assertThat(index.read("IE", 2016, DayRecord::getKey)).contains("IE");
+        assertThat(index.read("IE", 2015, DayRecord::getYear).isPresent()).isFalse();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.getSlabCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void putReplacesTheRecord() {
+        index.put(year("IE", 2016));
+        index.put(new CalendarYearData("IE", 2016, Collections.singletonList(
+            new HolidayEntry(LocalDate.of(2016, 3, 17), "St. Patrick's Day", null))));
+
+        assertThat(index.read("IE", 2016, DayRecord::getHolidayCount)).contains(1);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void keysLongerThanARecordAreKeptOutOfLine() {
+        index.put(year(LONG_KEY, 2016));
+        index.put(year("DE/BY/ACME", 2016));
+
+        assertThat(index.read(LONG_KEY, 2016, DayRecord::getKey)).contains(LONG_KEY);
+        assertThat(index.read("DE/BY/ACME", 2016, DayRecord::getKey)).contains("DE/BY/ACME");
+    }
+
+    @Test
+    public void slotOfALongKeyIsReusedByAShortOne() {
+        index.put(year(LONG_KEY, 2016));
+        index.remove(LONG_KEY, 2016);
+        index.put(year("IE", 2016));
+
+        assertThat(index.read(LONG_KEY, 2016, DayRecord::getKey).isPresent()).isFalse();
+        assertThat(index.read("IE", 2016, DayRecord::getKey)).contains("IE");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void fullIndexEvictsAYearNotReadRecently() {
+        for (int year = 2016; year < 2020; year++) {
+            index.put(year("IE", year));
+        }
+        assertThat(index.getSlabCount()).isEqualTo(2);
+
+        // Every year has been read since the last eviction but 2018
+        index.read("IE", 2016, DayRecord::getYear);
+        index.read("IE", 2017, DayRecord::getYear);
+        index.read("IE", 2019, DayRecord::getYear);
+        index.put(year("IE", 2020));
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.getSlabCount()).isEqualTo(2);
+        assertThat(index.getEvictionCount()).isEqualTo(1);
+        assertThat(index.read("IE", 2018, DayRecord::getYear).isPresent()).isFalse();
+        assertThat(index.read("IE", 2020, DayRecord::getYear)).contains(2020);
+        assertThat(index.read("IE", 2016, DayRecord::getYear)).contains(2016);
+    }
+
+    @Test
+    public void clearKeepsTheSlabs() {
+        index.put(year("IE", 2016));
+        index.put(year("IE", 2017));
+        index.put(year("IE", 2018));
+
+        index.clear();
+
+        assertThat(index.size()).isEqualTo(0);
+        assertThat(index.getSlabCount()).isEqualTo(2);
+        assertThat(index.read("IE", 2016, DayRecord::getYear).isPresent()).isFalse();
+        index.put(year("IE", 2019));
+        assertThat(index.read("IE", 2019, DayRecord::getYear)).contains(2019);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnEmptyIndex() {
+        new OffHeapDayIndex(0, 1);
+    }
+
+    private static CalendarYearData year(String key, int year) {
+        return new CalendarYearData(key, year, Collections.emptyList());
+    }
+}
@@ -0,0 +1,68 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the SetOperation.
+ *
+ * @see SetOperation
+ */
+public class SetOperationTest {
+
+    private long[] first;
+
+    private long[] second;
+
+    @Before
+    public void initTest() {
+        first = DayBitmaps.create();
+        DayBitmaps.set(first, 1);
+        DayBitmaps.set(first, 100);
+        DayBitmaps.set(first, 366);
+        second = DayBitmaps.create();
+        DayBitmaps.set(second, 100);
+        DayBitmaps.set(second, 200);
+    }
+
+    @Test
+    public void intersection() {
+        long[] result = SetOperation.INTERSECTION.apply(first.clone(), second);
+
+        assertThat(days(result)).containsExactly(100);
+    }
+
+    @Test
+    public void union() {
+        long[] result = SetOperation.UNION.apply(first.clone(), second);
+
+        assertThat(days(result)).containsExactly(1, 100, 200, 366);
+    }
+
+    @Test
+    public void difference() {
+        long[] result = SetOperation.DIFFERENCE.apply(first.clone(), second);
+
+        assertThat(days(result)).containsExactly(1, 366);
+    }
+
+    @Test
+    public void appliesInPlace() {
+        long[] result = SetOperation.UNION.apply(first, second);
+
+        assertThat(result).isSameAs(first);
+        assertThat(DayBitmaps.get(first, 200)).isTrue();
+        assertThat(days(second)).containsExactly(100, 200);
+    }
+
+    private static List<Integer> days(long[] bitmap) {
+        List<Integer> days = new ArrayList<>();
+        DayBitmaps.forEach(bitmap, 1, 366, days::add);
+        return days;
+    }
+}
@@ -0,0 +1,49 @@
+package com.evolvingreality.onleave.calendar.service.index;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the WeekMask.
+ *
+ * @see WeekMask
+ */
+public class WeekMaskTest {
+
+    @Test
+    public void mondayIsTheFirstBit() {
+        assertThat(WeekMask.of(DayOfWeek.MONDAY)).isEqualTo(0b0000001);
+        assertThat(WeekMask.of(DayOfWeek.SUNDAY)).isEqualTo(0b1000000);
+        assertThat(WeekMask.SATURDAY_SUNDAY).isEqualTo(0b1100000);
+        assertThat(WeekMask.MONDAY_TO_FRIDAY).isEqualTo(0b0011111);
+    }
+
+    @Test
+    public void contains() {
+        int mask = WeekMask.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY);
+
+        assertThat(WeekMask.contains(mask, DayOfWeek.FRIDAY)).isTrue();
+        assertThat(WeekMask.contains(mask, DayOfWeek.SATURDAY)).isTrue();
+        assertThat(WeekMask.contains(mask, DayOfWeek.SUNDAY)).isFalse();
+    }
+
+    @Test
+    public void workingWeekOfAWeekend() {
+        int fridaySaturday = WeekMask.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY);
+
+        assertThat(WeekMask.workingWeek(null)).isEqualTo(WeekMask.MONDAY_TO_FRIDAY);
+        assertThat(WeekMask.workingWeek(fridaySaturday)).isEqualTo(WeekMask.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY,
+            DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.SUNDAY));
+    }
+
+    @Test
+    public void isValid() {
+        assertThat(WeekMask.isValid(0)).isTrue();
+        assertThat(WeekMask.isValid(WeekMask.ALL_DAYS)).isTrue();
+        assertThat(WeekMask.isValid(0b10000000)).isFalse();
+        assertThat(WeekMask.isValid(-1)).isFalse();
+    }
+}
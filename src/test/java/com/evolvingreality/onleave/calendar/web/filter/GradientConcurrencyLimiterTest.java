@@ -0,0 +1,107 @@
+package com.evolvingreality.onleave.calendar.web.filter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the GradientConcurrencyLimiter.
+ *
+ * @see GradientConcurrencyLimiter
+ */
+public class GradientConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long STEP = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private GradientConcurrencyLimiter limiter;
+
+    private long now;
+
+    @Before
+    public void initTest() {
+        limiter = new GradientConcurrencyLimiter(10, 2, 100);
+    }
+
+    @Test
+    public void acquireUpToTheLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(10);
+        limiter.release(FAST, now);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void limitGrowsWhileTheLatencyHolds() {
+        rounds(20, FAST);
+
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    public void limitShrinksWhenRequestsQueue() {
+        rounds(5, FAST);
+        int limitBefore = limiter.getLimit();
+
+        rounds(20, SLOW);
+
+        assertThat(limiter.getLimit()).isLessThan(limitBefore).isLessThan(10);
+    }
+
+    @Test
+    public void sustainedOverloadDoesNotRaiseTheBaseline() {
+        rounds(5, FAST);
+
+        // Two thirds of a window of queuing: a moving average baseline would have crept up meanwhile
+        rounds(60, SLOW);
+
+        assertThat(limiter.getLimit()).isLessThan(10);
+    }
+
+    @Test
+    public void baselineFollowsALastingChangeOfTheLatency() {
+        rounds(5, FAST);
+        rounds(20, SLOW);
+        int limitUnderLoad = limiter.getLimit();
+
+        // Once the windows that saw the fast requests are over, the slow latency is the new baseline
+        rounds(300, SLOW);
+
+        assertThat(limiter.getLimit()).isGreaterThan(limitUnderLoad);
+    }
+
+    @Test
+    public void limitStaysWithinItsBounds() {
+        rounds(200, FAST);
+        assertThat(limiter.getLimit()).isEqualTo(100);
+
+        rounds(100, TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(2);
+    }
+
+    /**
+     * Fills the limit and releases every request with the response time, each round a step after the previous one.
+     */
+    private void rounds(int count, long rttNanos) {
+        for (int round = 0; round < count; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(rttNanos, now);
+            }
+            now += STEP;
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.evolvingreality.onleave.calendar.web.rest;
 
 import com.evolvingreality.onleave.calendar.CalendarApp;
+import com.evolvingreality.onleave.calendar.config.metrics.ConnectionCountingDataSource;
 import com.evolvingreality.onleave.calendar.domain.Calendar;
 import com.evolvingreality.onleave.calendar.repository.CalendarRepository;
+import com.evolvingreality.onleave.calendar.service.CalendarChangeStream;
 import com.evolvingreality.onleave.calendar.service.CalendarService;
+import com.evolvingreality.onleave.calendar.service.index.WeekMask;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
@@ -19,12 +23,16 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import java.time.DayOfWeek;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -54,6 +62,9 @@ public class CalendarResourceIntTest {
     @Inject
     private CalendarService calendarService;
 
+    @Inject
+    private CalendarChangeStream calendarChangeStream;
+
     @Inject
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -67,7 +78,7 @@ public class CalendarResourceIntTest {
     @PostConstruct
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        CalendarResource calendarResource = new CalendarResource(calendarService);
+        CalendarResource calendarResource = new CalendarResource(calendarService, calendarChangeStream);
 
         this.restCalendarMockMvc = MockMvcBuilders.standaloneSetup(calendarResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
@@ -183,4 +194,149 @@ public class CalendarResourceIntTest {
         List<Calendar> calendars = calendarRepository.findAll();
         assertThat(calendars).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    public void getWorkingDays() throws Exception {
+        // St. Patrick's Day, Thursday 17 March 2016, is a holiday of the Irish calendar loaded with the schema,
+        // the calendar of a country without one only has the weekend off
+        restCalendarMockMvc.perform(get("/api/calendars/working/days")
+                .param("countries", "IE,GB").param("from", "2016-03-14").param("to", "2016-03-20"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.operation").value("INTERSECTION"))
+            .andExpect(jsonPath("$.days").value(contains("2016-03-14", "2016-03-15", "2016-03-16", "2016-03-18")));
+        restCalendarMockMvc.perform(get("/api/calendars/working/days").param("operation", "UNION")
+                .param("countries", "IE,GB").param("from", "2016-03-14").param("to", "2016-03-20"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.days").value(contains("2016-03-14", "2016-03-15", "2016-03-16", "2016-03-17",
+                "2016-03-18")));
+        restCalendarMockMvc.perform(get("/api/calendars/working/days").param("operation", "DIFFERENCE")
+                .param("countries", "GB,IE").param("from", "2016-03-14").param("to", "2016-03-20"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.days").value(contains("2016-03-17")));
+    }
+
+    @Test
+    public void getWorkingDaysOfTooManyCountries() throws Exception {
+        String countries = String.join(",", Collections.nCopies(21, "IE"));
+
+        restCalendarMockMvc.perform(get("/api/calendars/working/days")
+                .param("countries", countries).param("from", "2016-01-01").param("to", "2016-12-31"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-calendarApp-error", "error.countriesinvalid"));
+        restCalendarMockMvc.perform(get("/api/calendars/working/days?countries=&from=2016-01-01&to=2016-12-31"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-calendarApp-error", "error.countriesinvalid"));
+    }
+
+    @Test
+    public void getWorkingDaysOfAnInvalidRange() throws Exception {
+        restCalendarMockMvc.perform(get("/api/calendars/working/days?countries=IE&from=2016-01-01&to=2026-01-02"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-calendarApp-error", "error.rangeinvalid"));
+        restCalendarMockMvc.perform(get("/api/calendars/working/days?countries=IE&from=2016-01-02&to=2016-01-01"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-calendarApp-error", "error.rangeinvalid"));
+    }
+
+    @Test
+    public void countWorkingDays() throws Exception {
+        restCalendarMockMvc.perform(get("/api/calendars/country/IE/working/days?from=2016-03-14&to=2016-03-20"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.workingDays").value(4));
+        restCalendarMockMvc.perform(get("/api/calendars/country/IE/working/days?from=2016-01-01&to=2026-01-02"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-calendarApp-error", "error.rangeinvalid"));
+    }
+
+    @Test
+    @Transactional
+    public void getNextWorkDayOfAWeekendCountry() throws Exception {
+        // Thursday 5 January 2017, the year after the only calendar of a country with a Friday and Saturday weekend
+        calendar.setCountry("XF");
+        calendar.setYear(2016);
+        calendar.setWeekendMask(WeekMask.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY));
+        calendarRepository.saveAndFlush(calendar);
+
+        restCalendarMockMvc.perform(get("/api/calendars/next/work/day/2017-01-05?country=XF"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.date").value("2017-01-08"));
+    }
+
+    @Test
+    @Transactional
+    public void getNextWorkDayOfACalendarWithoutWorkingDays() throws Exception {
+        calendar.setCountry("XW");
+        calendar.setYear(2016);
+        calendar.setWeekendMask(WeekMask.ALL_DAYS);
+        calendarRepository.saveAndFlush(calendar);
+
+        restCalendarMockMvc.perform(get("/api/calendars/next/work/day/2016-06-01?country=XW"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getCalendarYearOfAnUnknownRegion() throws Exception {
+        calendar.setCountry("XR");
+        calendar.setYear(2016);
+        calendarRepository.saveAndFlush(calendar);
+
+        restCalendarMockMvc.perform(get("/api/calendars/country/XR/year/2016?region=ZZ"))
+            .andExpect(status().isNotFound());
+        restCalendarMockMvc.perform(get("/api/calendars/country/XR/year/2016/padded?organisation=ZZ"))
+            .andExpect(status().isNotFound());
+        restCalendarMockMvc.perform(get("/api/calendars/country/XR/year/2016"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.country").value("XR"));
+    }
+
+    @Test
+    public void getCachedCalendarYearWithoutAConnection() throws Exception {
+        restCalendarMockMvc.perform(get("/api/calendars/country/IE/year/2016"))
+            .andExpect(status().isOk());
+
+        ConnectionCountingDataSource.startCounting();
+        try {
+            restCalendarMockMvc.perform(get("/api/calendars/country/IE/year/2016"))
+                .andExpect(status().isOk());
+        } finally {
+            assertThat(ConnectionCountingDataSource.stopCounting()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void countWorkingDaysOfAnUnknownRegion() throws Exception {
+        // The working days of an unknown region are the ones of its country
+        restCalendarMockMvc.perform(get("/api/calendars/country/IE/working/days?region=ZZ&from=2016-03-14&to=2016-03-20"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.workingDays").value(4));
+    }
+
+    @Test
+    @Transactional
+    public void getAllCalendarsAfterACursor() throws Exception {
+        // Initialize the database
+        calendarRepository.saveAndFlush(calendar);
+        List<Long> ids = calendarRepository.findAll().stream().map(Calendar::getId).sorted()
+            .collect(Collectors.toList());
+
+        // An empty cursor reads the first page, in id order
+        MvcResult first = restCalendarMockMvc.perform(get("/api/calendars?cursor=&size=1&count=true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(ids.get(0).intValue()))
+            .andExpect(header().string("X-Total-Count", "" + ids.size()))
+            .andReturn();
+
+        // The next link reads the page after the last calendar of the first one
+        restCalendarMockMvc.perform(get(TestUtil.nextLink(first)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(ids.get(1).intValue()));
+    }
+
+    @Test
+    public void getAllCalendarsAfterAnInvalidCursor() throws Exception {
+        restCalendarMockMvc.perform(get("/api/calendars?cursor=not-a-cursor"))
+            .andExpect(status().isBadRequest());
+    }
 }
@@ -1,14 +1,21 @@
 package com.evolvingreality.onleave.calendar.web.rest;
 
 import com.evolvingreality.onleave.calendar.CalendarApp;
+import com.evolvingreality.onleave.calendar.domain.Calendar;
 import com.evolvingreality.onleave.calendar.domain.Holiday;
+import com.evolvingreality.onleave.calendar.repository.CalendarRepository;
+import com.evolvingreality.onleave.calendar.repository.HolidayChangeRepository;
 import com.evolvingreality.onleave.calendar.repository.HolidayRepository;
 import com.evolvingreality.onleave.calendar.service.HolidayService;
+import com.evolvingreality.onleave.calendar.web.rest.util.PaginationUtil;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
@@ -19,6 +26,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -55,6 +63,12 @@ public class HolidayResourceIntTest {
     @Inject
     private HolidayRepository holidayRepository;
 
+    @Inject
+    private HolidayChangeRepository holidayChangeRepository;
+
+    @Inject
+    private CalendarRepository calendarRepository;
+
     @Inject
     private HolidayService holidayService;
 
@@ -193,4 +207,154 @@ public class HolidayResourceIntTest {
         List<Holiday> holidays = holidayRepository.findAll();
         assertThat(holidays).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    public void getCalendarsOnHoliday() throws Exception {
+        // The holidays of the Irish calendars loaded with the schema
+        restHolidayMockMvc.perform(get("/api/holidays/on/{date}", "2016-03-17"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(hasItem("IE")));
+        restHolidayMockMvc.perform(get("/api/holidays/on/{date}", "2016-03-18"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(not(containsString("IE"))));
+    }
+
+    @Test
+    public void getCalendarsOnHolidayBetweenTwoDates() throws Exception {
+        restHolidayMockMvc.perform(get("/api/holidays/on?from=2016-12-19&to=2016-12-25"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$['2016-12-25']").value(hasItem("IE")))
+            .andExpect(jsonPath("$['2016-12-19']").doesNotExist());
+        restHolidayMockMvc.perform(get("/api/holidays/on?from=2016-12-25&to=2016-12-19"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getHolidaysByCountry() throws Exception {
+        restHolidayMockMvc.perform(get("/api/holidays?country=IE&from=2016-03-01&to=2016-03-31"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].name").value(hasItem("St. Patrick's Day")));
+    }
+
+    @Test
+    public void getHolidaysByCountryOfAnInvalidRange() throws Exception {
+        restHolidayMockMvc.perform(get("/api/holidays?country=IE&from=2016-01-01&to=2026-01-02"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-calendarApp-error", "error.rangeinvalid"));
+        restHolidayMockMvc.perform(get("/api/holidays?country=IE&from=2016-01-02&to=2016-01-01"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-calendarApp-error", "error.rangeinvalid"));
+    }
+
+    @Test
+    public void getUpcomingHolidays() throws Exception {
+        restHolidayMockMvc.perform(get("/api/holidays/upcoming?from=2016-12-01&limit=1&countries=IE"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].calendarKey").value("IE"))
+            .andExpect(jsonPath("$.[0].date").value("2016-12-25"))
+            .andExpect(jsonPath("$.[0].name").value("Christmas Day"));
+    }
+
+    @Test
+    public void getUpcomingHolidaysWithAnInvalidLimit() throws Exception {
+        restHolidayMockMvc.perform(get("/api/holidays/upcoming?limit=0"))
+            .andExpect(status().isBadRequest());
+        restHolidayMockMvc.perform(get("/api/holidays/upcoming?limit=101"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getAllHolidaysAfterACursor() throws Exception {
+        // Initialize the database with the first two holidays in date order
+        holiday.setHolidayDate(LocalDate.of(1900, 1, 1));
+        holidayRepository.saveAndFlush(holiday);
+        Holiday second = new Holiday();
+        second.setName(UPDATED_NAME);
+        second.setHolidayDate(LocalDate.of(1900, 1, 2));
+        holidayRepository.saveAndFlush(second);
+
+        // An empty cursor reads the first page, without counting
+        MvcResult first = restHolidayMockMvc.perform(get("/api/holidays?cursor=&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(holiday.getId().intValue()))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString(
+                "cursor=" + PaginationUtil.encodeCursor(holiday.getHolidayDate(), holiday.getId()))))
+            .andReturn();
+
+        // The next link reads the page after the last holiday of the first one
+        restHolidayMockMvc.perform(get(TestUtil.nextLink(first)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(second.getId().intValue()))
+            .andExpect(jsonPath("$.[0].holidayDate").value("1900-01-02"));
+    }
+
+    @Test
+    @Transactional
+    public void getAllHolidaysAfterAnInvalidCursor() throws Exception {
+        restHolidayMockMvc.perform(get("/api/holidays?cursor={cursor}", PaginationUtil.encodeCursor("1900-01-01")))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getHolidayChanges() throws Exception {
+        // Initialize the database, the feed only carries the holidays of a calendar
+        Calendar calendar = new Calendar();
+        calendar.setCountry("IE");
+        calendar.setYear(DEFAULT_HOLIDAY_DATE.getYear());
+        calendarRepository.saveAndFlush(calendar);
+        holiday.setCalendar(calendar);
+        long version = holidayChangeRepository.findVersion().longValue();
+        holidayService.save(holiday);
+        holiday.setName(UPDATED_NAME);
+        holidayService.save(holiday);
+
+        // Get the changes after the version
+        restHolidayMockMvc.perform(get("/api/holidays/changes?since={since}", version))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(header().string("X-Change-Version", "" + (version + 2)))
+            .andExpect(header().string("X-Has-More", "false"))
+            .andExpect(jsonPath("$.[0].version").value((int) version + 1))
+            .andExpect(jsonPath("$.[0].changeType").value("CREATED"))
+            .andExpect(jsonPath("$.[1].version").value((int) version + 2))
+            .andExpect(jsonPath("$.[1].changeType").value("UPDATED"))
+            .andExpect(jsonPath("$.[1].holidayId").value(holiday.getId().intValue()))
+            .andExpect(jsonPath("$.[1].holiday.name").value(UPDATED_NAME));
+
+        // Get them one by one
+        restHolidayMockMvc.perform(get("/api/holidays/changes?since={since}&size=1", version))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Change-Version", "" + (version + 1)))
+            .andExpect(header().string("X-Has-More", "true"));
+    }
+
+    @Test
+    @Transactional
+    public void getHolidayChangesAfterADeletion() throws Exception {
+        // Initialize the database
+        holidayService.save(holiday);
+        long version = holidayChangeRepository.findVersion().longValue();
+        holidayService.delete(holiday.getId());
+
+        // A deletion carries no holiday
+        restHolidayMockMvc.perform(get("/api/holidays/changes?since={since}", version))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Change-Version", "" + (version + 1)))
+            .andExpect(jsonPath("$.[0].changeType").value("DELETED"))
+            .andExpect(jsonPath("$.[0].holidayId").value(holiday.getId().intValue()))
+            .andExpect(jsonPath("$.[0].holiday").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getHolidayChangesWithAnInvalidSize() throws Exception {
+        restHolidayMockMvc.perform(get("/api/holidays/changes?size=0"))
+            .andExpect(status().isBadRequest());
+        restHolidayMockMvc.perform(get("/api/holidays/changes?size=5001"))
+            .andExpect(status().isBadRequest());
+    }
 }
@@ -5,7 +5,9 @@ import com.evolvingreality.onleave.calendar.domain.util.JSR310LocalDateDeseriali
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -62,4 +64,16 @@ public class TestUtil {
         }
         return byteArray;
     }
+
+    /**
+     * Get the next link of a page read after a cursor.
+     *
+     * @param result the result of the request of the page
+     * @return the url of the next page
+     */
+    public static String nextLink(MvcResult result) {
+        String link = result.getResponse().getHeader(HttpHeaders.LINK);
+        int end = link.indexOf(">; rel=\"next\"");
+        return link.substring(link.lastIndexOf('<', end) + 1, end);
+    }
 }
@@ -0,0 +1,62 @@
+package com.evolvingreality.onleave.calendar.web.rest.util;
+
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the PaginationUtil.
+ *
+ * @see PaginationUtil
+ */
+public class PaginationUtilTest {
+
+    @Test
+    public void cursorRoundTrip() {
+        String cursor = PaginationUtil.encodeCursor(LocalDate.of(2016, 3, 17), 3L);
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(PaginationUtil.decodeCursor(cursor, 2)).containsExactly("2016-03-17", "3");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeRejectsACursorOfAnotherSize() {
+        PaginationUtil.decodeCursor(PaginationUtil.encodeCursor(3L), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeRejectsACursorThatIsNotBase64() {
+        PaginationUtil.decodeCursor("not a cursor", 1);
+    }
+
+    @Test
+    public void cursorHeadersLinkToTheNextPage() {
+        SliceImpl<Long> slice = new SliceImpl<>(Arrays.asList(1L, 2L), new PageRequest(0, 2), true);
+
+        HttpHeaders headers = PaginationUtil.generateCursorPaginationHttpHeaders(slice,
+            id -> PaginationUtil.encodeCursor(id), null, "/api/calendars");
+
+        assertThat(headers.getFirst(HttpHeaders.LINK)).isEqualTo(
+            "</api/calendars?cursor=" + PaginationUtil.encodeCursor(2L) + "&size=2>; rel=\"next\","
+            + "</api/calendars?size=2>; rel=\"first\"");
+        assertThat(headers.containsKey("X-Total-Count")).isFalse();
+    }
+
+    @Test
+    public void cursorHeadersOfTheLastPage() {
+        SliceImpl<Long> slice = new SliceImpl<>(Collections.singletonList(1L), new PageRequest(0, 2), false);
+
+        HttpHeaders headers = PaginationUtil.generateCursorPaginationHttpHeaders(slice,
+            id -> PaginationUtil.encodeCursor(id), 1L, "/api/calendars");
+
+        assertThat(headers.getFirst(HttpHeaders.LINK)).isEqualTo("</api/calendars?size=2>; rel=\"first\"");
+        assertThat(headers.getFirst("X-Total-Count")).isEqualTo("1");
+    }
+}